@@ -10,14 +10,19 @@ import com.vhosting.netconf.transport.Capability;
  * This class provides the elements to modify, add or
  * remove information between the configuration data.
  * 
+ * The config strings are compiled once and kept in a cache; the values
+ * of their variables are bound when the configuration is created.
+ * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public class Config
 {
 	private Capability cap;
 	private String config;
+	private String[] values;
 	private Anyxml a;
+	private volatile byte[] content;
 
 /**
 	 * Create the instance of the class with which to provide 
@@ -49,6 +54,7 @@ public class Config
 	 * This ensures the integrity of information entered into the filter.
 	 * The variables are identified as:
 	 * $n where n = 1 to the number of values passed.
+	 * A character preceded by '\' is not special.
 	 * 
      * 
      * Examples:
@@ -76,7 +82,8 @@ public class Config
 	{
 
 		this.cap = cap;
-		this.config = SubtreeFilter.encode(config, values);
+		this.config = config;
+		this.values = values.clone();
 		this.a = anyxml;
 	}
 
@@ -86,7 +93,7 @@ public class Config
 	 * @return The configuration string.
 	 */
 	public String getConfig() {
-		return config;
+		return NodesString.encode(config, values);
 	}
 
 	/**
@@ -109,14 +116,45 @@ public class Config
 		Element root = doc.getDocumentElement();
 		try
 		{
-			SubtreeFilter.parseNodesString(cap, doc, root, config, true);
+			NodesString.compile(config, true).createNodes(cap, doc, root,
+					values);
 		}
 		catch (Exception e)
 		{
-			throw new ConfigException(e.getMessage());
+			throw new ConfigException("Invalid config: '" + getConfig()
+					+ "'; error on token: " + e.getMessage());
 		}
 
 		return doc;
 	}
 
+	/**
+	 * Create the content of the Anyxml element passed to the constructor,
+	 * written as XML in UTF-8 without building an XML document.
+	 * 
+	 * The content is created once: the following invocations return the
+	 * same array, that must not be changed.
+	 * 
+	 * @return The content of the Anyxml element.
+	 * @see #createAnyxmlValue()
+	 */
+	public byte[] createAnyxmlContent() {
+		byte[] c = content;
+		if (c == null)
+		{
+			try
+			{
+				c = NodesString.compile(config, true).createContent(cap,
+						values);
+			}
+			catch (Exception e)
+			{
+				throw new ConfigException("Invalid config: '" + getConfig()
+						+ "'; error on token: " + e.getMessage());
+			}
+			content = c;
+		}
+		return c;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.vhosting.netconf;
+
+import java.util.Map;
+
+/**
+ * This listener receives the configurations created by a
+ * ConfigTemplate, one for each device.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ * @see ConfigTemplate#createConfigs(java.util.Iterator, ConfigListener, int)
+ */
+public interface ConfigListener
+{
+
+	/**
+	 * Implement this method to process the configuration of a device
+	 * as soon as it has been created; for example to send it with an
+	 * EditConfig operation.
+	 * 
+	 * The method is invoked by the threads that create the
+	 * configurations, also at the same time.
+	 * 
+	 * @param values
+	 *            The values of the device.
+	 * @param config
+	 *            The configuration of the device.
+	 */
+	public void processConfig(Map<String, String> values, Config config);
+}
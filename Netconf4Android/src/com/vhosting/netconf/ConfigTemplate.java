@@ -0,0 +1,193 @@
+package com.vhosting.netconf;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.vhosting.netconf.transport.Capability;
+
+/**
+ * This class creates the configurations of many devices from the
+ * same config string: the variables of the string are named, and the
+ * values of each device are a map from the names to the values.
+ * 
+ * The config string is compiled once; the configuration of each
+ * device is written as XML when it is created, without building an
+ * XML document, and it is sent as it is by an EditConfig operation.
+ * 
+ * <pre>
+ * Example:
+ * 
+ * ConfigTemplate t = new ConfigTemplate(cap,
+ *         "interfaces|interface{replace}|name=$1;description=$2",
+ *         "name", "description");
+ * 
+ * t.createConfigs(devices.iterator(), new ConfigListener()
+ * {
+ *     public void processConfig(Map&lt;String, String&gt; values, Config config) {
+ *         // Send the configuration to the device of the values.
+ *     }
+ * });
+ * </pre>
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ * @see Config#createAnyxmlContent()
+ */
+public class ConfigTemplate
+{
+
+	private final Capability cap;
+	private final String config;
+	private final String[] names;
+
+	/**
+	 * Create the template.
+	 * 
+	 * @param cap
+	 *            The capability of the data to set.
+	 * @param config
+	 *            The config string.
+	 * @param names
+	 *            The names of the variables: the first name is the name of
+	 *            the variable $1, and so on.
+	 * @see Config#Config(com.vhosting.netconf.frame.Anyxml, Capability,
+	 *      String, String...)
+	 */
+	public ConfigTemplate(Capability cap, String config, String... names)
+	{
+		this.cap = cap;
+		this.config = config;
+		this.names = names.clone();
+	}
+
+	/**
+	 * Create the configuration of a device.
+	 * 
+	 * @param values
+	 *            The values of the device.
+	 * @return The configuration, already written as XML.
+	 * @throws ConfigException
+	 *             Throw this exception if a value is missing or the
+	 *             configuration is not valid.
+	 */
+	public Config createConfig(Map<String, String> values)
+			throws ConfigException {
+		String[] v = new String[names.length];
+		for (int i = 0; i < names.length; i++)
+		{
+			v[i] = values.get(names[i]);
+			if (v[i] == null)
+				throw new ConfigException("Missing value: " + names[i]);
+		}
+		Config c = EditConfig.createConfig(cap, config, v);
+		c.createAnyxmlContent();
+		return c;
+	}
+
+	/**
+	 * Create the configurations of many devices with a thread for
+	 * each processor.
+	 * 
+	 * @param devices
+	 *            The values of the devices.
+	 * @param listener
+	 *            The listener that receives the configurations.
+	 * @throws ConfigException
+	 *             Throw this exception if a configuration is not valid.
+	 * @see #createConfigs(Iterator, ConfigListener, int)
+	 */
+	public void createConfigs(Iterator<? extends Map<String, String>> devices,
+			ConfigListener listener) throws ConfigException {
+		createConfigs(devices, listener, Runtime.getRuntime()
+				.availableProcessors());
+	}
+
+	/**
+	 * Create the configurations of many devices.
+	 * 
+	 * The values of the devices are taken one at a time by a number of
+	 * threads, the calling one included; each thread creates the
+	 * configuration and hands it to the listener. The method returns
+	 * when all the configurations have been processed.
+	 * 
+	 * When a configuration fails, or the listener throws an exception,
+	 * the threads stop taking the values and this method throws the
+	 * exception.
+	 * 
+	 * @param devices
+	 *            The values of the devices.
+	 * @param listener
+	 *            The listener that receives the configurations.
+	 * @param threads
+	 *            The number of threads.
+	 * @throws ConfigException
+	 *             Throw this exception if a configuration is not valid.
+	 */
+	public void createConfigs(
+			final Iterator<? extends Map<String, String>> devices,
+			final ConfigListener listener, int threads) throws ConfigException {
+		final RuntimeException[] failure = new RuntimeException[1];
+
+		Runnable worker = new Runnable()
+		{
+			public void run() {
+				while (true)
+				{
+					Map<String, String> values;
+					synchronized (failure)
+					{
+						if (failure[0] != null || !devices.hasNext())
+							return;
+						values = devices.next();
+					}
+					try
+					{
+						listener.processConfig(values, createConfig(values));
+					}
+					catch (RuntimeException e)
+					{
+						synchronized (failure)
+						{
+							if (failure[0] == null)
+								failure[0] = e;
+						}
+						return;
+					}
+				}
+			}
+		};
+
+		Thread[] t = new Thread[Math.max(0, threads - 1)];
+		for (int i = 0; i < t.length; i++)
+		{
+			t[i] = new Thread(worker, "netconf-config-" + i);
+			t[i].start();
+		}
+		worker.run();
+
+		for (int i = 0; i < t.length; i++)
+		{
+			try
+			{
+				t[i].join();
+			}
+			catch (InterruptedException e)
+			{
+				synchronized (failure)
+				{
+					if (failure[0] == null)
+						failure[0] = new ConfigException("Interrupted.");
+				}
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		synchronized (failure)
+		{
+			if (failure[0] != null)
+				throw failure[0];
+		}
+	}
+
+}
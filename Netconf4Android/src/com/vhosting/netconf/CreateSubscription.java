@@ -1,9 +1,8 @@
 package com.vhosting.netconf;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
+
+import javax.xml.XMLConstants;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -11,6 +10,8 @@ import org.w3c.dom.Element;
 import com.vhosting.netconf.frame.Anyxml;
 import com.vhosting.netconf.frame.Leaf;
 import com.vhosting.netconf.frame.Rpc;
+import com.vhosting.netconf.messages.Rfc3339;
+import com.vhosting.netconf.transport.Capability;
 import com.vhosting.netconf.transport.Session;
 
 /**
@@ -27,7 +28,7 @@ import com.vhosting.netconf.transport.Session;
  * </pre>
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public class CreateSubscription extends Operation
 {
@@ -155,6 +156,9 @@ public class CreateSubscription extends Operation
 				+ ":type", "xpath");
 		root.setAttributeNS(filter.getNamespaceURI(), filter.getPrefix()
 				+ ":select", xpath);
+		for (Capability cap : getCapabilitiesOfPrefixes(xpath))
+			root.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, "xmlns:"
+					+ cap.getPrefix(), cap.getNamespaceURI());
 		operation.getInput().assignAnyxml(this.filter, doc);
 
 	}
@@ -162,33 +166,15 @@ public class CreateSubscription extends Operation
 	/**
 	 * Converts a date into a string that conforms
 	 * to the RFC3339 standard of the Internet.
+	 * The date is written in UTC, with the milliseconds
+	 * if they are not zero.
 	 * 
 	 * @param d
 	 *            The Java Date.
 	 * @return The RFC3339 compliant Date string.
 	 */
 	public static String convert3339(Date d) {
-		String ssZ = new SimpleDateFormat("Z").format(d);
-		String sign = ssZ.substring(0, 1);
-		int zH = Integer.parseInt(ssZ.substring(1, 3));
-		int zM = Integer.parseInt(ssZ.substring(3, 5));
-		GregorianCalendar c = new GregorianCalendar();
-		c.setTime(d);
-
-		if (sign.equals("+"))
-		{
-			c.add(Calendar.HOUR, -zH);
-			c.add(Calendar.MINUTE, -zM);
-		}
-		else
-		{
-			c.add(Calendar.HOUR, +zH);
-			c.add(Calendar.MINUTE, +zM);
-		}
-
-		String st = new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ss'Z'").format(c
-				.getTime());
-		return st;
+		return Rfc3339.format(d.getTime());
 	}
 
 }
@@ -33,7 +33,7 @@ import com.vhosting.netconf.transport.Session;
  * </pre>
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public class EditConfig extends Operation
 {
@@ -308,7 +308,7 @@ public class EditConfig extends Operation
 		struct(target);
 
 		operation.getInput().assignAnyxml(EditConfig.config,
-				config.createAnyxmlValue());
+				config.createAnyxmlContent());
 
 	}
 
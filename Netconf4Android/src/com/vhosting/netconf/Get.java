@@ -1,11 +1,14 @@
 package com.vhosting.netconf;
 
+import javax.xml.XMLConstants;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import com.vhosting.netconf.frame.Anyxml;
 import com.vhosting.netconf.frame.Rpc;
 import com.vhosting.netconf.frame.RpcReply;
+import com.vhosting.netconf.transport.Capability;
 import com.vhosting.netconf.transport.Session;
 
 
@@ -20,7 +23,7 @@ import com.vhosting.netconf.transport.Session;
  * urn:ietf:params:netconf:capability:xpath:1.0
  * </pre>
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public class Get extends Operation {
 
@@ -98,6 +101,9 @@ public class Get extends Operation {
 		Element root = doc.getDocumentElement();
 		root.setAttributeNS(filter.getNamespaceURI(), filter.getPrefix() + ":type", "xpath");
 		root.setAttributeNS(filter.getNamespaceURI(), filter.getPrefix() + ":select", xpath);
+		for (Capability cap : getCapabilitiesOfPrefixes(xpath))
+			root.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, "xmlns:"
+					+ cap.getPrefix(), cap.getNamespaceURI());
 		operation.getInput().assignAnyxml(this.filter, doc);
 		
 	}
@@ -160,7 +166,13 @@ public class Get extends Operation {
          * </nc:data>
          * 
 		 * </pre>
+		 * To receive data too big to be held in memory, execute the operation
+		 * with a data handler instead: the data are reported to it while they
+		 * are parsed and nothing is loaded here.
+		 * 
 		 * @return The XML Document contain all the required data or null if the operation failed.
+		 * @see Operation#executeSync(com.vhosting.netconf.frame.RpcHandler,
+		 *      org.xml.sax.ContentHandler)
 		 */
 		public Document getData()
 		{
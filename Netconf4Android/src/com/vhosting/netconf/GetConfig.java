@@ -1,5 +1,7 @@
 package com.vhosting.netconf;
 
+import javax.xml.XMLConstants;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -8,6 +10,7 @@ import com.vhosting.netconf.frame.Container;
 import com.vhosting.netconf.frame.Leaf;
 import com.vhosting.netconf.frame.Rpc;
 import com.vhosting.netconf.frame.RpcReply;
+import com.vhosting.netconf.transport.Capability;
 import com.vhosting.netconf.transport.Session;
 
 /**
@@ -25,7 +28,7 @@ import com.vhosting.netconf.transport.Session;
  * </pre>
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public class GetConfig extends Operation
 {
@@ -138,6 +141,9 @@ public class GetConfig extends Operation
 				+ ":type", "xpath");
 		root.setAttributeNS(filter.getNamespaceURI(), filter.getPrefix()
 				+ ":select", xpath);
+		for (Capability cap : getCapabilitiesOfPrefixes(xpath))
+			root.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, "xmlns:"
+					+ cap.getPrefix(), cap.getNamespaceURI());
 		operation.getInput().assignAnyxml(this.filter, doc);
 
 	}
@@ -203,8 +209,14 @@ public class GetConfig extends Operation
 		 * 
 		 * </pre>
 		 * 
+		 * To receive a configuration too big to be held in memory, execute
+		 * the operation with a data handler instead: the data are reported
+		 * to it while they are parsed and nothing is loaded here.
+		 * 
 		 * @return The XML Document contain all the required data or null if the
 		 *         operation failed.
+		 * @see Operation#executeSync(com.vhosting.netconf.frame.RpcHandler,
+		 *      org.xml.sax.ContentHandler)
 		 */
 		public Document getData() {
 			return data;
@@ -0,0 +1,553 @@
+package com.vhosting.netconf;
+
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Vector;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.vhosting.netconf.transport.Capability;
+import com.vhosting.netconf.transport.Session;
+
+/**
+ * This class is a filter string or a config string compiled into a
+ * tree of nodes.
+ * 
+ * A string is compiled once and the tree is kept in a cache shared by
+ * all the filters and the configurations: the tree does not change,
+ * and the values of the variables '$n' are bound only when the nodes
+ * are created, as the text of the elements, without encoding them.
+ * 
+ * <pre>
+ * '|'          The nodes that follow are children of the first node.
+ * ';'          The node that follows is a sibling of the first node.
+ * '[' ... ']'  The children of a node.
+ * '=' value    The text of a node.
+ * '{' op '}'   The operation of a node; only in a config string.
+ * '\'          The character that follows is not special.
+ * '$n'         The n-th value; '$' followed by no digit is not special.
+ * </pre>
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+final class NodesString
+{
+
+	// The compiled strings kept by the cache.
+	private static final int CACHE_SIZE = 256;
+
+	private static final Map<String, NodesString> filters = createCache();
+	private static final Map<String, NodesString> configs = createCache();
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final String[] OPERATIONS = { "merge", "replace",
+			"create", "delete" };
+
+	private final Node root = new Node();
+
+	private NodesString(String s, boolean isConfig)
+	{
+		parseNodes(s, 0, s.length(), root, isConfig);
+	}
+
+	/**
+	 * Get a filter string or a config string compiled.
+	 * 
+	 * @param s
+	 *            The string.
+	 * @param isConfig
+	 *            true for a config string; false for a filter string.
+	 * @return The string compiled.
+	 */
+	static NodesString compile(String s, boolean isConfig) {
+		Map<String, NodesString> cache = isConfig ? configs : filters;
+		synchronized (cache)
+		{
+			NodesString n = cache.get(s);
+			if (n == null)
+			{
+				n = new NodesString(s, isConfig);
+				cache.put(s, n);
+			}
+			return n;
+		}
+	}
+
+	/**
+	 * Create the nodes of the string as children of an element.
+	 * 
+	 * @param cap
+	 *            The capability of the nodes.
+	 * @param doc
+	 *            The document of the element.
+	 * @param parent
+	 *            The element.
+	 * @param values
+	 *            The values of the variables.
+	 * @throws Exception
+	 *             Throw this exception when a node can not be created; the
+	 *             message is the name of the node.
+	 */
+	void createNodes(Capability cap, Document doc, Element parent,
+			String[] values) throws Exception {
+		createChildren(root, cap, doc, parent, values);
+	}
+
+	/**
+	 * Write the nodes of the string as XML in UTF-8, as the content of
+	 * an element, without building a document.
+	 * The namespace of the capability is declared by the nodes at the
+	 * top; the operations use the prefix of the base capability.
+	 * 
+	 * @param cap
+	 *            The capability of the nodes.
+	 * @param values
+	 *            The values of the variables.
+	 * @return The content.
+	 * @throws Exception
+	 *             Throw this exception when a node can not be written; the
+	 *             message is the name of the node.
+	 */
+	byte[] createContent(Capability cap, String[] values) throws Exception {
+		String prefix = cap.getPrefix();
+		boolean prefixed = prefix != null && prefix.length() > 0;
+		StringBuilder xmlns = new StringBuilder();
+		xmlns.append(prefixed ? " xmlns:" + prefix : " xmlns").append("=\"");
+		escape(xmlns, cap.getNamespaceURI(), true);
+		xmlns.append('"');
+
+		StringBuilder b = new StringBuilder();
+		writeChildren(root, b, prefixed ? prefix + ":" : "", xmlns
+				.toString(), values);
+		return b.toString().getBytes(UTF_8);
+	}
+
+	/**
+	 * Replace the variables of a filter string or a config string with
+	 * their values, encoded so that they are not special.
+	 * 
+	 * @param s
+	 *            The string.
+	 * @param values
+	 *            The values of the variables.
+	 * @return The string with the values.
+	 */
+	static String encode(String s, String[] values) {
+		if (values.length == 0 || s.indexOf('$') < 0)
+			return s;
+		StringBuilder b = new StringBuilder(s.length());
+		int len = s.length();
+		int i = 0;
+		while (i < len)
+		{
+			char c = s.charAt(i);
+			int k = skipVariable(s, i, len);
+			if (c == '\\' && i + 1 < len)
+			{
+				b.append(c).append(s.charAt(i + 1));
+				i += 2;
+			}
+			else if (k > i && variable(s, i, k) <= values.length)
+			{
+				String v = values[variable(s, i, k) - 1];
+				for (int n = 0; n < v.length(); n++)
+				{
+					if ("\\|;=[]{}$".indexOf(v.charAt(n)) >= 0)
+						b.append('\\');
+					b.append(v.charAt(n));
+				}
+				i = k;
+			}
+			else
+			{
+				b.append(c);
+				i++;
+			}
+		}
+		return b.toString();
+	}
+
+	/*
+	 * A node of the tree: its name, its operation, its text and
+	 * its children. The name and the text can contain variables.
+	 */
+	private static final class Node
+	{
+		private Text name;
+		private String operation;
+		private Text text;
+		private final Vector<Node> children = new Vector<Node>();
+	}
+
+	/*
+	 * A text as a sequence of strings and variables; the index of a
+	 * variable is 1 for the first value, 0 for a string.
+	 */
+	private static final class Text
+	{
+		private final String[] strings;
+		private final int[] variables;
+
+		private Text(String[] strings, int[] variables)
+		{
+			this.strings = strings;
+			this.variables = variables;
+		}
+
+		private String toString(String[] values) {
+			if (strings.length == 1)
+				return toString(0, values);
+			StringBuilder b = new StringBuilder();
+			for (int i = 0; i < strings.length; i++)
+				b.append(toString(i, values));
+			return b.toString();
+		}
+
+		private String toString(int i, String[] values) {
+			int v = variables[i];
+			if (v == 0)
+				return strings[i];
+			if (v <= values.length)
+				return values[v - 1];
+			return "$" + v;
+		}
+	}
+
+	private static void createChildren(Node node, Capability cap,
+			Document doc, Element parent, String[] values) throws Exception {
+		for (int i = 0; i < node.children.size(); i++)
+		{
+			Node n = node.children.get(i);
+			String name = n.name.toString(values);
+
+			Element el;
+			try
+			{
+				el = doc.createElementNS(cap.getNamespaceURI(), name);
+				el.setPrefix(cap.getPrefix());
+				if (n.operation != null)
+					el.setAttribute(Session.BASE_1_0.getPrefix()
+							+ ":operation", n.operation);
+			}
+			catch (Exception e)
+			{
+				throw new Exception(name);
+			}
+			parent.appendChild(el);
+
+			if (n.text != null)
+				el.setTextContent(n.text.toString(values));
+			createChildren(n, cap, doc, el, values);
+		}
+	}
+
+	private static void writeChildren(Node node, StringBuilder b,
+			String prefix, String xmlns, String[] values) throws Exception {
+		for (int i = 0; i < node.children.size(); i++)
+		{
+			Node n = node.children.get(i);
+			String name = localName(n.name.toString(values));
+			if (name == null)
+				throw new Exception(n.name.toString(values));
+
+			b.append('<').append(prefix).append(name);
+			if (xmlns != null)
+				b.append(xmlns);
+			if (n.operation != null)
+				b.append(' ').append(Session.BASE_1_0.getPrefix()).append(
+						":operation=\"").append(n.operation).append('"');
+
+			String text = (n.text == null) ? "" : n.text.toString(values);
+			if (text.length() == 0 && n.children.isEmpty())
+			{
+				b.append("/>");
+				continue;
+			}
+			b.append('>');
+			escape(b, text, false);
+			writeChildren(n, b, prefix, null, values);
+			b.append("</").append(prefix).append(name).append('>');
+		}
+	}
+
+	/*
+	 * Get the local name of an element as the DOM does with
+	 * createElementNS() and setPrefix(): the name is a qualified name
+	 * and its prefix is replaced by the prefix of the capability.
+	 * Return null if the name is not a qualified name.
+	 */
+	private static String localName(String name) {
+		int colon = name.indexOf(':');
+		if (colon < 0)
+			return isNCName(name, 0, name.length()) ? name : null;
+		if (name.indexOf(':', colon + 1) >= 0 || !isNCName(name, 0, colon)
+				|| !isNCName(name, colon + 1, name.length()))
+			return null;
+		return name.substring(colon + 1);
+	}
+
+	/*
+	 * Check a name without colons with the characters of XML 1.0.
+	 */
+	private static boolean isNCName(String s, int start, int end) {
+		if (start == end || !isNameStartChar(s.charAt(start)))
+			return false;
+		for (int i = start + 1; i < end; i++)
+		{
+			if (!isNameChar(s.charAt(i)))
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean isNameStartChar(char c) {
+		if (c == '_')
+			return true;
+		// The extenders are letters that can not start a name.
+		return Character.isLetter(c) && c != '\u02d0' && c != '\u02d1'
+				&& c != '\u0640' && c != '\u0e46' && c != '\u0ec6'
+				&& c != '\u3005' && (c < '\u3031' || c > '\u3035')
+				&& (c < '\u309d' || c > '\u309e')
+				&& (c < '\u30fc' || c > '\u30fe');
+	}
+
+	private static boolean isNameChar(char c) {
+		if (Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.'
+				|| c == '\u00b7' || c == '\u0387')
+			return true;
+		int type = Character.getType(c);
+		return type == Character.NON_SPACING_MARK
+				|| type == Character.COMBINING_SPACING_MARK;
+	}
+
+	private static void escape(StringBuilder b, String s, boolean attribute) {
+		for (int i = 0; i < s.length(); i++)
+		{
+			char c = s.charAt(i);
+			switch (c)
+			{
+			case '&':
+				b.append("&amp;");
+				break;
+			case '<':
+				b.append("&lt;");
+				break;
+			case '>':
+				b.append("&gt;");
+				break;
+			case '\r':
+				b.append("&#13;");
+				break;
+			case '"':
+				b.append(attribute ? "&quot;" : "\"");
+				break;
+			default:
+				b.append(c);
+			}
+		}
+	}
+
+	/*
+	 * Parse the nodes separated by '|' and ';' as
+	 * children of a node.
+	 */
+	private static void parseNodes(String s, int start, int end,
+			Node parent, boolean isConfig) {
+		if (s.substring(start, end).trim().length() == 0)
+			return;
+
+		Node root = parent;
+		int path = start;
+		while (path <= end)
+		{
+			int pathEnd = indexOf(s, '|', path, end);
+			Node first = null;
+			int node = path;
+			while (node <= pathEnd)
+			{
+				int nodeEnd = indexOf(s, ';', node, pathEnd);
+				Node n = parseNode(s, node, nodeEnd, isConfig);
+				if (first == null)
+				{
+					root.children.add(n);
+					parent = root;
+					root = first = n;
+				}
+				else
+					parent.children.add(n);
+				node = nodeEnd + 1;
+			}
+			path = pathEnd + 1;
+		}
+	}
+
+	/*
+	 * Parse a node: name [ '{' op '}' ] [ '[' nodes ']' ] [ '=' value ].
+	 */
+	private static Node parseNode(String s, int start, int end,
+			boolean isConfig) {
+		Node n = new Node();
+		int nameEnd = indexOf(s, '=', start, end);
+		if (nameEnd < end)
+			n.text = parseText(s, nameEnd + 1, indexOf(s, '=',
+					nameEnd + 1, end));
+
+		int open = indexOf(s, '[', start, nameEnd);
+		if (open < nameEnd)
+		{
+			int close = closing(s, open, nameEnd);
+			// The children are replaced by the text.
+			if (close < nameEnd && n.text == null)
+				parseNodes(s, open + 1, close, n, isConfig);
+			nameEnd = open;
+		}
+
+		if (isConfig)
+		{
+			int brace = indexOf(s, '{', start, nameEnd);
+			if (brace < nameEnd)
+			{
+				int close = s.lastIndexOf('}', nameEnd - 1);
+				if (close > brace)
+				{
+					String op = s.substring(brace + 1, close).trim();
+					for (String o : OPERATIONS)
+						if (o.equals(op) && close == nameEnd - 1)
+							n.operation = o;
+				}
+				nameEnd = brace;
+			}
+		}
+		n.name = parseText(s, start, nameEnd);
+		return n;
+	}
+
+	/*
+	 * Parse a text, removing the escapes and
+	 * splitting the variables.
+	 */
+	private static Text parseText(String s, int start, int end) {
+		Vector<String> strings = new Vector<String>();
+		Vector<Integer> variables = new Vector<Integer>();
+		StringBuilder b = new StringBuilder();
+		int i = start;
+		while (i < end)
+		{
+			char c = s.charAt(i);
+			int k = skipVariable(s, i, end);
+			if (c == '\\' && i + 1 < end)
+			{
+				b.append(s.charAt(i + 1));
+				i += 2;
+			}
+			else if (k > i)
+			{
+				if (b.length() > 0)
+				{
+					strings.add(b.toString());
+					variables.add(0);
+					b.setLength(0);
+				}
+				strings.add(null);
+				variables.add(variable(s, i, k));
+				i = k;
+			}
+			else
+			{
+				b.append(c);
+				i++;
+			}
+		}
+		if (b.length() > 0 || strings.isEmpty())
+		{
+			strings.add(b.toString());
+			variables.add(0);
+		}
+
+		int[] v = new int[variables.size()];
+		for (int n = 0; n < v.length; n++)
+			v[n] = variables.get(n);
+		return new Text(strings.toArray(new String[strings.size()]), v);
+	}
+
+	/*
+	 * The end of the variable that starts at the index
+	 * or the index itself if there is no variable.
+	 */
+	private static int skipVariable(String s, int i, int end) {
+		if (s.charAt(i) != '$')
+			return i;
+		int k = i + 1;
+		while (k < end && s.charAt(k) >= '0' && s.charAt(k) <= '9')
+			k++;
+		// '$0' is not a variable.
+		if (k == i + 1 || variable(s, i, k) == 0)
+			return i;
+		return k;
+	}
+
+	private static int variable(String s, int start, int end) {
+		long v = 0;
+		for (int i = start + 1; i < end && v <= Integer.MAX_VALUE; i++)
+			v = v * 10 + s.charAt(i) - '0';
+		return (int) Math.min(v, Integer.MAX_VALUE);
+	}
+
+	/*
+	 * The index of a character not escaped and not between
+	 * brackets, or the end if it is not present.
+	 */
+	private static int indexOf(String s, char c, int start, int end) {
+		int depth = 0;
+		for (int i = start; i < end; i++)
+		{
+			char ch = s.charAt(i);
+			if (ch == '\\')
+				i++;
+			else if (ch == c && depth == 0)
+				return i;
+			else if (ch == '[')
+				depth++;
+			else if (ch == ']' && depth > 0)
+				depth--;
+		}
+		return end;
+	}
+
+	/*
+	 * The index of the bracket that closes the one at the index,
+	 * or the end if it is not present.
+	 */
+	private static int closing(String s, int open, int end) {
+		int depth = 0;
+		for (int i = open; i < end; i++)
+		{
+			char ch = s.charAt(i);
+			if (ch == '\\')
+				i++;
+			else if (ch == '[')
+				depth++;
+			else if (ch == ']' && --depth == 0)
+				return i;
+		}
+		return end;
+	}
+
+	private static Map<String, NodesString> createCache() {
+		return new LinkedHashMap<String, NodesString>(CACHE_SIZE, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, NodesString> eldest) {
+				return size() > CACHE_SIZE;
+			}
+		};
+	}
+
+}
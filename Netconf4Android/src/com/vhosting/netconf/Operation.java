@@ -2,11 +2,16 @@ package com.vhosting.netconf;
 
 import java.io.IOException;
 
+import org.xml.sax.ContentHandler;
+
 import com.vhosting.netconf.frame.Rpc;
+import com.vhosting.netconf.frame.RpcFuture;
 import com.vhosting.netconf.frame.RpcHandler;
 import com.vhosting.netconf.frame.RpcReply;
 import com.vhosting.netconf.frame.RpcReplyListener;
 import com.vhosting.netconf.frame.RpcReplySpecificListener;
+import com.vhosting.netconf.frame.RpcTemplate;
+import com.vhosting.netconf.transport.Capability;
 import com.vhosting.netconf.transport.Session;
 
 /**
@@ -16,7 +21,7 @@ import com.vhosting.netconf.transport.Session;
  * made available to the server.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public abstract class Operation
 {
@@ -70,6 +75,44 @@ public abstract class Operation
 	}
 
 
+	/**
+	 * Get the capabilities present on the server whose prefix is used
+	 * by an XPath expression.
+	 * The rpc element declares only the namespaces of its elements:
+	 * the namespaces of these capabilities must be declared where
+	 * the expression is written.
+	 * 
+	 * @see Session#getCapabilitiesOfPrefixes(String)
+	 * 
+	 * @param xpath
+	 *            The XPath expression.
+	 * @return The capabilities.
+	 */
+	final Capability[] getCapabilitiesOfPrefixes(String xpath) {
+		return session.getCapabilitiesOfPrefixes(xpath);
+	}
+
+	/**
+	 * Create the template of the operation: its message is written
+	 * once and sent again with only the message-id changed.
+	 * The template does not follow the later changes of the operation.
+	 * 
+	 * <pre>
+	 * RpcTemplate t = get.createTemplate();
+	 * 
+	 * RpcReply reply = handler.sendSyncRpc(t);
+	 * </pre>
+	 * 
+	 * @return The template.
+	 * @throws IOException
+	 *             Throws this exception when there are problems when
+	 *             writing the message.
+	 * @see RpcTemplate
+	 */
+	public final RpcTemplate createTemplate() throws IOException {
+		return new RpcTemplate(operation, session);
+	}
+
 	/**
 	 * Allows you to execute the operation, through the use of a RpcHandler.
 	 * The execution takes place asynchronously.
@@ -126,6 +169,63 @@ public abstract class Operation
 
 	}
 
+	/**
+	 * Allows you to execute the operation, through the use of a RpcHandler,
+	 * without waiting for the reply.
+	 * 
+	 * @param handler
+	 *            The RPC handler.
+	 * @return The future of the RPC reply.
+	 * @throws IOException
+	 *             Throws this exception when the connection is no
+	 *             longer active before and during the exchange of messages.
+	 */
+	public final RpcFuture executeAsync(RpcHandler handler) throws IOException {
+		return handler.sendAsync(operation);
+	}
+
+	/**
+	 * Allows you to execute the operation, through the use of a RpcHandler,
+	 * and waits until you get a reply, reporting the data of the reply to a
+	 * SAX handler while the reply is parsed.
+	 * 
+	 * The data are not retained: nothing of them is loaded by a Reply.
+	 * 
+	 * @param handler
+	 *            The RPC handler.
+	 * @param dataHandler
+	 *            The handler of the data.
+	 * @return The RPC reply.
+	 * @throws IOException
+	 *             Throws this exception when the connection is no
+	 *             longer active before and during the exchange of messages.
+	 * @see RpcHandler#sendSyncRpc(Rpc, ContentHandler)
+	 */
+	public final RpcReply executeSync(RpcHandler handler,
+			ContentHandler dataHandler) throws IOException {
+		return handler.sendSyncRpc(operation, dataHandler);
+	}
+
+	/**
+	 * Allows you to execute the operation, through the use of a RpcHandler,
+	 * without waiting for the reply, reporting the data of the reply to a
+	 * SAX handler while the reply is parsed.
+	 * 
+	 * @param handler
+	 *            The RPC handler.
+	 * @param dataHandler
+	 *            The handler of the data.
+	 * @return The future of the RPC reply.
+	 * @throws IOException
+	 *             Throws this exception when the connection is no
+	 *             longer active before and during the exchange of messages.
+	 * @see RpcHandler#sendAsync(Rpc, ContentHandler)
+	 */
+	public final RpcFuture executeAsync(RpcHandler handler,
+			ContentHandler dataHandler) throws IOException {
+		return handler.sendAsync(operation, dataHandler);
+	}
+
 
 
 	/**
@@ -8,6 +8,7 @@ import com.vhosting.netconf.frame.Leaf;
 import com.vhosting.netconf.frame.LeafList;
 import com.vhosting.netconf.frame.Rpc;
 import com.vhosting.netconf.frame.RpcReply;
+import com.vhosting.netconf.transport.Capability;
 import com.vhosting.netconf.transport.Session;
 
 /**
@@ -26,7 +27,7 @@ import com.vhosting.netconf.transport.Session;
  * </pre>
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public class PartialLock extends Operation
 {
@@ -87,6 +88,10 @@ public class PartialLock extends Operation
 		{
 			List<Attribute> a = attr[i];
 			a.add(new Attribute("xmlns", sels[i].getNamespace()));
+			for (Capability cap : getCapabilitiesOfPrefixes(sels[i]
+					.getXPath()))
+				a.add(new Attribute("xmlns:" + cap.getPrefix(), cap
+						.getNamespaceURI()));
 		}
 
 		operation.getOutput().linkLeaf(lockId);
@@ -0,0 +1,46 @@
+package com.vhosting.netconf.example;
+
+import org.w3c.dom.Document;
+
+import com.vhosting.netconf.Config;
+import com.vhosting.netconf.EditConfig;
+import com.vhosting.netconf.transport.Capability;
+
+/*
+ * Measures the creation of the configurations from the same config
+ * string with different values, one for each interface, and of a
+ * filter with a filter string for each interface.
+ * 
+ * Usage: ConfigBench [interfaces]
+ */
+public class ConfigBench
+{
+
+	private static final String NS = "urn:example:interfaces";
+
+	public static final void main(String s[]) throws Exception {
+		int n = s.length > 0 ? Integer.parseInt(s[0]) : 5000;
+
+		Capability cap = new Capability(NS, NS, "if");
+		String config = "interfaces|interface{replace}|name=$1;"
+				+ "description=$2;mtu=$3;enabled=$4";
+
+		for (int round = 0; round < 5; round++)
+		{
+			long t0 = System.nanoTime();
+			int elements = 0;
+			for (int i = 0; i < n; i++)
+			{
+				Config c = EditConfig.createConfig(cap, config, "eth" + i,
+						"Uplink " + i + "; backup|primary", "1500", "true");
+				Document doc = c.createAnyxmlValue();
+				elements += doc.getElementsByTagName("*").getLength();
+			}
+			long t1 = System.nanoTime();
+
+			System.out.println(n + " configurations: " + (t1 - t0) / 1000000
+					+ " ms, " + elements + " elements");
+		}
+	}
+
+}
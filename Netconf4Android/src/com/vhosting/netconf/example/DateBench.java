@@ -0,0 +1,106 @@
+package com.vhosting.netconf.example;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+
+import com.vhosting.netconf.messages.Rfc3339;
+
+/*
+ * Compares the parsing and the formatting of RFC 3339 date-time
+ * strings, as done for eventTime, startTime and stopTime:
+ * 
+ * 1. regular expressions, SimpleDateFormat and GregorianCalendar,
+ *    as done before the Rfc3339 class;
+ * 2. the Rfc3339 class.
+ * 
+ * Usage: DateBench [dates]
+ */
+public class DateBench
+{
+
+	public static final void main(String s[]) throws Exception {
+		int n = s.length > 0 ? Integer.parseInt(s[0]) : 200000;
+
+		Random r = new Random(0);
+		String[] dates = new String[1024];
+		long[] millis = new long[dates.length];
+		for (int i = 0; i < dates.length; i++)
+		{
+			millis[i] = 1700000000000L + (long) (r.nextDouble() * 1e11);
+			dates[i] = Rfc3339.format(millis[i], (i % 3 - 1) * 120);
+		}
+
+		for (int round = 0; round < 3; round++)
+		{
+			long sum = 0;
+			long t0 = System.nanoTime();
+			for (int i = 0; i < n; i++)
+				sum += regexParse(dates[i & 1023]).getTime();
+			long t1 = System.nanoTime();
+			for (int i = 0; i < n; i++)
+				sum += Rfc3339.parse(dates[i & 1023]);
+			long t2 = System.nanoTime();
+			for (int i = 0; i < n; i++)
+				sum += calendarFormat(new Date(millis[i & 1023])).length();
+			long t3 = System.nanoTime();
+			char[] buf = new char[Rfc3339.MAX_LENGTH];
+			for (int i = 0; i < n; i++)
+				sum += Rfc3339.format(millis[i & 1023], 0, buf, 0);
+			long t4 = System.nanoTime();
+
+			System.out.println("Parse  regex+SimpleDateFormat : "
+					+ (t1 - t0) / n + " ns/date");
+			System.out.println("Parse  Rfc3339                : "
+					+ (t2 - t1) / n + " ns/date");
+			System.out.println("Format SimpleDateFormat+Cal.  : "
+					+ (t3 - t2) / n + " ns/date");
+			System.out.println("Format Rfc3339                : "
+					+ (t4 - t3) / n + " ns/date" + (sum == 42 ? " " : ""));
+			System.out.println();
+		}
+	}
+
+	private static Date regexParse(String timeString) throws ParseException {
+		timeString = timeString.replaceFirst("[.]\\d\\d", "");
+		timeString = timeString.replaceFirst("([+-]\\d\\d):(\\d\\d)$", "$1$2");
+		timeString = timeString.replaceFirst("[Zz]$", "");
+		try
+		{
+			return new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ssZ")
+					.parse(timeString);
+		}
+		catch (ParseException e)
+		{
+			return new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ss")
+					.parse(timeString);
+		}
+	}
+
+	private static String calendarFormat(Date d) {
+		String ssZ = new SimpleDateFormat("Z").format(d);
+		String sign = ssZ.substring(0, 1);
+		int zH = Integer.parseInt(ssZ.substring(1, 3));
+		int zM = Integer.parseInt(ssZ.substring(3, 5));
+		GregorianCalendar c = new GregorianCalendar();
+		c.setTime(d);
+
+		if (sign.equals("+"))
+		{
+			c.add(Calendar.HOUR, -zH);
+			c.add(Calendar.MINUTE, -zM);
+		}
+		else
+		{
+			c.add(Calendar.HOUR, +zH);
+			c.add(Calendar.MINUTE, +zM);
+		}
+
+		return new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ss'Z'").format(c
+				.getTime());
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.vhosting.netconf.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.vhosting.netconf.Config;
+import com.vhosting.netconf.ConfigListener;
+import com.vhosting.netconf.ConfigTemplate;
+import com.vhosting.netconf.EditConfig;
+import com.vhosting.netconf.transport.Capability;
+
+/*
+ * Compares the creation of the configurations of many devices from
+ * the same config string:
+ * 
+ * 1. a Config for each device and its XML document, as done by
+ *    EditConfig before the content written as XML;
+ * 2. a ConfigTemplate with one thread;
+ * 3. a ConfigTemplate with a thread for each processor.
+ * 
+ * Usage: FleetConfigBench [devices]
+ */
+public class FleetConfigBench
+{
+
+	private static final String NS = "urn:example:interfaces";
+
+	private static final String CONFIG = "interfaces|interface{replace}|"
+			+ "name=$1;description=$2;mtu=$3;ipv4[address[ip=$4;prefix-length=24]]";
+
+	public static final void main(String s[]) throws Exception {
+		int n = s.length > 0 ? Integer.parseInt(s[0]) : 5000;
+		int processors = Runtime.getRuntime().availableProcessors();
+
+		Capability cap = new Capability(NS, NS, "if");
+		ConfigTemplate template = new ConfigTemplate(cap, CONFIG, "name",
+				"description", "mtu", "ip");
+
+		Vector<Map<String, String>> devices = new Vector<Map<String, String>>();
+		for (int i = 0; i < n; i++)
+		{
+			Map<String, String> m = new HashMap<String, String>();
+			m.put("name", "eth0");
+			m.put("description", "Uplink of device " + i + " <core>");
+			m.put("mtu", "1500");
+			m.put("ip", "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "."
+					+ (i & 255));
+			devices.add(m);
+		}
+
+		final AtomicLong bytes = new AtomicLong();
+		ConfigListener listener = new ConfigListener()
+		{
+			public void processConfig(Map<String, String> values,
+					Config config) {
+				bytes.addAndGet(config.createAnyxmlContent().length);
+			}
+		};
+
+		for (int round = 0; round < 5; round++)
+		{
+			long t0 = System.nanoTime();
+			int elements = 0;
+			for (Map<String, String> m : devices)
+			{
+				Config c = EditConfig.createConfig(cap, CONFIG, m.get("name"),
+						m.get("description"), m.get("mtu"), m.get("ip"));
+				elements += c.createAnyxmlValue().getElementsByTagName("*")
+						.getLength();
+			}
+			long t1 = System.nanoTime();
+			bytes.set(0);
+			template.createConfigs(devices.iterator(), listener, 1);
+			long t2 = System.nanoTime();
+			template.createConfigs(devices.iterator(), listener, processors);
+			long t3 = System.nanoTime();
+
+			System.out.println(n + " devices, documents     : " + (t1 - t0)
+					/ 1000000 + " ms, " + elements + " elements");
+			System.out.println(n + " devices, template (1)  : " + (t2 - t1)
+					/ 1000000 + " ms, " + bytes.get() / 2 + " bytes");
+			System.out.println(n + " devices, template (" + processors
+					+ ")  : " + (t3 - t2) / 1000000 + " ms");
+			System.out.println();
+		}
+	}
+
+}
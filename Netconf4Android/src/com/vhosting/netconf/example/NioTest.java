@@ -0,0 +1,180 @@
+package com.vhosting.netconf.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.vhosting.netconf.Get;
+import com.vhosting.netconf.frame.RpcHandler;
+import com.vhosting.netconf.frame.RpcReply;
+import com.vhosting.netconf.frame.RpcReplySpecificListener;
+import com.vhosting.netconf.transport.NetconfCatcherListener;
+import com.vhosting.netconf.transport.NetconfTransportEvent;
+import com.vhosting.netconf.transport.nio.NetconfTcpCatcher;
+import com.vhosting.netconf.transport.nio.NioEngine;
+
+/*
+ * Opens many Netconf sessions over TCP on a few I/O threads and
+ * sends a chain of get requests on each session.
+ * At the end, a session is closed by a local server just after the
+ * hello message, and the event of the closing is awaited.
+ * 
+ * Usage: NioTest [sessions] [requests] [ioThreads] [host port]
+ * 
+ * Without host and port a StandInServer is started locally.
+ */
+public class NioTest
+{
+
+	public static final void main(String s[]) throws Exception {
+		int sessions = s.length > 0 ? Integer.parseInt(s[0]) : 200;
+		final int requests = s.length > 1 ? Integer.parseInt(s[1]) : 100;
+		int ioThreads = s.length > 2 ? Integer.parseInt(s[2]) : 2;
+
+		InetSocketAddress addr;
+		if (s.length > 4)
+			addr = new InetSocketAddress(s[3], Integer.parseInt(s[4]));
+		else
+		{
+			StandInServer server = new StandInServer(0);
+			server.start();
+			addr = new InetSocketAddress("localhost", server.getPort());
+		}
+
+		NioEngine engine = new NioEngine(ioThreads);
+		final CountDownLatch done = new CountDownLatch(sessions);
+		final AtomicInteger replies = new AtomicInteger();
+		final AtomicInteger failures = new AtomicInteger();
+
+		long t0 = System.nanoTime();
+		for (int i = 0; i < sessions; i++)
+		{
+			NetconfTcpCatcher catcher = new NetconfTcpCatcher("session-" + i,
+					engine, addr);
+			catcher.setNetconfCatcherListener(new NetconfCatcherListener()
+			{
+				private boolean ready;
+
+				public void processTransportEvents(NetconfTransportEvent event) {
+					if (!ready)
+					{
+						failures.incrementAndGet();
+						done.countDown();
+					}
+				}
+
+				public void processReadyForRpcRequests(
+						final RpcHandler rpcHandler) {
+					ready = true;
+					try
+					{
+						next(rpcHandler, requests);
+					}
+					catch (IOException e)
+					{
+						failures.incrementAndGet();
+						done.countDown();
+					}
+				}
+
+				private void next(final RpcHandler rpcHandler, final int left)
+						throws IOException {
+					if (left == 0)
+					{
+						done.countDown();
+						return;
+					}
+					Get get = new Get(rpcHandler.getSession());
+					get.execute(rpcHandler, new RpcReplySpecificListener()
+					{
+						public void processRpcReply(RpcReply reply) {
+							replies.incrementAndGet();
+							try
+							{
+								next(rpcHandler, left - 1);
+							}
+							catch (IOException e)
+							{
+								failures.incrementAndGet();
+								done.countDown();
+							}
+						}
+					});
+				}
+			});
+			catcher.connect();
+		}
+
+		if (!done.await(10, TimeUnit.MINUTES))
+			System.out.println("Timeout.");
+		long t1 = System.nanoTime();
+
+		System.out.println("Sessions   : " + sessions + " on " + ioThreads
+				+ " I/O threads");
+		System.out.println("Replies    : " + replies.get());
+		System.out.println("Failures   : " + failures.get());
+		System.out.println("Elapsed    : " + (t1 - t0) / 1000000 + " ms");
+		System.out.println("Threads    : " + Thread.activeCount());
+		System.out.println("Server drop: "
+				+ (serverDrop(engine) ? "closed" : "not closed"));
+		engine.shutdown();
+	}
+
+	/*
+	 * Test that the closing of a connection by the server is
+	 * reported without other events on the loop.
+	 */
+	private static boolean serverDrop(NioEngine engine) throws Exception {
+		final ServerSocket server = new ServerSocket(0);
+		Thread t = new Thread()
+		{
+			public void run() {
+				try
+				{
+					Socket s = server.accept();
+					OutputStream out = s.getOutputStream();
+					out.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+							+ "<hello xmlns=\"urn:ietf:params:xml:ns:netconf:base:1.0\">"
+							+ "<capabilities><capability>urn:ietf:params:netconf:base:1.0"
+							+ "</capability></capabilities><session-id>1</session-id>"
+							+ "</hello>]]>]]>").getBytes("UTF-8"));
+					out.flush();
+					s.close();
+				}
+				catch (IOException e)
+				{
+					// The test fails.
+				}
+			}
+		};
+		t.start();
+
+		final CountDownLatch closed = new CountDownLatch(1);
+		NetconfTcpCatcher catcher = new NetconfTcpCatcher("dropped", engine,
+				new InetSocketAddress("localhost", server.getLocalPort()));
+		catcher.setNetconfCatcherListener(new NetconfCatcherListener()
+		{
+			public void processTransportEvents(NetconfTransportEvent event) {
+				closed.countDown();
+			}
+
+			public void processReadyForRpcRequests(RpcHandler rpcHandler) {
+			}
+		});
+		catcher.connect();
+		try
+		{
+			return closed.await(10, TimeUnit.SECONDS);
+		}
+		finally
+		{
+			server.close();
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.vhosting.netconf.example;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+
+import com.vhosting.netconf.CreateSubscription;
+import com.vhosting.netconf.frame.Identity;
+import com.vhosting.netconf.frame.IdentityCreator;
+import com.vhosting.netconf.frame.RpcHandler;
+import com.vhosting.netconf.messages.NotificationMsg;
+import com.vhosting.netconf.notification.NotificationEvent;
+import com.vhosting.netconf.notification.NotificationsListener;
+import com.vhosting.netconf.transport.Capability;
+import com.vhosting.netconf.transport.NetconfCatcherListener;
+import com.vhosting.netconf.transport.NetconfTransportEvent;
+import com.vhosting.netconf.transport.nio.NetconfTcpCatcher;
+import com.vhosting.netconf.transport.nio.NioEngine;
+
+/*
+ * Receives a stream of notifications of ten kinds of events
+ * from a stand-in server, of which only one is of interest:
+ * first with a general notifications listener that parses every
+ * notification, then with a listener of the only event of
+ * interest, so that the other notifications are discarded
+ * without being parsed.
+ * 
+ * Usage: NotificationBench [notifications]
+ */
+public class NotificationBench
+{
+
+	private static final String NS = "urn:example:events";
+
+	public static final void main(String s[]) throws Exception {
+		int notifications = s.length > 0 ? Integer.parseInt(s[0]) : 100000;
+
+		String[] events = new String[10];
+		for (int i = 0; i < events.length; i++)
+		{
+			events[i] = "<event" + i + " xmlns=\"" + NS + "\">"
+					+ "<if-name>ge-0/0/" + i + "</if-name>"
+					+ "<oper-status>up</oper-status>"
+					+ "<counters><in>12345</in><out>67890</out></counters>"
+					+ "</event" + i + ">";
+		}
+
+		StandInServer server = new StandInServer(0);
+		server.setNotifications(events, notifications);
+		server.start();
+
+		Capability cap = new Capability(NS, NS, "ev");
+		Identity event0 = IdentityCreator.createIdentity(cap, "event0");
+
+		System.out.println("Notifications  : " + notifications
+				+ ", 1 event of interest in 10");
+		run(server, notifications / 10, null);
+		run(server, notifications / 10, event0);
+		run(server, notifications / 10, null);
+		run(server, notifications / 10, event0);
+	}
+
+	private static void run(StandInServer server, final int expected,
+			final Identity event) throws Exception {
+		NioEngine engine = new NioEngine(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final int[] count = new int[1];
+		final long[] time = new long[1];
+
+		final NotificationsListener listener = new NotificationsListener()
+		{
+			public void processNotification(NotificationEvent notification) {
+				/*
+				 * The general listener receives every notification
+				 * and must identify the event by itself.
+				 */
+				if (event == null
+						&& !"event0".equals(((NotificationMsg) notification)
+								.getEvent().getLocalPart()))
+					return;
+				if (++count[0] == expected)
+				{
+					time[0] = System.nanoTime() - time[0];
+					done.countDown();
+				}
+			}
+		};
+
+		final NetconfTcpCatcher c = new NetconfTcpCatcher("notifications",
+				engine, new InetSocketAddress("localhost", server.getPort()));
+		c.setNetconfCatcherListener(new NetconfCatcherListener()
+		{
+			public void processTransportEvents(NetconfTransportEvent e) {
+				done.countDown();
+			}
+
+			public void processReadyForRpcRequests(RpcHandler rpcHandler) {
+				if (event == null)
+					rpcHandler.setNotificationsListener(listener);
+				else
+					rpcHandler.setNotificationsListener(event, listener);
+				try
+				{
+					time[0] = System.nanoTime();
+					new CreateSubscription(rpcHandler.getSession())
+							.executeAsync(rpcHandler);
+				}
+				catch (Exception e)
+				{
+					e.printStackTrace();
+					done.countDown();
+				}
+			}
+		});
+		c.connect();
+		done.await();
+		c.disconnect();
+		engine.shutdown();
+
+		System.out.println((event == null ? "General listener : "
+				: "Event listener   : ")
+				+ count[0] + " events of interest, " + time[0] / 1000000
+				+ " ms");
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.vhosting.netconf.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+
+import com.vhosting.netconf.messages.DOMUtils;
+import com.vhosting.netconf.messages.RpcReplyMsg;
+
+/*
+ * Measures the throughput of the parsing of the RPC replies when
+ * many sessions receive at the same time.
+ * 
+ * Each session is a thread that parses its own copy of an rpc-reply
+ * carrying a list of interfaces, as the reading thread of a catcher
+ * does, and dumps one reply every ten. The test is repeated doubling
+ * the number of sessions up to the number of processors, or up to
+ * the maximum given; with a parser for each thread the throughput
+ * grows with the processors.
+ * 
+ * Usage: ParseBench [messages per session] [entries per message]
+ *                   [max sessions]
+ */
+public class ParseBench
+{
+
+	public static final void main(String s[]) throws Exception {
+		int messages = s.length > 0 ? Integer.parseInt(s[0]) : 2000;
+		int entries = s.length > 1 ? Integer.parseInt(s[1]) : 50;
+		int cpus = Runtime.getRuntime().availableProcessors();
+		int max = s.length > 2 ? Integer.parseInt(s[2]) : cpus;
+
+		byte[] reply = reply(entries);
+		System.out.println("Processors : " + cpus);
+		System.out.println("Reply      : " + reply.length + " bytes");
+
+		// Warm up.
+		run(max, messages / 4, reply);
+
+		double single = 0;
+		for (int sessions = 1;; sessions *= 2)
+		{
+			if (sessions > max)
+				sessions = max;
+			long ns = run(sessions, messages, reply);
+			double rate = (double) sessions * messages * 1e9 / ns;
+			if (sessions == 1)
+				single = rate;
+			System.out.println(String.format(
+					"%4d sessions: %10.0f replies/s  x%.2f", sessions, rate,
+					rate / single));
+			if (sessions == max)
+				break;
+		}
+	}
+
+	private static long run(int sessions, final int messages,
+			final byte[] reply) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(sessions);
+		for (int i = 0; i < sessions; i++)
+		{
+			final byte[] b = reply.clone();
+			new Thread()
+			{
+				public void run() {
+					try
+					{
+						start.await();
+						ByteArrayOutputStream out = new ByteArrayOutputStream();
+						for (int m = 0; m < messages; m++)
+						{
+							RpcReplyMsg r = RpcReplyMsg.createServerRpcReply(b,
+									0, b.length);
+							if (r == null)
+								throw new IllegalStateException("Not a reply.");
+							if (m % 10 == 0)
+							{
+								out.reset();
+								DOMUtils.dump(DOMUtils
+										.newDocument(new ByteArrayInputStream(b)),
+										out);
+							}
+						}
+					}
+					catch (Exception e)
+					{
+						e.printStackTrace();
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+		long t0 = System.nanoTime();
+		start.countDown();
+		done.await();
+		return System.nanoTime() - t0;
+	}
+
+	private static byte[] reply(int entries) throws Exception {
+		StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+		sb.append("<rpc-reply xmlns=\"urn:ietf:params:xml:ns:netconf:base:1.0\" message-id=\"101\">");
+		sb.append("<data><interfaces xmlns=\"urn:example:interfaces\">");
+		for (int i = 0; i < entries; i++)
+		{
+			sb.append("<interface><name>eth").append(i).append("</name>");
+			sb.append("<mtu>1500</mtu><enabled>true</enabled>");
+			sb.append("<description>uplink ").append(i)
+					.append("</description></interface>");
+		}
+		sb.append("</interfaces></data></rpc-reply>");
+		return sb.toString().getBytes("UTF-8");
+	}
+
+}
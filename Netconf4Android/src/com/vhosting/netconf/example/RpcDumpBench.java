@@ -0,0 +1,119 @@
+package com.vhosting.netconf.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.w3c.dom.Document;
+
+import com.vhosting.netconf.frame.Container;
+import com.vhosting.netconf.frame.IdentityCreator;
+import com.vhosting.netconf.frame.Leaf;
+import com.vhosting.netconf.frame.List;
+import com.vhosting.netconf.frame.ListValue;
+import com.vhosting.netconf.frame.Rpc;
+import com.vhosting.netconf.frame.RpcTemplate;
+import com.vhosting.netconf.messages.DOMUtils;
+import com.vhosting.netconf.transport.Capability;
+import com.vhosting.netconf.transport.Session;
+
+/*
+ * Compares the writing of the RPC messages:
+ * 
+ * 1. a DOM document serialized by the indenting Transformer, as done
+ *    before the XmlEmitter; the DOM is copied from a parsed message,
+ *    so the building of the DOM from the structure is not counted;
+ * 2. Rpc.dumpRpcMessage(), that writes the structure directly;
+ * 3. RpcTemplate.dumpRpcMessage(), that writes again the bytes of
+ *    a message written once, changing only the message-id.
+ * 
+ * Two messages are written: an RPC with a single leaf and an RPC
+ * carrying a list of interfaces.
+ * 
+ * Usage: RpcDumpBench [interfaces] [iterations]
+ */
+public class RpcDumpBench
+{
+
+	private static final String NS = "urn:example:interfaces";
+
+	public static final void main(String s[]) throws Exception {
+		int entries = s.length > 0 ? Integer.parseInt(s[0]) : 2000;
+		int n = s.length > 1 ? Integer.parseInt(s[1]) : 20000;
+
+		Capability cap = new Capability(NS, NS, "if");
+		Session session = new Session();
+
+		Rpc small = new Rpc(cap, "restart");
+		Leaf name = small.getInput().linkLeaf(
+				IdentityCreator.createLeaf(cap, "name"));
+		small.getInput().assignLeaf(name, "eth0");
+
+		Rpc large = new Rpc(cap, "configure");
+		Container in = large.getInput();
+		List l = in.linkList(IdentityCreator.createList(cap, "interface"));
+		Leaf ifName = l.linkLeaf(IdentityCreator.createLeaf(cap, "name"));
+		Leaf descr = l.linkLeaf(IdentityCreator.createLeaf(cap,
+				"description"));
+		Leaf mtu = l.linkLeaf(IdentityCreator.createLeaf(cap, "mtu"));
+		Leaf enabled = l.linkLeaf(IdentityCreator.createLeaf(cap, "enabled"));
+		ListValue[] values = new ListValue[entries];
+		for (int i = 0; i < entries; i++)
+		{
+			values[i] = l.createListValue();
+			values[i].assignLeaf(ifName, "eth" + i);
+			values[i].assignLeaf(descr, "Uplink <" + i + "> & backup");
+			values[i].assignLeaf(mtu, "1500");
+			values[i].assignLeaf(enabled, "true");
+		}
+		l.assign(values);
+
+		for (int round = 0; round < 3; round++)
+		{
+			bench("Small RPC", small, session, n);
+			bench("Large RPC", large, session, Math.max(1, n / entries));
+			System.out.println();
+		}
+	}
+
+	private static void bench(String label, Rpc rpc, Session session, int n)
+			throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		rpc.dumpRpcMessage(session, 1, out);
+		byte[] compact = out.toByteArray();
+		Document parsed = DOMUtils.newDocument(new ByteArrayInputStream(
+				compact));
+
+		long t0 = System.nanoTime();
+		int indented = 0;
+		for (int i = 0; i < n; i++)
+		{
+			Document doc = DOMUtils.newDocument();
+			doc.appendChild(doc.importNode(parsed.getDocumentElement(), true));
+			out.reset();
+			DOMUtils.dump(doc, out);
+			indented = out.size();
+		}
+		long t1 = System.nanoTime();
+		for (int i = 0; i < n; i++)
+		{
+			out.reset();
+			rpc.dumpRpcMessage(session, i, out);
+		}
+		long t2 = System.nanoTime();
+		RpcTemplate template = new RpcTemplate(rpc, session);
+		for (int i = 0; i < n; i++)
+		{
+			out.reset();
+			template.dumpRpcMessage(session, i, out);
+		}
+		long t3 = System.nanoTime();
+
+		System.out.println(label + " DOM+Transformer : " + (t1 - t0) / n
+				/ 1000 + " us/message, " + indented + " bytes");
+		System.out.println(label + " dumpRpcMessage  : " + (t2 - t1) / n
+				/ 1000 + " us/message, " + compact.length + " bytes");
+		System.out.println(label + " RpcTemplate     : " + (t3 - t2) / n
+				+ " ns/message, " + out.size() + " bytes");
+	}
+
+}
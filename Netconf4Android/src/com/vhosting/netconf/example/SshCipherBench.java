@@ -0,0 +1,142 @@
+package com.vhosting.netconf.example;
+
+import java.lang.reflect.Constructor;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import ch.ethz.ssh2.crypto.cipher.AES;
+import ch.ethz.ssh2.crypto.cipher.CTRMode;
+import ch.ethz.ssh2.crypto.digest.HMAC;
+import ch.ethz.ssh2.crypto.digest.SHA1;
+
+/*
+ * Compares the bulk throughput of the packet protection of an
+ * SSH-2 connection:
+ * 
+ * 1. aes128-ctr + hmac-sha1 of the Ganymed backend (pure Java);
+ * 2. aes128-ctr + hmac-sha1 of the JDK providers;
+ * 3. aes128-gcm@openssh.com of the JDK providers.
+ * 
+ * The packets have the maximum size of an SSH-2 channel packet.
+ * The GCM mode is measured only where the platform provides it.
+ * 
+ * Usage: SshCipherBench [megabytes]
+ */
+public class SshCipherBench
+{
+
+	private static final int PACKET = 32 * 1024;
+
+	public static final void main(String s[]) throws Exception {
+		int mb = s.length > 0 ? Integer.parseInt(s[0]) : 256;
+		long bytes = (long) mb * 1024 * 1024;
+
+		byte[] key = new byte[16];
+		byte[] iv = new byte[16];
+		byte[] macKey = new byte[20];
+		Random r = new Random(1);
+		r.nextBytes(key);
+		r.nextBytes(iv);
+		r.nextBytes(macKey);
+
+		byte[] packet = new byte[PACKET];
+		byte[] out = new byte[PACKET + 16];
+		r.nextBytes(packet);
+
+		Constructor<?> gcm = null;
+		try
+		{
+			gcm = Class.forName("javax.crypto.spec.GCMParameterSpec")
+					.getConstructor(int.class, byte[].class);
+		}
+		catch (ClassNotFoundException e)
+		{
+			System.out.println("The GCM mode is not available.");
+		}
+
+		// Warm up.
+		for (int i = 0; i < 3; i++)
+		{
+			ganymed(key, iv, macKey, packet, out, bytes / 8);
+			jdkCtr(key, iv, macKey, packet, out, bytes / 8);
+			if (gcm != null)
+				jdkGcm(gcm, key, iv, packet, out, bytes / 8);
+		}
+
+		print("Ganymed aes128-ctr + hmac-sha1",
+				ganymed(key, iv, macKey, packet, out, bytes), bytes);
+		print("JDK     aes128-ctr + hmac-sha1",
+				jdkCtr(key, iv, macKey, packet, out, bytes), bytes);
+		if (gcm != null)
+			print("JDK     aes128-gcm@openssh.com",
+					jdkGcm(gcm, key, iv, packet, out, bytes), bytes);
+	}
+
+	private static long ganymed(byte[] key, byte[] iv, byte[] macKey,
+			byte[] packet, byte[] out, long bytes) {
+		AES aes = new AES();
+		aes.init(true, key);
+		CTRMode ctr = new CTRMode(aes, iv, true);
+		HMAC mac = new HMAC(new SHA1(), macKey, 20);
+		byte[] digest = new byte[20];
+
+		long t0 = System.nanoTime();
+		for (long n = 0; n < bytes; n += PACKET)
+		{
+			mac.update(packet, 0, PACKET);
+			mac.digest(digest);
+			for (int i = 0; i < PACKET; i += 16)
+				ctr.transformBlock(packet, i, out, i);
+		}
+		return System.nanoTime() - t0;
+	}
+
+	private static long jdkCtr(byte[] key, byte[] iv, byte[] macKey,
+			byte[] packet, byte[] out, long bytes) throws Exception {
+		Cipher c = Cipher.getInstance("AES/CTR/NoPadding");
+		c.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"),
+				new IvParameterSpec(iv));
+		Mac mac = Mac.getInstance("HmacSHA1");
+		mac.init(new SecretKeySpec(macKey, "HmacSHA1"));
+
+		long t0 = System.nanoTime();
+		for (long n = 0; n < bytes; n += PACKET)
+		{
+			mac.update(packet, 0, PACKET);
+			mac.doFinal();
+			c.update(packet, 0, PACKET, out, 0);
+		}
+		return System.nanoTime() - t0;
+	}
+
+	private static long jdkGcm(Constructor<?> gcm, byte[] key, byte[] iv,
+			byte[] packet, byte[] out, long bytes) throws Exception {
+		Cipher c = Cipher.getInstance("AES/GCM/NoPadding");
+		SecretKeySpec k = new SecretKeySpec(key, "AES");
+		byte[] nonce = new byte[12];
+		System.arraycopy(iv, 0, nonce, 0, 12);
+
+		long t0 = System.nanoTime();
+		for (long n = 0; n < bytes; n += PACKET)
+		{
+			// The invocation counter of RFC 5647.
+			for (int i = 11; i >= 4 && ++nonce[i] == 0; i--)
+				;
+			c.init(Cipher.ENCRYPT_MODE, k,
+					(AlgorithmParameterSpec) gcm.newInstance(128, nonce));
+			c.doFinal(packet, 0, PACKET, out, 0);
+		}
+		return System.nanoTime() - t0;
+	}
+
+	private static void print(String name, long nanos, long bytes) {
+		double mbs = (bytes / (1024.0 * 1024.0)) / (nanos / 1e9);
+		System.out.println(name + ": " + Math.round(mbs) + " MB/s");
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.vhosting.netconf.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.vhosting.netconf.transport.ChunkedFramer;
+import com.vhosting.netconf.transport.EndOfMessageFramer;
+import com.vhosting.netconf.transport.MessageFramer;
+import com.vhosting.netconf.transport.MessageSlice;
+import com.vhosting.netconf.transport.Session;
+
+/*
+ * A minimal Netconf server over plain TCP or TLS, used to test the
+ * transports without a real device.
+ * 
+ * It answers to every RPC request with an empty reply: <data/>
+ * for the get and get-config operations and <ok/> otherwise.
+ * The content of <data> can be set with setData().
+ * After the reply to create-subscription it sends the
+ * notifications set with setNotifications().
+ */
+public class StandInServer implements Runnable
+{
+
+	private static final String XMLNS = "urn:ietf:params:xml:ns:netconf:base:1.0";
+	private static final String BASE = "urn:ietf:params:netconf:base:1.0";
+	private static final String BASE_1_1 = "urn:ietf:params:netconf:base:1.1";
+
+	private static final Pattern MESSAGE_ID = Pattern
+			.compile("message-id=\"([^\"]*)\"");
+
+	private final ServerSocket server;
+	private final AtomicInteger sessions = new AtomicInteger();
+	private volatile byte[] data;
+	private volatile String[] events;
+	private volatile int notifications;
+
+	public StandInServer(int port) throws IOException
+	{
+		this(new ServerSocket(port, 1024));
+	}
+
+	public StandInServer(ServerSocket server)
+	{
+		this.server = server;
+	}
+
+	/*
+	 * Set the content of the <data> element of the replies,
+	 * as an UTF-8 XML fragment; null for an empty element.
+	 */
+	public void setData(byte[] data) {
+		this.data = data;
+	}
+
+	/*
+	 * Set the notifications sent after the reply to create-subscription:
+	 * count notifications whose events are taken in turn from an array
+	 * of UTF-8 XML fragments.
+	 */
+	public void setNotifications(String[] events, int count) {
+		this.events = events;
+		this.notifications = count;
+	}
+
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	public void start() {
+		Thread t = new Thread(this, "stand-in-server");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	public void run() {
+		while (true)
+		{
+			final Socket s;
+			try
+			{
+				s = server.accept();
+				s.setTcpNoDelay(true);
+			}
+			catch (IOException e)
+			{
+				return;
+			}
+			Thread t = new Thread(new Runnable()
+			{
+				public void run() {
+					try
+					{
+						serve(s);
+					}
+					catch (IOException e)
+					{
+						// The connection is dropped.
+					}
+					try
+					{
+						s.close();
+					}
+					catch (IOException e)
+					{
+						// Nothing to do.
+					}
+				}
+			});
+			t.setDaemon(true);
+			t.start();
+		}
+	}
+
+	private void serve(Socket s) throws IOException {
+		InputStream in = s.getInputStream();
+		OutputStream out = s.getOutputStream();
+		MessageFramer framer = new EndOfMessageFramer(in);
+
+		String hello = "<hello xmlns=\"" + XMLNS + "\"><capabilities>"
+				+ "<capability>" + BASE + "</capability>" + "<capability>"
+				+ BASE_1_1 + "</capability>" + "<capability>"
+				+ Session.NOTIFICATION_1_0.getCapabilityBaseURI()
+				+ "</capability>" + "</capabilities>"
+				+ "<session-id>" + sessions.incrementAndGet()
+				+ "</session-id></hello>";
+		write(framer, out, hello);
+
+		MessageSlice m = framer.readMessage();
+		if (m == null)
+			return;
+		if (toString(m).indexOf(BASE_1_1) >= 0)
+			framer = new ChunkedFramer(framer);
+
+		while ((m = framer.readMessage()) != null)
+		{
+			String rpc = toString(m);
+			Matcher mid = MESSAGE_ID.matcher(rpc);
+			String id = mid.find() ? mid.group(1) : "";
+			boolean get = rpc.indexOf("get>") >= 0
+					|| rpc.indexOf("get-config>") >= 0
+					|| rpc.indexOf("get/>") >= 0;
+			byte[] d = data;
+			if (get && d != null)
+			{
+				ByteArrayOutputStream b = new ByteArrayOutputStream(
+						d.length + 256);
+				b.write(("<rpc-reply xmlns=\"" + XMLNS + "\" message-id=\""
+						+ id + "\"><data>").getBytes("UTF-8"));
+				b.write(d);
+				b.write("</data></rpc-reply>".getBytes("UTF-8"));
+				framer.writeMessage(out, b.toByteArray(), 0, b.size());
+				continue;
+			}
+			String body = get ? "<data/>" : "<ok/>";
+			write(framer, out, "<rpc-reply xmlns=\"" + XMLNS
+					+ "\" message-id=\"" + id + "\">" + body + "</rpc-reply>");
+			if (rpc.indexOf("close-session") >= 0)
+				return;
+			if (rpc.indexOf("create-subscription") >= 0)
+				notify(framer, out);
+		}
+	}
+
+	private void notify(MessageFramer framer, OutputStream out)
+			throws IOException {
+		String[] e = events;
+		if (e == null)
+			return;
+		String head = "<notification xmlns=\""
+				+ Session.NOTIFICATION_1_0.getNamespaceURI()
+				+ "\"><eventTime>2026-10-18T10:00:00Z</eventTime>";
+		for (int i = 0; i < notifications; i++)
+			write(framer, out, head + e[i % e.length] + "</notification>");
+	}
+
+	private static void write(MessageFramer framer, OutputStream out,
+			String msg) throws IOException {
+		byte[] b = msg.getBytes("UTF-8");
+		framer.writeMessage(out, b, 0, b.length);
+	}
+
+	private static String toString(MessageSlice m) throws IOException {
+		return new String(m.getArray(), m.getOffset(), m.getLength(), "UTF-8");
+	}
+
+	public static final void main(String s[]) throws IOException {
+		int port = s.length > 0 ? Integer.parseInt(s[0]) : 8300;
+		StandInServer server = new StandInServer(port);
+		System.out.println("Listening on port " + server.getPort());
+		server.run();
+	}
+
+}
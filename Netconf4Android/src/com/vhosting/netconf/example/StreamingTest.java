@@ -0,0 +1,152 @@
+package com.vhosting.netconf.example;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+
+import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.vhosting.netconf.Get;
+import com.vhosting.netconf.frame.Container;
+import com.vhosting.netconf.frame.Data;
+import com.vhosting.netconf.frame.Leaf;
+import com.vhosting.netconf.frame.List;
+import com.vhosting.netconf.frame.ListEntryListener;
+import com.vhosting.netconf.frame.ListValue;
+import com.vhosting.netconf.frame.RpcHandler;
+import com.vhosting.netconf.frame.RpcReply;
+import com.vhosting.netconf.transport.Capability;
+import com.vhosting.netconf.transport.NetconfCatcherListener;
+import com.vhosting.netconf.transport.NetconfTransportEvent;
+import com.vhosting.netconf.transport.nio.NetconfTcpCatcher;
+import com.vhosting.netconf.transport.nio.NioEngine;
+
+/*
+ * Receives a big interface table from a stand-in server three times:
+ * loading it into a DOM with Get.GetReply, reporting it to
+ * a SAX handler that only counts the interfaces and loading it
+ * into a Data structure whose list hands over its entries one
+ * at a time.
+ * 
+ * The heap used after each reception shows that the streamed
+ * data are not retained.
+ * 
+ * Usage: StreamingTest [interfaces]
+ */
+public class StreamingTest
+{
+
+	public static final void main(String s[]) throws Exception {
+		int interfaces = s.length > 0 ? Integer.parseInt(s[0]) : 100000;
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("<interfaces xmlns=\"urn:example:interfaces\">");
+		for (int i = 0; i < interfaces; i++)
+		{
+			sb.append("<interface><name>ge-0/0/").append(i)
+					.append("</name><mtu>1500</mtu>");
+			sb.append("<in-octets>").append(i * 7919L).append(
+					"</in-octets><out-octets>").append(i * 104729L).append(
+					"</out-octets></interface>");
+		}
+		sb.append("</interfaces>");
+		byte[] data = sb.toString().getBytes("UTF-8");
+
+		StandInServer server = new StandInServer(0);
+		server.setData(data);
+		server.start();
+		System.out.println("Data       : " + data.length / 1024 + " KB");
+
+		NioEngine engine = new NioEngine(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final NetconfTcpCatcher c = new NetconfTcpCatcher("streaming", engine,
+				new InetSocketAddress("localhost", server.getPort()));
+		c.setSyncRequestsTimeout(600000);
+		c.setNetconfCatcherListener(new NetconfCatcherListener()
+		{
+			public void processTransportEvents(NetconfTransportEvent event) {
+				done.countDown();
+			}
+
+			public void processReadyForRpcRequests(RpcHandler rpcHandler) {
+				try
+				{
+					run(rpcHandler);
+				}
+				catch (Exception e)
+				{
+					e.printStackTrace();
+				}
+				c.disconnect();
+				done.countDown();
+			}
+		});
+		c.connect();
+		done.await();
+		engine.shutdown();
+	}
+
+	private static void run(RpcHandler rpcHandler) throws Exception {
+		Get g = new Get(rpcHandler.getSession());
+
+		long t0 = System.currentTimeMillis();
+		RpcReply rep = g.executeSync(rpcHandler);
+		Get.GetReply grp = g.new GetReply(rep);
+		Document d = grp.getData();
+		long t1 = System.currentTimeMillis();
+		System.out.println("DOM        : "
+				+ d.getElementsByTagNameNS("urn:example:interfaces",
+						"interface").getLength() + " interfaces, "
+				+ (t1 - t0) + " ms, heap " + usedHeap() + " MB");
+		d = null;
+		grp = null;
+		rep = null;
+		g = new Get(rpcHandler.getSession());
+
+		final int[] count = new int[1];
+		t0 = System.currentTimeMillis();
+		rep = g.executeSync(rpcHandler, new DefaultHandler()
+		{
+			@Override
+			public void startElement(String uri, String localName,
+					String qName, Attributes atts) {
+				if (localName.equals("interface"))
+					count[0]++;
+			}
+		});
+		t1 = System.currentTimeMillis();
+		System.out.println("Streaming  : " + count[0] + " interfaces, "
+				+ (t1 - t0) + " ms, heap " + usedHeap() + " MB");
+
+		Capability cap = new Capability("urn:example:interfaces",
+				"urn:example:interfaces", "if");
+		Data data = new Data(cap);
+		Container interfaces = data.getData().linkContainer(
+				data.createContainer("interfaces"));
+		List list = interfaces.linkList(data.createList("interface"));
+		final Leaf mtu = list.linkLeaf(data.createLeaf("mtu"));
+		final long[] sum = new long[1];
+		list.setListEntryListener(new ListEntryListener()
+		{
+			public void processListEntry(List list, ListValue entry) {
+				sum[0] += Long.parseLong(entry.getLeafCanonicalValue(mtu));
+			}
+		});
+		g = new Get(rpcHandler.getSession());
+
+		t0 = System.currentTimeMillis();
+		rep = g.executeSync(rpcHandler, data.createLoader());
+		t1 = System.currentTimeMillis();
+		System.out.println("List entries: " + sum[0] / 1500 + " interfaces, "
+				+ (t1 - t0) + " ms, heap " + usedHeap() + " MB");
+	}
+
+	private static long usedHeap() {
+		Runtime r = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return (r.totalMemory() - r.freeMemory()) / (1024 * 1024);
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.vhosting.netconf.example;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.TrustManagerFactory;
+
+import com.vhosting.netconf.frame.RpcHandler;
+import com.vhosting.netconf.transport.NetconfCatcherListener;
+import com.vhosting.netconf.transport.NetconfTransportEvent;
+import com.vhosting.netconf.transport.tls.NetconfTlsCatcher;
+import com.vhosting.netconf.transport.tls.TlsAuthInfo;
+
+/*
+ * Connects many times to a local TLS StandInServer and prints
+ * the time needed to be ready for the RPC requests: after the
+ * first connection, the TLS session is resumed.
+ * 
+ * Usage: TlsTest keystore password [connections]
+ * 
+ * The key store with a self-signed certificate, used by both
+ * the server and the client, can be created with:
+ * 
+ * keytool -genkeypair -alias standin -keyalg RSA -keysize 2048
+ *     -validity 365 -dname CN=localhost -keystore standin.jks
+ *     -storepass changeit -keypass changeit
+ */
+public class TlsTest
+{
+
+	public static final void main(String s[]) throws Exception {
+		String pass = s[1];
+		int connections = s.length > 2 ? Integer.parseInt(s[2]) : 10;
+
+		KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+		InputStream in = new FileInputStream(s[0]);
+		try
+		{
+			ks.load(in, pass.toCharArray());
+		}
+		finally
+		{
+			in.close();
+		}
+
+		/* The stand-in server requires the certificate of the client. */
+		KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory
+				.getDefaultAlgorithm());
+		kmf.init(ks, pass.toCharArray());
+		TrustManagerFactory tmf = TrustManagerFactory
+				.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		tmf.init(ks);
+		SSLContext ctx = SSLContext.getInstance("TLS");
+		ctx.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+		SSLServerSocket ss = (SSLServerSocket) ctx.getServerSocketFactory()
+				.createServerSocket(0);
+		ss.setNeedClientAuth(true);
+		StandInServer server = new StandInServer(ss);
+		server.start();
+
+		/* The same TlsAuthInfo is used for all the connections. */
+		TlsAuthInfo ai = new TlsAuthInfo(new InetSocketAddress("localhost",
+				server.getPort()), ks, pass, ks);
+
+		for (int i = 0; i < connections; i++)
+		{
+			final CountDownLatch ready = new CountDownLatch(1);
+			final NetconfTlsCatcher catcher = new NetconfTlsCatcher("tls-" + i,
+					ai);
+			catcher.setNetconfCatcherListener(new NetconfCatcherListener()
+			{
+				public void processTransportEvents(NetconfTransportEvent event) {
+					ready.countDown();
+				}
+
+				public void processReadyForRpcRequests(RpcHandler rpcHandler) {
+					ready.countDown();
+				}
+			});
+
+			long t0 = System.nanoTime();
+			Thread t = new Thread(catcher.getRunnableConnection());
+			t.start();
+			if (!ready.await(30, TimeUnit.SECONDS))
+				throw new IOException("Timeout.");
+			long t1 = System.nanoTime();
+
+			System.out.println("Connection " + i + ": "
+					+ (catcher.isConnected() ? "ready in " : "failed in ")
+					+ (t1 - t0) / 1000 + " us");
+			catcher.disconnect();
+			t.join();
+		}
+	}
+
+}
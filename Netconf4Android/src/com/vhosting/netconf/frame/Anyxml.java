@@ -1,10 +1,17 @@
 package com.vhosting.netconf.frame;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Vector;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import com.vhosting.netconf.messages.DOMUtils;
 import com.vhosting.netconf.transport.Capability;
+import com.vhosting.netconf.transport.Session;
 
 /**
  * This class represents an element of an RPC structure
@@ -12,7 +19,7 @@ import com.vhosting.netconf.transport.Capability;
  * in the Netconf RPC, RPC Reply or Notification message.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  * 
  */
 public class Anyxml extends Identity
@@ -32,6 +39,51 @@ public class Anyxml extends Identity
 		return doc;
 	}
 
+	/**
+	 * Create the XML document of the element from its content
+	 * written as XML in UTF-8.
+	 * The prefix of the base capability is declared, as it is
+	 * by the rpc element of a message.
+	 * 
+	 * @param content
+	 *            The content.
+	 * @return The XML document.
+	 */
+	Document parseContent(byte[] content) {
+		boolean prefixed = prefix != null && prefix.length() > 0;
+		String qName = prefixed ? prefix + ":" + name : name;
+		String base = Session.BASE_1_0.getPrefix();
+
+		StringBuilder b = new StringBuilder();
+		b.append('<').append(qName);
+		b.append(prefixed ? " xmlns:" + prefix : " xmlns");
+		b.append("=\"").append(namespaceURI).append('"');
+		if (!base.equals(prefix))
+			b.append(" xmlns:").append(base).append("=\"").append(
+					Session.BASE_1_0.getNamespaceURI()).append('"');
+		b.append('>');
+
+		try
+		{
+			Vector<InputStream> v = new Vector<InputStream>();
+			v.add(new ByteArrayInputStream(b.toString().getBytes("UTF-8")));
+			v.add(new ByteArrayInputStream(content));
+			v.add(new ByteArrayInputStream(("</" + qName + ">")
+					.getBytes("UTF-8")));
+			return DOMUtils.newDocument(new SequenceInputStream(v
+					.elements()));
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new RuntimeException(e);
+		}
+		catch (Exception e)
+		{
+			throw new RuntimeException("Invalid content of the Anyxml: "
+					+ getUniqueNane() + "; " + e.getMessage());
+		}
+	}
+
 	/**
 	 * Create an Anyxml element.
 	 * 
@@ -8,7 +8,7 @@ import org.w3c.dom.Document;
  * contain assignable elements.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  * 
  */
 public interface Assignable
@@ -60,6 +60,23 @@ public interface Assignable
 	 */
 	void assignAnyxml(Anyxml a, Document e);
 
+	/**
+	 * Allows you to assign to an Anyxml element previously linked
+	 * to this its content already written as XML in UTF-8: the child
+	 * elements and the text of the element, written into the messages
+	 * as they are, without building an XML document.
+	 * 
+	 * The prefixes used by the content must be declared into it, except
+	 * those of the Anyxml element and of the base capability.
+	 * The array must not be changed after the assignment.
+	 * 
+	 * @param a
+	 *            The Anyxml element.
+	 * @param content
+	 *            The content of the Anyxml element.
+	 */
+	void assignAnyxml(Anyxml a, byte[] content);
+
 	/**
 	 * Get the value of the specified leaf element
 	 * previously linked to this.
@@ -90,6 +107,8 @@ public interface Assignable
 	/**
 	 * Get the XML Document of the specified Anyxml element
 	 * previously linked to this.
+	 * The XML document of a content assigned as XML is created
+	 * on each invocation.
 	 * 
 	 * @param anyxml
 	 *            The Anyxml element.
@@ -21,7 +21,7 @@ import com.vhosting.netconf.transport.Capability;
  * </pre>
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  */
 public class Container extends ContainerReference implements Node, Saveable,
 		Clearable
@@ -43,9 +43,10 @@ public class Container extends ContainerReference implements Node, Saveable,
 	@Override
 	public void clear() {
 
-		for (String uniqueName : node.keySet())
+		Plan plan = node.getPlan();
+		for (int i = 0; i < plan.size; i++)
 		{
-			Object n = node.get(uniqueName);
+			Object n = plan.nodes[i];
 			if (n instanceof Clearable)
 			{
 				Clearable cl = (Clearable) n;
@@ -59,18 +60,18 @@ public class Container extends ContainerReference implements Node, Saveable,
 	@Override
 	public boolean hasValues() {
 
-		boolean hasValues = false;
+		if (value.size() > 0)
+			return true;
 
-		for (String uniqueName : node.keySet())
+		Plan plan = node.getPlan();
+		for (int i = 0; i < plan.size; i++)
 		{
-			Object n = node.get(uniqueName);
-			if (n instanceof Clearable)
-			{
-				hasValues = hasValues || ((Clearable) n).hasValues();
-			}
+			Object n = plan.nodes[i];
+			if (n instanceof Clearable && ((Clearable) n).hasValues())
+				return true;
 		}
 
-		return hasValues || value.size() > 0;
+		return false;
 	}
 
 	Hashtable<String, Object> value = new Hashtable<String, Object>();
@@ -114,6 +115,17 @@ public class Container extends ContainerReference implements Node, Saveable,
 		attributes.remove(a.getUniqueNane());
 	}
 
+	@Override
+	public void assignAnyxml(Anyxml a, byte[] content) {
+		Object o = node.get(a.getUniqueNane());
+		if (o == null)
+			throw new RuntimeException(
+					"The specified Anyxml is not present into the struct: "
+							+ a.getUniqueNane());
+		value.put(a.getUniqueNane(), content);
+		attributes.remove(a.getUniqueNane());
+	}
+
 	@Override
 	public String getLeafCanonicalValue(Leaf l) {
 		return (String) value.get(l.getUniqueNane());
@@ -126,7 +138,16 @@ public class Container extends ContainerReference implements Node, Saveable,
 
 	@Override
 	public Document getAnyxmlValue(Anyxml a) {
-		return (Document) value.get(a.getUniqueNane());
+		Object o = value.get(a.getUniqueNane());
+		if (o instanceof byte[])
+			return a.parseContent((byte[]) o);
+		return (Document) o;
+	}
+
+	@Override
+	public byte[] getAnyxmlContent(Anyxml a) {
+		Object o = value.get(a.getUniqueNane());
+		return (o instanceof byte[]) ? (byte[]) o : null;
 	}
 
 	@Override
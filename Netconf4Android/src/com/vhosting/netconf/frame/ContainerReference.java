@@ -1,6 +1,5 @@
 package com.vhosting.netconf.frame;
 
-import java.util.LinkedHashMap;
 import java.util.Vector;
 
 import com.vhosting.netconf.transport.Capability;
@@ -11,7 +10,7 @@ import com.vhosting.netconf.transport.Capability;
  * with the same characteristics and structure mirrored in common.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  * @see #createMirrorContainer()
  * @see Container
  */
@@ -21,7 +20,7 @@ public class ContainerReference extends Identity implements Node
 	boolean presence;
 
 	
-	LinkedHashMap<String, Object> node = new LinkedHashMap<String, Object>();
+	NodeMap node = new NodeMap();
 	private Capability cap;
 	private Vector<Container> containers = new Vector<Container>();
 
@@ -2,6 +2,7 @@ package com.vhosting.netconf.frame;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
 
 import com.vhosting.netconf.transport.Capability;
 import com.vhosting.netconf.transport.Session;
@@ -16,7 +17,7 @@ import com.vhosting.netconf.transport.Session;
  * Nothing prevents, however, be used freely.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  */
 public class Data extends IdentityCreator
 {
@@ -82,4 +83,24 @@ public class Data extends IdentityCreator
 		return true;
 	}
 
+	/**
+	 * Create a handler that loads the data while they are received.
+	 * The handler must be given to an operation as the handler
+	 * of the data of its reply.
+	 * 
+	 * The entries of the lists with a ListEntryListener are handed
+	 * over to the listener as soon as each of them has been received,
+	 * and are not retained: the memory used to receive a big table
+	 * does not depend on the number of its entries.
+	 * The other values are available when the operation has completed.
+	 * 
+	 * @see com.vhosting.netconf.Operation#executeSync(RpcHandler,
+	 *      ContentHandler)
+	 * @see ListReference#setListEntryListener(ListEntryListener)
+	 * @return A handler of the data of a get or get-config operation.
+	 */
+	public ContentHandler createLoader() {
+		return new DataLoader(data);
+	}
+
 }
@@ -0,0 +1,158 @@
+package com.vhosting.netconf.frame;
+
+import java.util.ArrayList;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.vhosting.netconf.messages.DOMUtils;
+
+/**
+ * This handler loads into a Data structure the data
+ * streamed by a get or get-config operation.
+ * 
+ * The data are built as a DOM and loaded at the end of the
+ * document, except the entries of the lists with a listener that
+ * are reached through containers: each of them is built alone,
+ * loaded, handed over to the listener and removed from the DOM as
+ * soon as it ends. The memory used does not depend on the number
+ * of these entries.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ * @see Data#createLoader()
+ */
+final class DataLoader extends DefaultHandler
+{
+
+	private final Container data;
+
+	private Document doc;
+	private Element root;
+	private org.w3c.dom.Node node;
+	private int depth;
+
+	/*
+	 * For each open element, the plan of the container that
+	 * it represents; null if it is not a container of the structure.
+	 */
+	private final ArrayList<Plan> plans = new ArrayList<Plan>();
+
+	// The entry of a list with a listener that is being built.
+	private int entryDepth;
+	private List entryList;
+
+	DataLoader(Container data)
+	{
+		this.data = data;
+	}
+
+	@Override
+	public void startDocument() {
+		doc = DOMUtils.newDocument();
+		root = null;
+		node = null;
+		depth = 0;
+		entryDepth = 0;
+		plans.clear();
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName,
+			Attributes atts) {
+		depth++;
+		Element e = createElement(uri, qName, atts);
+		if (depth == 1)
+		{
+			root = e;
+			doc.appendChild(e);
+			plans.add(data.node.getPlan());
+		}
+		else
+		{
+			node.appendChild(e);
+			plans.add(entryDepth == 0 ? bind(uri, localName) : null);
+		}
+		node = e;
+	}
+
+	/*
+	 * Find the element of the structure for a child
+	 * of a container.
+	 */
+	private Plan bind(String uri, String localName) {
+		Plan p = plans.get(plans.size() - 1);
+		if (p == null)
+			return null;
+		int i = p.indexOf(uri.length() == 0 ? null : uri, localName);
+		if (i < 0)
+			return null;
+
+		switch (p.kinds[i])
+		{
+		case Plan.CONTAINER:
+			return ((Container) p.nodes[i]).node.getPlan();
+		case Plan.LIST:
+			List l = (List) p.nodes[i];
+			if (l.entryListener != null)
+			{
+				entryDepth = depth;
+				entryList = l;
+			}
+			break;
+		}
+		return null;
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) {
+		org.w3c.dom.Node e = node;
+		node = e.getParentNode();
+		plans.remove(plans.size() - 1);
+
+		if (depth == entryDepth)
+		{
+			entryDepth = 0;
+			node.removeChild(e);
+			entryList.entryListener.processListEntry(entryList, Load
+					.loadListValue(entryList, (Element) e));
+		}
+		depth--;
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) {
+		if (node == null)
+			return;
+		/*
+		 * The text of a container is not loaded: the white spaces
+		 * between the entries of a list are not retained.
+		 */
+		if (entryDepth == 0 && plans.get(plans.size() - 1) != null)
+			return;
+		node.appendChild(doc.createTextNode(new String(ch, start, length)));
+	}
+
+	@Override
+	public void endDocument() {
+		if (root != null)
+			Load.load(root, data);
+		doc = null;
+		root = null;
+		node = null;
+	}
+
+	private Element createElement(String uri, String qName, Attributes atts) {
+		Element e = doc.createElementNS(uri.length() == 0 ? null : uri, qName);
+		for (int i = 0; i < atts.getLength(); i++)
+		{
+			String u = atts.getURI(i);
+			e.setAttributeNS(u.length() == 0 ? null : u, atts.getQName(i), atts
+					.getValue(i));
+		}
+		return e;
+	}
+
+}
@@ -31,7 +31,7 @@ import com.vhosting.netconf.transport.Capability;
  * @see #getUniqueNane()
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  * 
  */
 public class Identity
@@ -52,6 +52,9 @@ public class Identity
 	 */
 	protected String name;
 
+	private String uniqueName;
+	private String uniquePrefix;
+	private String uniqueLocal;
 
 	/**
 	 * Create an identity for a specified capability.
@@ -79,7 +82,14 @@ public class Identity
 	public String getUniqueNane() {
 		if (prefix == null || name == null)
 			return null;
-		return prefix + ":" + name;
+		// The unique name is the key of every value of the structure.
+		if (uniqueName == null || uniquePrefix != prefix || uniqueLocal != name)
+		{
+			uniqueName = prefix + ":" + name;
+			uniquePrefix = prefix;
+			uniqueLocal = name;
+		}
+		return uniqueName;
 	}
 
 	/**
@@ -8,7 +8,7 @@ import com.vhosting.netconf.transport.Capability;
  * can extend this class instead of directly to the Identity class.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  * 
  */
 public abstract class IdentityCreator extends Identity
@@ -26,6 +26,15 @@ public abstract class IdentityCreator extends Identity
 		super(cap, name);
 		this.cap = cap;
 	}
+
+	/**
+	 * Get the capability of the identity.
+	 * 
+	 * @return The capability.
+	 */
+	final Capability getCapability() {
+		return cap;
+	}
 	
 	
 	
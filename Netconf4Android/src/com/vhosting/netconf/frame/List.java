@@ -1,5 +1,7 @@
 package com.vhosting.netconf.frame;
 
+import java.util.HashSet;
+
 import com.vhosting.netconf.transport.Capability;
 
 /**
@@ -21,7 +23,7 @@ import com.vhosting.netconf.transport.Capability;
  * </pre>
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.02, 18/10/2026
  */
 public class List extends ListReference implements Node, Clearable
 {
@@ -159,34 +161,23 @@ public class List extends ListReference implements Node, Clearable
 		if (unique != null)
 			for (Leaf[] uu : unique)
 			{
-				String[] g = new String[uu.length];
-				int n = 0;
+				// Un solo passaggio: ogni valore viene confrontato via hash.
+				HashSet<String> g = new HashSet<String>(lv.length * 2);
+				boolean b = true;
 				for (ListValue v : lv)
 				{
-					String gen = new String("");
+					StringBuilder gen = new StringBuilder();
 					for (Leaf u : uu)
 					{
 						String s = (String) v.value.get(u.getUniqueNane());
 						if (s != null)
-							gen += s;
+							gen.append(s);
 					}
-					g[n] = gen;
-					n++;
-				}
-				boolean b = true;
-
-				for (int x = 0; x < g.length; x++)
-				{
-					for (int y = 0; y < g.length; y++)
+					if (!g.add(gen.toString()))
 					{
-						if (g[x].equals(g[y]))
-						{
-							b = false;
-							break;
-						}
-					}
-					if (!b)
+						b = false;
 						break;
+					}
 				}
 				if (!b)
 				{
@@ -196,6 +187,14 @@ public class List extends ListReference implements Node, Clearable
 			}
 	}
 
+	/*
+	 * The entries handed over to a listener leave
+	 * the list without values.
+	 */
+	void unassign() {
+		values = null;
+	}
+
 	/**
 	 * Get all instances of ListValue associated with the list.
 	 * They represent the different assignments for the same list.
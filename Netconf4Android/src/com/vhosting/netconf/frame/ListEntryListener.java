@@ -0,0 +1,29 @@
+package com.vhosting.netconf.frame;
+
+/**
+ * This listener receives the entries of a list
+ * one at a time, while the list is loaded.
+ * 
+ * The entries handed over to the listener are not retained
+ * by the list: once processed they can be discarded, so that
+ * the memory used to load a list does not depend on its size.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ * @see ListReference#setListEntryListener(ListEntryListener)
+ * @see Data#createLoader()
+ */
+public interface ListEntryListener
+{
+
+	/**
+	 * Implement this method to process an entry of the list
+	 * as soon as it has been loaded.
+	 * 
+	 * @param list
+	 *            The list that is being loaded.
+	 * @param entry
+	 *            The loaded entry.
+	 */
+	public void processListEntry(List list, ListValue entry);
+}
@@ -1,6 +1,5 @@
 package com.vhosting.netconf.frame;
 
-import java.util.LinkedHashMap;
 import java.util.Vector;
 
 import com.vhosting.netconf.transport.Capability;
@@ -11,7 +10,7 @@ import com.vhosting.netconf.transport.Capability;
  * with the same characteristics and structure mirrored in common.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.02, 18/10/2026
  * @see #createMirrorList()
  * @see List
  */
@@ -26,9 +25,11 @@ public class ListReference extends Identity implements Node
 	long min = 0;
 	long max = Long.MAX_VALUE;
 
-	LinkedHashMap<String, Object> node = new LinkedHashMap<String, Object>();
+	NodeMap node = new NodeMap();
 	Vector<List> lists = new Vector<List>();
 
+	ListEntryListener entryListener;
+
 	/**
 	 * Create a list reference.
 	 * 
@@ -153,6 +154,33 @@ public class ListReference extends Identity implements Node
 		this.unique = leafs;
 	}
 
+	/**
+	 * Specifies the listener that receives the entries of the list
+	 * one at a time while the list is loaded.
+	 * The entries handed over to the listener are not assigned
+	 * to the list.
+	 * 
+	 * @param listener
+	 *            The listener; null to assign the entries to the list.
+	 */
+	public void setListEntryListener(ListEntryListener listener) {
+		this.entryListener = listener;
+		for (int i = 0; i < lists.size(); i++)
+		{
+			List l = lists.elementAt(i);
+			l.setListEntryListener(listener);
+		}
+	}
+
+	/**
+	 * Get the listener that receives the entries of the list.
+	 * 
+	 * @return The listener; null if the entries are assigned to the list.
+	 */
+	public ListEntryListener getListEntryListener() {
+		return entryListener;
+	}
+
 	@Override
 	public Leaf linkLeaf(Leaf l) {
 		node.put(l.getUniqueNane(), l);
@@ -206,6 +234,7 @@ public class ListReference extends Identity implements Node
 	List createMirrorList() {
 		List l = new List(cap, name, min, max);
 		l.node = node;
+		l.entryListener = entryListener;
 		lists.add(l);
 		return l;
 	}
@@ -16,7 +16,7 @@ import org.w3c.dom.Document;
  * to complete their own set of assignments.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  * 
  */
 public class ListValue implements Saveable, Clearable
@@ -69,6 +69,16 @@ public class ListValue implements Saveable, Clearable
 		value.put(a.getUniqueNane(), e);
 	}
 
+	@Override
+	public void assignAnyxml(Anyxml a, byte[] content) {
+		Object o = list.node.get(a.getUniqueNane());
+		if (o == null)
+			throw new RuntimeException(
+					"The specified Anyxml is not present into the struct: "
+							+ a.getUniqueNane());
+		value.put(a.getUniqueNane(), content);
+	}
+
 	@Override
 	public String getLeafCanonicalValue(Leaf l) {
 		return (String) value.get(l.getUniqueNane());
@@ -81,7 +91,16 @@ public class ListValue implements Saveable, Clearable
 
 	@Override
 	public Document getAnyxmlValue(Anyxml a) {
-		return (Document) value.get(a.getUniqueNane());
+		Object o = value.get(a.getUniqueNane());
+		if (o instanceof byte[])
+			return a.parseContent((byte[]) o);
+		return (Document) o;
+	}
+
+	@Override
+	public byte[] getAnyxmlContent(Anyxml a) {
+		Object o = value.get(a.getUniqueNane());
+		return (o instanceof byte[]) ? (byte[]) o : null;
 	}
 
 	@Override
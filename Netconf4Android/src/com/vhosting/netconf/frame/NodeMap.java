@@ -0,0 +1,67 @@
+package com.vhosting.netconf.frame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The elements of the RPC structure linked to a container
+ * or to a list, by unique name.
+ * 
+ * The map keeps the plan compiled from its elements and discards
+ * it whenever an element is linked or removed; the mirrors of a
+ * container or of a list share the map, and so the plan.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ * @see Plan
+ */
+final class NodeMap extends LinkedHashMap<String, Object>
+{
+
+	private static final long serialVersionUID = 1L;
+
+	private volatile Plan plan;
+
+	/**
+	 * Get the plan of the elements of this map,
+	 * compiling it if the elements have changed.
+	 * 
+	 * @return The plan.
+	 */
+	Plan getPlan() {
+		Plan p = plan;
+		if (p == null)
+		{
+			p = new Plan(this);
+			plan = p;
+		}
+		return p;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		Object o = super.put(key, value);
+		plan = null;
+		return o;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> m) {
+		super.putAll(m);
+		plan = null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		Object o = super.remove(key);
+		plan = null;
+		return o;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		plan = null;
+	}
+
+}
@@ -2,7 +2,7 @@ package com.vhosting.netconf.frame;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import org.w3c.dom.Node;
 
 import com.vhosting.netconf.transport.Capability;
 
@@ -16,7 +16,7 @@ import com.vhosting.netconf.transport.Capability;
  * Nothing prevents, however, be used freely.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  */
 public class Notification extends IdentityCreator
 {
@@ -73,12 +73,19 @@ public class Notification extends IdentityCreator
 	 */
 	public boolean readFromNotificationMessage(Document doc) {
 		Element n = doc.getDocumentElement();
-		NodeList nl = n.getElementsByTagNameNS(namespaceURI, name);
-		if (nl.getLength() < 1)
-			return false;
-		Element e = (Element) nl.item(0);
-		Load.load(e, notification);
-		return true;
+		// The event is a child of the notification element.
+		for (Node e = n.getFirstChild(); e != null; e = e.getNextSibling())
+		{
+			if (e.getNodeType() == Node.ELEMENT_NODE
+					&& name.equals(e.getLocalName())
+					&& (namespaceURI == null ? e.getNamespaceURI() == null
+							: namespaceURI.equals(e.getNamespaceURI())))
+			{
+				Load.load((Element) e, notification);
+				return true;
+			}
+		}
+		return false;
 	}
 
 	
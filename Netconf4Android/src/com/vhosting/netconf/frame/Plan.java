@@ -0,0 +1,189 @@
+package com.vhosting.netconf.frame;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The compiled form of the elements linked to a container or to a list.
+ * 
+ * The plan is immutable: it holds the elements in the order in which
+ * they have been linked, the kind of each of them as a tag for a switch
+ * and an index by qualified name. The save and the load processes
+ * execute the plan instead of inspecting the structure at each step.
+ * The namespaces used by the elements are collected on first use.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ * @see NodeMap#getPlan()
+ */
+final class Plan
+{
+
+	static final int LEAF = 0;
+	static final int LEAF_LIST = 1;
+	static final int ANYXML = 2;
+	static final int CONTAINER = 3;
+	static final int CONTAINER_REFERENCE = 4;
+	static final int LIST = 5;
+	static final int LIST_REFERENCE = 6;
+
+	/**
+	 * The number of elements.
+	 */
+	final int size;
+
+	/**
+	 * The elements, in the order in which they have been linked.
+	 */
+	final Identity[] nodes;
+
+	/**
+	 * The kind of each element.
+	 */
+	final int[] kinds;
+
+	/*
+	 * The position of the first element with a given name;
+	 * the elements with the same name and different namespaces
+	 * are chained through next.
+	 */
+	private final HashMap<String, Integer> byName;
+	private final int[] next;
+
+	// The namespaces as pairs of prefix and namespace Uri.
+	private volatile String[] namespaces;
+
+	Plan(Map<String, Object> node)
+	{
+		Identity[] nodes = new Identity[node.size()];
+		int[] kinds = new int[nodes.length];
+		int n = 0;
+		for (Object o : node.values())
+		{
+			int kind = kindOf(o);
+			if (kind < 0)
+				continue;
+			nodes[n] = (Identity) o;
+			kinds[n] = kind;
+			n++;
+		}
+		this.size = n;
+		this.nodes = nodes;
+		this.kinds = kinds;
+
+		this.byName = new HashMap<String, Integer>(n * 2);
+		this.next = new int[n];
+		for (int i = n - 1; i >= 0; i--)
+		{
+			Integer first = byName.put(nodes[i].name, Integer.valueOf(i));
+			next[i] = first == null ? -1 : first.intValue();
+		}
+	}
+
+	private static int kindOf(Object o) {
+		if (o instanceof Leaf)
+			return LEAF;
+		if (o instanceof LeafList)
+			return LEAF_LIST;
+		if (o instanceof Anyxml)
+			return ANYXML;
+		if (o instanceof Container)
+			return CONTAINER;
+		if (o instanceof ContainerReference)
+			return CONTAINER_REFERENCE;
+		if (o instanceof List)
+			return LIST;
+		if (o instanceof ListReference)
+			return LIST_REFERENCE;
+		return -1;
+	}
+
+	/**
+	 * Find an element by qualified name.
+	 * 
+	 * @param namespaceURI
+	 *            The namespace URI; null if none.
+	 * @param name
+	 *            The local name.
+	 * @return The position of the element; -1 if there is no
+	 *         such element.
+	 */
+	int indexOf(String namespaceURI, String name) {
+		Integer first = byName.get(name);
+		if (first == null)
+			return -1;
+		for (int i = first.intValue(); i >= 0; i = next[i])
+		{
+			String ns = nodes[i].namespaceURI;
+			if (ns == null ? namespaceURI == null : ns.equals(namespaceURI))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the namespaces used by the elements of the plan and,
+	 * recursively, by the elements of their containers and lists.
+	 * 
+	 * The namespaces are collected once: if the elements of a
+	 * descendant are changed after, its new namespaces are
+	 * declared by the emitter where they are used.
+	 * 
+	 * @return The namespaces as pairs of prefix and namespace Uri;
+	 *         a namespace has the prefix of its first element.
+	 */
+	String[] getNamespaces() {
+		String[] ns = namespaces;
+		if (ns == null)
+		{
+			LinkedHashMap<String, String> m = new LinkedHashMap<String, String>();
+			collectNamespaces(m);
+			ns = new String[m.size() * 2];
+			int i = 0;
+			for (Map.Entry<String, String> e : m.entrySet())
+			{
+				ns[i++] = e.getValue();
+				ns[i++] = e.getKey();
+			}
+			namespaces = ns;
+		}
+		return ns;
+	}
+
+	private void collectNamespaces(Map<String, String> m) {
+		for (int i = 0; i < size; i++)
+		{
+			Identity n = nodes[i];
+			if (n.namespaceURI != null && n.prefix != null
+					&& !m.containsKey(n.namespaceURI))
+				m.put(n.namespaceURI, n.prefix);
+
+			switch (kinds[i])
+			{
+			case CONTAINER:
+			case CONTAINER_REFERENCE:
+				((ContainerReference) n).node.getPlan().collectNamespaces(m);
+				break;
+			case LIST:
+			case LIST_REFERENCE:
+				((ListReference) n).node.getPlan().collectNamespaces(m);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Get the plan of a structure.
+	 * 
+	 * @param saveable
+	 *            A Container or a ListValue.
+	 * @return The plan of the elements of the structure.
+	 */
+	static Plan of(Saveable saveable) {
+		if (saveable instanceof ListValue)
+			return ((ListValue) saveable).list.node.getPlan();
+		return ((Container) saveable).node.getPlan();
+	}
+
+}
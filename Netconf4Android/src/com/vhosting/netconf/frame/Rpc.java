@@ -8,8 +8,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
-import com.vhosting.netconf.messages.DOMUtils;
 import com.vhosting.netconf.transport.Capability;
+import com.vhosting.netconf.transport.NetconfCatcher;
 import com.vhosting.netconf.transport.Session;
 
 /**
@@ -23,7 +23,7 @@ import com.vhosting.netconf.transport.Session;
  * Nothing prevents, however, be used freely.
  * 
  * @author Giuseppe Palmeri
- * @version 1.01, 09/10/2010
+ * @version 1.03, 18/10/2026
  */
 public class Rpc extends IdentityCreator
 {
@@ -44,6 +44,21 @@ public class Rpc extends IdentityCreator
 		outputContainer = new Container(cap, name);
 	}
 
+	/**
+	 * Create an RPC request that shares the containers
+	 * and the attributes of another RPC request.
+	 * 
+	 * @param rpc
+	 *            The RPC request.
+	 */
+	Rpc(Rpc rpc)
+	{
+		super(rpc.getCapability(), rpc.name);
+		inputContainer = rpc.inputContainer;
+		outputContainer = rpc.outputContainer;
+		attributes = rpc.attributes;
+	}
+
 	private Container inputContainer;
 	private Container outputContainer;
 
@@ -106,6 +121,18 @@ public class Rpc extends IdentityCreator
 	 * This method writes the RPC operation on the
 	 * specified output stream as an XML Netconf message.
 	 * 
+	 * The message is written in UTF-8 while the structure is walked,
+	 * without building a DOM; it is indented only when the log level
+	 * is MESSAGES.
+	 * 
+	 * The rpc element declares only the namespaces of the operation,
+	 * of its attributes and of the elements linked to the input
+	 * container. The prefixes of the capabilities of the server used
+	 * by a value, as by a value of type identityref, are declared on
+	 * the element of the value; a prefix used by an attribute, as by
+	 * an XPath expression, must be declared with an attribute such as
+	 * 'xmlns:prefix'.
+	 * 
 	 * @param messageId
 	 *            The message id.
 	 * @param out
@@ -116,46 +143,35 @@ public class Rpc extends IdentityCreator
 	 */
 	public void dumpRpcMessage(Session session, int messageId, OutputStream out)
 			throws IOException {
-		Document doc = DOMUtils.newDocument();
-		// Pulisce il documento.
-		if (doc.getDocumentElement() != null)
-			doc.removeChild(doc.getDocumentElement());
-
-		Element rpc = (Element) doc.appendChild(doc.createElementNS(
-				Session.BASE_1_0.getNamespaceURI(), "rpc"));
-		String basePrefix = Session.BASE_1_0.getPrefix();
-		rpc.setPrefix(basePrefix);
-
-		//rpc.setAttributeNS(Session.BASE_1_0.getNamespaceURI(), basePrefix
-		//		+ ":message-id", Integer.toString(messageId));
-		
-		rpc.setAttribute("message-id", Integer.toString(messageId));
+		XmlEmitter x = new XmlEmitter(out,
+				NetconfCatcher.getLogLevel() == NetconfCatcher.LogLevel.MESSAGES,
+				session == null ? null : session.getCapabilitiesOnServer());
+		x.startDocument();
 
-		Capability[] caps = session.getCapabilitiesOnServer();
+		x.startElement(Session.BASE_1_0.getNamespaceURI(), Session.BASE_1_0
+				.getPrefix(), "rpc");
+		x.attribute(null, null, "message-id", Integer.toString(messageId));
 
-		for (Capability cap : caps)
-		{
-
-			String pref = cap.getPrefix();
-			String s = cap.getNamespaceURI();
-			rpc.setAttributeNS("http://www.w3.org/2000/xmlns/",
-					"xmlns:" + pref, s);
-
-		}
-		Element m = (Element) rpc.appendChild(doc.createElementNS(namespaceURI,
-				this.getUniqueNane()));
-		m.setPrefix(prefix);
-
-		// Inserisce gli attributi del COMANDO
+		x.declare(prefix, namespaceURI);
 		for (int i = 0; i < attributes.size(); i++)
 		{
 			Attribute attr = attributes.get(i);
-			m.setAttributeNS(attr.getNamespaceURI(), attr.getName(),
-					attr.getValue());
+			if (attr.getNamespaceURI() != null && attr.getPrefix() != null)
+				x.declare(attr.getPrefix(), attr.getNamespaceURI());
 		}
+		String[] ns = Plan.of(getInput()).getNamespaces();
+		for (int i = 0; i < ns.length; i += 2)
+			x.declare(ns[i], ns[i + 1]);
+
+		x.startElement(namespaceURI, prefix, name);
+
+		// Inserisce gli attributi del COMANDO
+		x.attributes(attributes);
 
-		Save.save(getInput(), doc, m);
-		DOMUtils.dump(doc, out);
+		Save.save(getInput(), x);
+		x.endElement();
+		x.endElement();
+		x.endDocument();
 	}
 
 	/**
@@ -0,0 +1,30 @@
+package com.vhosting.netconf.frame;
+
+/**
+ * This listener is invoked when an RpcFuture completes.
+ * 
+ * @see RpcFuture#addCallback(RpcCallback)
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public interface RpcCallback
+{
+
+	/**
+	 * Invoked when the RPC reply is received.
+	 * 
+	 * @param reply
+	 *            The RPC reply.
+	 */
+	public void onReply(RpcReply reply);
+
+	/**
+	 * Invoked when the RPC reply can not be received:
+	 * when the connection is closed, the timeout elapses
+	 * or the future is cancelled.
+	 * 
+	 * @param cause
+	 *            The cause of the failure.
+	 */
+	public void onFailure(Throwable cause);
+}
@@ -0,0 +1,37 @@
+package com.vhosting.netconf.frame;
+
+import java.io.IOException;
+
+/**
+ * This interface represents the step of a chain of RPC requests
+ * that is executed when the RPC reply of the previous step is
+ * received.
+ * 
+ * <pre>
+ * lock.executeAsync(handler).then(new RpcContinuation()
+ * {
+ * 	public RpcFuture next(RpcReply reply) throws IOException {
+ * 		return editConfig.executeAsync(handler);
+ * 	}
+ * });
+ * </pre>
+ * 
+ * @see RpcFuture#then(RpcContinuation)
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public interface RpcContinuation
+{
+
+	/**
+	 * Send the next RPC request.
+	 * 
+	 * @param reply
+	 *            The RPC reply of the previous step.
+	 * @return The future of the next RPC reply.
+	 * @throws IOException
+	 *             Throws this exception when the connection is no
+	 *             longer active.
+	 */
+	public RpcFuture next(RpcReply reply) throws IOException;
+}
@@ -0,0 +1,326 @@
+package com.vhosting.netconf.frame;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.vhosting.netconf.transport.NetconfCatcher;
+
+/**
+ * This class represents the RPC reply of an asynchronous request,
+ * that will be available in the future.
+ * 
+ * No thread waits for the reply: the future is completed by the
+ * thread that reads the messages from the server and the callbacks
+ * are invoked into that thread, or into an executor specified by
+ * the caller.
+ * 
+ * <pre>
+ * RpcFuture f = get.executeAsync(handler).withTimeout(5000);
+ * f.addCallback(new RpcCallback()
+ * {
+ * 	public void onReply(RpcReply reply) {
+ * 		...
+ * 	}
+ * 
+ * 	public void onFailure(Throwable cause) {
+ * 		...
+ * 	}
+ * }, executor);
+ * </pre>
+ * 
+ * @see RpcHandler#sendAsync(Rpc)
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public class RpcFuture implements Future<RpcReply>
+{
+
+	private static ScheduledThreadPoolExecutor timer;
+
+	private final CountDownLatch latch = new CountDownLatch(1);
+
+	private boolean done;
+	private boolean cancelled;
+	private RpcReply reply;
+	private Throwable cause;
+	private ArrayList<Runnable> callbacks = new ArrayList<Runnable>(2);
+	private ScheduledFuture<?> timeoutTask;
+
+	/**
+	 * Create a future not yet completed.
+	 */
+	public RpcFuture()
+	{}
+
+	/**
+	 * Complete the future with the RPC reply.
+	 * 
+	 * @param reply
+	 *            The RPC reply.
+	 * @return true if the future has been completed; false if it was
+	 *         already completed.
+	 */
+	public boolean complete(RpcReply reply) {
+		return finish(reply, null, false);
+	}
+
+	/**
+	 * Complete the future with a failure.
+	 * 
+	 * @param cause
+	 *            The cause of the failure.
+	 * @return true if the future has been completed; false if it was
+	 *         already completed.
+	 */
+	public boolean fail(Throwable cause) {
+		return finish(null, cause, false);
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return finish(null, new CancellationException(), true);
+	}
+
+	@Override
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public synchronized boolean isDone() {
+		return done;
+	}
+
+	@Override
+	public RpcReply get() throws InterruptedException, ExecutionException {
+		latch.await();
+		return result();
+	}
+
+	@Override
+	public RpcReply get(long timeout, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		if (!latch.await(timeout, unit))
+			throw new TimeoutException();
+		return result();
+	}
+
+	/**
+	 * Fail the future with a TimeoutException if it is not
+	 * completed within the specified time.
+	 * 
+	 * @param timeout
+	 *            The timeout in milliseconds.
+	 * @return This future.
+	 */
+	public RpcFuture withTimeout(long timeout) {
+		ScheduledFuture<?> t = getTimer().schedule(new Runnable()
+		{
+			public void run() {
+				fail(new TimeoutException("Timeout on receiving the RPC reply."));
+			}
+		}, timeout, TimeUnit.MILLISECONDS);
+
+		synchronized (this)
+		{
+			if (!done)
+			{
+				if (timeoutTask != null)
+					timeoutTask.cancel(false);
+				timeoutTask = t;
+				return this;
+			}
+		}
+		t.cancel(false);
+		return this;
+	}
+
+	/**
+	 * Add a callback invoked when the future completes.
+	 * The callback is invoked into the thread that completes the
+	 * future or, if the future is already completed, immediately.
+	 * 
+	 * @param callback
+	 *            The callback.
+	 * @return This future.
+	 */
+	public RpcFuture addCallback(RpcCallback callback) {
+		return addCallback(callback, null);
+	}
+
+	/**
+	 * Add a callback invoked when the future completes.
+	 * 
+	 * @param callback
+	 *            The callback.
+	 * @param executor
+	 *            The executor into which the callback is invoked.
+	 * @return This future.
+	 */
+	public RpcFuture addCallback(final RpcCallback callback,
+			final Executor executor) {
+		final Runnable r = new Runnable()
+		{
+			public void run() {
+				try
+				{
+					RpcReply reply;
+					Throwable cause;
+					synchronized (RpcFuture.this)
+					{
+						reply = RpcFuture.this.reply;
+						cause = RpcFuture.this.cause;
+					}
+					if (cause == null)
+						callback.onReply(reply);
+					else
+						callback.onFailure(cause);
+				}
+				catch (Exception e)
+				{
+					// A failing callback does not stop the others.
+					if (NetconfCatcher.getLogLevel() != NetconfCatcher.LogLevel.NONE)
+						NetconfCatcher.getLogStream().println(
+								"An RPC callback failed; " + e);
+				}
+			}
+		};
+		Runnable task = r;
+		if (executor != null)
+		{
+			task = new Runnable()
+			{
+				public void run() {
+					executor.execute(r);
+				}
+			};
+		}
+
+		synchronized (this)
+		{
+			if (!done)
+			{
+				callbacks.add(task);
+				return this;
+			}
+		}
+		task.run();
+		return this;
+	}
+
+	/**
+	 * Send another RPC request when the RPC reply of this future
+	 * is received.
+	 * The continuation is invoked into the thread that completes
+	 * this future.
+	 * 
+	 * @param continuation
+	 *            The continuation that sends the next RPC request.
+	 * @return The future of the RPC reply of the next request; it fails
+	 *         if this future or the continuation fails.
+	 */
+	public RpcFuture then(RpcContinuation continuation) {
+		return then(continuation, null);
+	}
+
+	/**
+	 * Send another RPC request when the RPC reply of this future
+	 * is received.
+	 * 
+	 * @param continuation
+	 *            The continuation that sends the next RPC request.
+	 * @param executor
+	 *            The executor into which the continuation is invoked.
+	 * @return The future of the RPC reply of the next request; it fails
+	 *         if this future or the continuation fails.
+	 */
+	public RpcFuture then(final RpcContinuation continuation,
+			Executor executor) {
+		final RpcFuture f = new RpcFuture();
+		final RpcCallback forward = new RpcCallback()
+		{
+			public void onReply(RpcReply reply) {
+				f.complete(reply);
+			}
+
+			public void onFailure(Throwable cause) {
+				f.fail(cause);
+			}
+		};
+		addCallback(new RpcCallback()
+		{
+			public void onReply(RpcReply reply) {
+				try
+				{
+					continuation.next(reply).addCallback(forward);
+				}
+				catch (Exception e)
+				{
+					f.fail(e);
+				}
+			}
+
+			public void onFailure(Throwable cause) {
+				f.fail(cause);
+			}
+		}, executor);
+		return f;
+	}
+
+	private boolean finish(RpcReply reply, Throwable cause, boolean cancelled) {
+		ArrayList<Runnable> l;
+		ScheduledFuture<?> t;
+		synchronized (this)
+		{
+			if (done)
+				return false;
+			done = true;
+			this.reply = reply;
+			this.cause = cause;
+			this.cancelled = cancelled;
+			l = callbacks;
+			callbacks = null;
+			t = timeoutTask;
+			timeoutTask = null;
+		}
+		latch.countDown();
+		if (t != null)
+			t.cancel(false);
+		for (Runnable r : l)
+			r.run();
+		return true;
+	}
+
+	private synchronized RpcReply result() throws ExecutionException {
+		if (cancelled)
+			throw new CancellationException();
+		if (cause != null)
+			throw new ExecutionException(cause);
+		return reply;
+	}
+
+	private static synchronized ScheduledThreadPoolExecutor getTimer() {
+		if (timer == null)
+		{
+			timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+			{
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "netconf-rpc-timeout");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return timer;
+	}
+
+}
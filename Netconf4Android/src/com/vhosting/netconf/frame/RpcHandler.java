@@ -2,6 +2,8 @@ package com.vhosting.netconf.frame;
 
 import java.io.IOException;
 
+import org.xml.sax.ContentHandler;
+
 import com.vhosting.netconf.notification.NotificationsListener;
 import com.vhosting.netconf.transport.Session;
 
@@ -23,6 +25,24 @@ public interface RpcHandler {
 	 */
 	public RpcReply sendSyncRpc(Rpc operation) throws IOException;
 
+	/**
+	 * Send an operation and waits until you get a reply,
+	 * reporting the data of the reply to a SAX handler while
+	 * the reply is parsed; the data are not retained by the reply.
+	 * 
+	 * The handler is invoked by the thread that reads the messages
+	 * from the server and must not block it.
+	 * If the handler throws an exception, the rest of the data is
+	 * skipped and this method throws an IOException caused by it.
+	 * 
+	 * @param operation The RPC operation.
+	 * @param dataHandler The handler of the data.
+	 * @return The RPC reply.
+	 * @throws IOException throws this exception when the connection is no 
+	 * longer active before and during the exchange of messages.
+	 */
+	public RpcReply sendSyncRpc(Rpc operation, ContentHandler dataHandler) throws IOException;
+
 
 	/**
 	 * Send a RPC operation.
@@ -42,6 +62,10 @@ public interface RpcHandler {
 
 	/**
 	 * Send a RPC operation specifying a listener that will intercept the RPC reply.
+	 * 
+	 * The listener is released when the connection is closed or
+	 * when the reply does not arrive within the timeout of the
+	 * synchronous requests.
 	 * @param operation The RPC operation.
 	 * @param listener The listener that will intercept the RPC reply.
 	 * @throws IOException Throws this exception when the connection is no 
@@ -49,6 +73,39 @@ public interface RpcHandler {
 	 */
 	public void sendRpc(Rpc operation, RpcReplySpecificListener listener) throws IOException;
 
+	/**
+	 * Send a RPC operation without waiting for the reply.
+	 * 
+	 * Any number of requests can be sent before the replies
+	 * arrive; each reply completes the future of its request.
+	 * The future fails when the connection is closed.
+	 * 
+	 * @param operation The RPC operation.
+	 * @return The future of the RPC reply.
+	 * @throws IOException Throws this exception when the connection is no 
+	 * longer active before and during the exchange of messages.
+	 * @see RpcFuture#withTimeout(long)
+	 */
+	public RpcFuture sendAsync(Rpc operation) throws IOException;
+
+	/**
+	 * Send a RPC operation without waiting for the reply,
+	 * reporting the data of the reply to a SAX handler while
+	 * the reply is parsed; the data are not retained by the reply.
+	 * 
+	 * The handler is invoked by the thread that reads the messages
+	 * from the server and must not block it.
+	 * If the handler throws an exception, the rest of the data is
+	 * skipped and the future fails with an IOException caused by it.
+	 * 
+	 * @param operation The RPC operation.
+	 * @param dataHandler The handler of the data.
+	 * @return The future of the RPC reply.
+	 * @throws IOException Throws this exception when the connection is no 
+	 * longer active before and during the exchange of messages.
+	 */
+	public RpcFuture sendAsync(Rpc operation, ContentHandler dataHandler) throws IOException;
+
 	
 
 	/**
@@ -64,6 +121,23 @@ public interface RpcHandler {
 	 * @param listener The listener that will intercept the Netconf notifications.
 	 */
 	public void setNotificationsListener(NotificationsListener listener);
+
+	/**
+	 * Set the listener that will intercept the Netconf notifications
+	 * of a specific event.
+	 * 
+	 * The event of a notification is identified before the notification
+	 * is parsed: the notifications of an event without a listener go
+	 * to the Notifications listener or, if this is not set, are
+	 * discarded without being parsed.
+	 * 
+	 * @param event The identity of the event: its namespace and its name;
+	 * a Notification structure can be used.
+	 * @param listener The listener that will intercept the notifications
+	 * of the event; null to remove it.
+	 */
+	public void setNotificationsListener(Identity event,
+			NotificationsListener listener);
 	
 	/**
 	 * Get the session for this connection.
@@ -0,0 +1,153 @@
+package com.vhosting.netconf.frame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.vhosting.netconf.transport.Session;
+
+/**
+ * This class is an RPC request already written as a Netconf message:
+ * when it is sent, the bytes of the message are written again with
+ * only the message-id changed, without any XML work.
+ * 
+ * A template is useful for an RPC request sent many times without
+ * changes, as the get of a poller:
+ * 
+ * <pre>
+ * RpcTemplate t = new RpcTemplate(rpc, session);
+ * 
+ * RpcReply reply = handler.sendSyncRpc(t);
+ * </pre>
+ * 
+ * The message is written when the template is built, for the session
+ * of the connection on which it will be sent; on another session the
+ * message is written again from the RPC request.
+ * The template shares the containers of the RPC request: the changes
+ * to the input values are not followed by the message, while the
+ * RPC reply is loaded into the same output container.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public final class RpcTemplate extends Rpc
+{
+
+	private static final byte[] MESSAGE_ID = { 'm', 'e', 's', 's', 'a',
+			'g', 'e', '-', 'i', 'd', '=', '"' };
+
+	private final Rpc rpc;
+	private final Session session;
+
+	// The message before and after the value of the message-id.
+	private final byte[] head;
+	private final byte[] tail;
+
+	/**
+	 * Create the template of an RPC request.
+	 * 
+	 * @param rpc
+	 *            The RPC request.
+	 * @param session
+	 *            The session of the connection on which the template will
+	 *            be sent.
+	 * @throws IOException
+	 *             Throw this exception when there are problems when writing
+	 *             the message.
+	 */
+	public RpcTemplate(Rpc rpc, Session session) throws IOException
+	{
+		super(rpc);
+		this.rpc = rpc;
+		this.session = session;
+
+		ByteArrayOutputStream b = new ByteArrayOutputStream();
+		rpc.dumpRpcMessage(session, 0, b);
+		byte[] msg = b.toByteArray();
+
+		int i = indexOf(msg, MESSAGE_ID);
+		if (i < 0)
+			throw new IOException("The message-id is not present.");
+		i += MESSAGE_ID.length;
+
+		// The message-id written is the digit '0'.
+		head = new byte[i];
+		System.arraycopy(msg, 0, head, 0, i);
+		tail = new byte[msg.length - i - 1];
+		System.arraycopy(msg, i + 1, tail, 0, tail.length);
+	}
+
+	/**
+	 * Get the RPC request of the template.
+	 * 
+	 * @return The RPC request.
+	 */
+	public Rpc getRpc() {
+		return rpc;
+	}
+
+	/**
+	 * The message of a template can not be changed.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             Always.
+	 */
+	@Override
+	public void addAttribute(Attribute attr) {
+		throw new UnsupportedOperationException(
+				"The message of a template can not be changed.");
+	}
+
+	/**
+	 * The message of a template can not be changed.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             Always.
+	 */
+	@Override
+	public void clearInputValues() {
+		throw new UnsupportedOperationException(
+				"The message of a template can not be changed.");
+	}
+
+	/**
+	 * This method writes the message of the template with the
+	 * specified message-id.
+	 * 
+	 * @param messageId
+	 *            The message id.
+	 * @param out
+	 *            The output stream.
+	 * @throws IOException
+	 *             Throw this exception when there are problems when writing the
+	 *             message.
+	 */
+	@Override
+	public void dumpRpcMessage(Session session, int messageId, OutputStream out)
+			throws IOException {
+		if (session != this.session)
+		{
+			rpc.dumpRpcMessage(session, messageId, out);
+			return;
+		}
+		out.write(head);
+		String id = Integer.toString(messageId);
+		for (int i = 0; i < id.length(); i++)
+			out.write(id.charAt(i));
+		out.write(tail);
+	}
+
+	private static int indexOf(byte[] b, byte[] s) {
+		int last = b.length - s.length;
+		for (int i = 0; i <= last; i++)
+		{
+			int k = 0;
+			while (k < s.length && b[i + k] == s[k])
+				k++;
+			if (k == s.length)
+				return i;
+		}
+		return -1;
+	}
+
+}
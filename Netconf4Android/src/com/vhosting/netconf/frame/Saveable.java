@@ -1,12 +1,13 @@
 package com.vhosting.netconf.frame;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Set;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.NodeList;
 
 import com.vhosting.netconf.messages.DOMUtils;
 import com.vhosting.netconf.transport.Capability;
@@ -19,7 +20,7 @@ import com.vhosting.netconf.transport.Session;
  * or in a loading process from an XML document.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 09/10/2010
+ * @version 1.01, 18/10/2026
  * 
  */
 interface Saveable extends Assignable
@@ -43,6 +44,17 @@ interface Saveable extends Assignable
 	 */
 	Object getElemetByUniqueName(String uniqueName);
 
+	/**
+	 * Get the content of an Anyxml element assigned as XML.
+	 * 
+	 * @param a
+	 *            The Anyxml element.
+	 * @return The content of the Anyxml element; null if it is not
+	 *         assigned or if it is assigned as an XML document.
+	 * @see Assignable#assignAnyxml(Anyxml, byte[])
+	 */
+	byte[] getAnyxmlContent(Anyxml a);
+
 }
 
 class Save
@@ -80,97 +92,213 @@ class Save
 	}
 
 	static void save(Saveable saveable, Document d, Element root) {
-		for (String uniqueName : saveable.getUniqueNanes())
+		Plan plan = Plan.of(saveable);
+		for (int i = 0; i < plan.size; i++)
 		{
-			Object n = saveable.getElemetByUniqueName(uniqueName);
+			Identity n = plan.nodes[i];
 
-			if (n instanceof Leaf)
+			switch (plan.kinds[i])
 			{
-				Leaf l = (Leaf) n;
-				String v = saveable.getLeafCanonicalValue(l);
-				if (v != null)
-				{
-					Element e = (Element) root.appendChild(d.createElementNS(
-							l.namespaceURI, l.name));
-					e.setPrefix(l.prefix);
-					e.setTextContent(v);
+			case Plan.LEAF:
+				saveLeaf(saveable, (Leaf) n, d, root);
+				break;
+			case Plan.LEAF_LIST:
+				saveLeafList(saveable, (LeafList) n, d, root);
+				break;
+			case Plan.ANYXML:
+				saveAnyxml(saveable, (Anyxml) n, d, root);
+				break;
+			case Plan.CONTAINER:
+				saveContainer((Container) n, d, root);
+				break;
+			case Plan.CONTAINER_REFERENCE:
+				saveContainer(((ListValue) saveable)
+						.getMirrorContainer((ContainerReference) n), d, root);
+				break;
+			case Plan.LIST:
+				saveList((List) n, d, root);
+				break;
+			case Plan.LIST_REFERENCE:
+				saveList(((ListValue) saveable)
+						.getMirrorList((ListReference) n), d, root);
+				break;
+			}
+		}
 
-					saveAttributes(e, d, saveable.getLeafAttributes(l));
+	}
 
-				}
-			}
-			if (n instanceof LeafList)
+	/**
+	 * Write the values of a structure through an emitter.
+	 * The structure is walked as by the saving into a DOM, and the
+	 * elements are written as they are found.
+	 * 
+	 * @param saveable
+	 *            The structure to save.
+	 * @param x
+	 *            The emitter; the parent element is open.
+	 * @throws IOException
+	 *             Throw this exception if there are writing troubles.
+	 */
+	static void save(Saveable saveable, XmlEmitter x) throws IOException {
+		Plan plan = Plan.of(saveable);
+		for (int i = 0; i < plan.size; i++)
+		{
+			Identity n = plan.nodes[i];
+
+			switch (plan.kinds[i])
 			{
-				LeafList l = (LeafList) n;
-				String[] vv = saveable.getLeafListCanonicalValues(l);
-				int i = 0;
-				if (vv != null)
-					for (String v : vv)
-					{
-						Element e = (Element) root.appendChild(d
-								.createElementNS(l.namespaceURI, l.name));
-						e.setPrefix(l.prefix);
-						if (v != null)
-							e.setTextContent(v);
-
-						saveAttributes(e, d,
-								saveable.getLeafListAttributes(l)[i]);
-						i++;
-					}
+			case Plan.LEAF:
+				saveLeaf(saveable, (Leaf) n, x);
+				break;
+			case Plan.LEAF_LIST:
+				saveLeafList(saveable, (LeafList) n, x);
+				break;
+			case Plan.ANYXML:
+				saveAnyxml(saveable, (Anyxml) n, x);
+				break;
+			case Plan.CONTAINER:
+				saveContainer((Container) n, x);
+				break;
+			case Plan.CONTAINER_REFERENCE:
+				saveContainer(((ListValue) saveable)
+						.getMirrorContainer((ContainerReference) n), x);
+				break;
+			case Plan.LIST:
+				saveList((List) n, x);
+				break;
+			case Plan.LIST_REFERENCE:
+				saveList(((ListValue) saveable)
+						.getMirrorList((ListReference) n), x);
+				break;
 			}
+		}
+	}
 
-			if (n instanceof Anyxml)
-			{
-				Anyxml a = (Anyxml) n;
-				Document doc = saveable.getAnyxmlValue(a);
+	static void saveContainer(Container c, XmlEmitter x) throws IOException {
+		boolean hasValues = c.hasValues();
+		if (c.presence || hasValues)
+		{
+			x.startElement(c.namespaceURI, c.prefix, c.name);
+			if (hasValues)
+				save(c, x);
+			x.endElement();
+		}
+	}
 
-				if (doc != null && doc.getDocumentElement() != null)
+	static void saveList(List l, XmlEmitter x) throws IOException {
+		ListValue[] values = l.getValues();
+
+		if (values != null)
+			for (ListValue lv : values)
+			{
+				if (lv.hasValues())
 				{
-					
-					 try
-					 {
-					    Element vv = (Element) d.importNode(
-					    doc.getDocumentElement(), true);
-					    root.appendChild(vv);
-					    saveAttributes(vv, d, saveable.getAnyxmlAttributes(a));
-					 }
-					 catch(Exception e)
-					 {
-						// This resolve a bug on Android.
-						Element vv = doc.getDocumentElement();
-	                    appendNode(d, root, vv);
-	                    saveAttributes(vv, d, saveable.getAnyxmlAttributes(a));
-					} 
+					x.startElement(l.namespaceURI, l.prefix, l.name);
+					save(lv, x);
+					x.endElement();
 				}
-
 			}
+	}
 
-			if (n instanceof Container)
-			{
-				Container c = (Container) n;
-				saveContainer(c, d, root);
-			}
-			else if (n instanceof ContainerReference)
-			{
-				ListValue lv = (ListValue) saveable;
-				ContainerReference cr = (ContainerReference) n;
-				Container c = lv.getMirrorContainer(cr);
-				saveContainer(c, d, root);
-			}
+	private static void saveLeaf(Saveable saveable, Leaf l, XmlEmitter x)
+			throws IOException {
+		String v = saveable.getLeafCanonicalValue(l);
+		if (v != null)
+		{
+			x.startElement(l.namespaceURI, l.prefix, l.name);
+			x.attributes(saveable.getLeafAttributes(l));
+			x.text(v);
+			x.endElement();
+		}
+	}
 
-			if (n instanceof List)
+	private static void saveLeafList(Saveable saveable, LeafList l,
+			XmlEmitter x) throws IOException {
+		String[] vv = saveable.getLeafListCanonicalValues(l);
+		if (vv != null)
+			for (int i = 0; i < vv.length; i++)
 			{
-				List l = (List) n;
-				saveList(l, d, root);
+				x.startElement(l.namespaceURI, l.prefix, l.name);
+				x.attributes(saveable.getLeafListAttributes(l)[i]);
+				if (vv[i] != null)
+					x.text(vv[i]);
+				x.endElement();
 			}
-			else if (n instanceof ListReference)
+	}
+
+	private static void saveAnyxml(Saveable saveable, Anyxml a, XmlEmitter x)
+			throws IOException {
+		byte[] content = saveable.getAnyxmlContent(a);
+		if (content != null)
+		{
+			x.startElement(a.namespaceURI, a.prefix, a.name);
+			x.attributes(saveable.getAnyxmlAttributes(a));
+			x.content(content);
+			x.endElement();
+			return;
+		}
+
+		Document doc = saveable.getAnyxmlValue(a);
+
+		if (doc != null && doc.getDocumentElement() != null)
+			x.element(doc.getDocumentElement(), saveable
+					.getAnyxmlAttributes(a));
+	}
+
+	private static void saveLeaf(Saveable saveable, Leaf l, Document d,
+			Element root) {
+		String v = saveable.getLeafCanonicalValue(l);
+		if (v != null)
+		{
+			Element e = (Element) root.appendChild(d.createElementNS(
+					l.namespaceURI, l.name));
+			e.setPrefix(l.prefix);
+			e.setTextContent(v);
+
+			saveAttributes(e, d, saveable.getLeafAttributes(l));
+
+		}
+	}
+
+	private static void saveLeafList(Saveable saveable, LeafList l,
+			Document d, Element root) {
+		String[] vv = saveable.getLeafListCanonicalValues(l);
+		int i = 0;
+		if (vv != null)
+			for (String v : vv)
 			{
+				Element e = (Element) root.appendChild(d.createElementNS(
+						l.namespaceURI, l.name));
+				e.setPrefix(l.prefix);
+				if (v != null)
+					e.setTextContent(v);
 
-				ListValue lv = (ListValue) saveable;
-				ListReference lr = (ListReference) n;
-				List l = lv.getMirrorList(lr);
-				saveList(l, d, root);
+				saveAttributes(e, d, saveable.getLeafListAttributes(l)[i]);
+				i++;
 			}
+	}
+
+	private static void saveAnyxml(Saveable saveable, Anyxml a, Document d,
+			Element root) {
+		Document doc = saveable.getAnyxmlValue(a);
+
+		if (doc != null && doc.getDocumentElement() != null)
+		{
+			
+			 try
+			 {
+			    Element vv = (Element) d.importNode(
+			    doc.getDocumentElement(), true);
+			    root.appendChild(vv);
+			    saveAttributes(vv, d, saveable.getAnyxmlAttributes(a));
+			 }
+			 catch(Exception e)
+			 {
+				// This resolve a bug on Android.
+				Element vv = doc.getDocumentElement();
+                appendNode(d, root, vv);
+                saveAttributes(vv, d, saveable.getAnyxmlAttributes(a));
+			} 
 		}
 
 	}
@@ -285,128 +413,162 @@ class Save
 
 class Load
 {
+
+	/**
+	 * Load the values of the direct children of an element
+	 * into a structure.
+	 * 
+	 * The children of the element are visited once and each of them
+	 * is bound to its element of the structure through the plan:
+	 * the cost is linear with the size of the document.
+	 * 
+	 * @param e
+	 *            The element that contains the values.
+	 * @param saveable
+	 *            The structure to load.
+	 */
+	@SuppressWarnings("unchecked")
 	static void load(Element e, Saveable saveable) {
 
 		if (e == null)
 			return;
 
-		Set<String> unames = saveable.getUniqueNanes();
-		for (String uniqueName : unames)
-		{
-			Object n = saveable.getElemetByUniqueName(uniqueName);
-			if (n instanceof Leaf)
-			{
-
-				final Leaf l = (Leaf) n;
-
-				NodeList nl = e.getElementsByTagNameNS(l.namespaceURI, l.name);
-				if (nl.getLength() < 1)
-					continue;
-				Element x = (Element) nl.item(0);
-				saveable.assignLeaf(l, x.getTextContent());
+		Plan plan = Plan.of(saveable);
 
-				loadAttributes(x, saveable.getLeafAttributes(l));
+		/*
+		 * The first element bound to a single element of the structure,
+		 * or all the elements bound to a LeafList or to a list.
+		 */
+		Object[] bound = new Object[plan.size];
 
-			}
-			if (n instanceof LeafList)
+		for (org.w3c.dom.Node c = e.getFirstChild(); c != null; c = c
+				.getNextSibling())
+		{
+			if (c.getNodeType() != org.w3c.dom.Node.ELEMENT_NODE)
+				continue;
+			String local = c.getLocalName();
+			int i = plan.indexOf(c.getNamespaceURI(),
+					local != null ? local : c.getNodeName());
+			if (i < 0)
+				continue;
+
+			switch (plan.kinds[i])
 			{
-				final LeafList l = (LeafList) n;
+			case Plan.LEAF_LIST:
+			case Plan.LIST:
+			case Plan.LIST_REFERENCE:
+				if (bound[i] == null)
+					bound[i] = new ArrayList<Element>();
+				((ArrayList<Element>) bound[i]).add((Element) c);
+				break;
+			default:
+				if (bound[i] == null)
+					bound[i] = c;
+			}
+		}
 
-				NodeList nl = e.getElementsByTagNameNS(l.namespaceURI, l.name);
-				int len = nl.getLength();
-				if (len < 1)
-				{
-					saveable.assignLeafList(l, new String[0]);
-					continue;
-				}
-				String[] values = new String[len];
-				for (int i = 0; i < len; i++)
-				{
-					values[i] = nl.item(i).getTextContent();
-				}
-				saveable.assignLeafList(l, values);
-				for (int i = 0; i < nl.getLength(); i++)
-					loadAttributes((Element) nl.item(i),
-							saveable.getLeafListAttributes(l)[i]);
+		for (int i = 0; i < plan.size; i++)
+		{
+			Identity n = plan.nodes[i];
+			Object x = bound[i];
 
-			}
-			if (n instanceof Anyxml)
+			switch (plan.kinds[i])
 			{
-				final Anyxml a = (Anyxml) n;
-				NodeList nl = e.getElementsByTagNameNS(a.namespaceURI, a.name);
-				if (nl.getLength() < 1)
-					continue;
-				Element x = (Element) nl.item(0);
-				Document doc = DOMUtils.newDocument();
-				doc.appendChild(doc.importNode(x, true));
-				saveable.assignAnyxml(a, doc);
-				loadAttributes(x, saveable.getAnyxmlAttributes(a));
+			case Plan.LEAF:
+				if (x != null)
+					loadLeaf(saveable, (Leaf) n, (Element) x);
+				break;
+			case Plan.LEAF_LIST:
+				loadLeafList(saveable, (LeafList) n, (ArrayList<Element>) x);
+				break;
+			case Plan.ANYXML:
+				if (x != null)
+					loadAnyxml(saveable, (Anyxml) n, (Element) x);
+				break;
+			case Plan.CONTAINER:
+				if (x != null)
+					load((Element) x, (Container) n);
+				break;
+			case Plan.CONTAINER_REFERENCE:
+				if (x != null)
+					load((Element) x, ((ListValue) saveable)
+							.getMirrorContainer((ContainerReference) n));
+				break;
+			case Plan.LIST:
+				loadList((List) n, (ArrayList<Element>) x);
+				break;
+			case Plan.LIST_REFERENCE:
+				loadList(((ListValue) saveable)
+						.getMirrorList((ListReference) n),
+						(ArrayList<Element>) x);
+				break;
 			}
+		}
 
-			if (n instanceof Container)
-			{
-				final Container cc = (Container) n;
-
-				NodeList nl = e
-						.getElementsByTagNameNS(cc.namespaceURI, cc.name);
-				if (nl.getLength() < 1)
-					continue;
-				Element x = (Element) nl.item(0);
-				load((Element) x, cc);
-			}
-			else if (n instanceof ContainerReference)
-			{
-				final ContainerReference cr = (ContainerReference) n;
+	}
 
-				ListValue lv = (ListValue) saveable;
-				load(e, lv.getMirrorContainer(cr));
-			}
+	private static void loadLeaf(Saveable saveable, Leaf l, Element x) {
+		saveable.assignLeaf(l, x.getTextContent());
 
-			if (n instanceof List)
-			{
-				final List l = (List) n;
+		loadAttributes(x, saveable.getLeafAttributes(l));
+	}
 
-				NodeList nl = e.getElementsByTagNameNS(l.namespaceURI, l.name);
-				int len = nl.getLength();
-				if (len < 1)
-				{
-					l.assign(new ListValue[0]);
-					continue;
-				}
-				ListValue[] values = new ListValue[len];
-				for (int i = 0; i < len; i++)
-				{
-					Element x = (Element) nl.item(i);
-					values[i] = l.createListValue();
-					load(x, values[i]);
-				}
-				l.assign(values);
+	private static void loadLeafList(Saveable saveable, LeafList l,
+			ArrayList<Element> nl) {
+		if (nl == null)
+		{
+			saveable.assignLeafList(l, new String[0]);
+			return;
+		}
+		int len = nl.size();
+		String[] values = new String[len];
+		for (int i = 0; i < len; i++)
+		{
+			values[i] = nl.get(i).getTextContent();
+		}
+		saveable.assignLeafList(l, values);
+		java.util.List<Attribute>[] attributes = saveable
+				.getLeafListAttributes(l);
+		for (int i = 0; i < len; i++)
+			loadAttributes(nl.get(i), attributes[i]);
+	}
 
-			}
-			else if (n instanceof ListReference)
-			{
-				final ListReference l = (ListReference) n;
+	private static void loadAnyxml(Saveable saveable, Anyxml a, Element x) {
+		Document doc = DOMUtils.newDocument();
+		doc.appendChild(doc.importNode(x, true));
+		saveable.assignAnyxml(a, doc);
+		loadAttributes(x, saveable.getAnyxmlAttributes(a));
+	}
 
-				ListValue lv = (ListValue) saveable;
-				List ll = lv.getMirrorList(l);
-				NodeList nl = e.getElementsByTagNameNS(l.namespaceURI, l.name);
-				int len = nl.getLength();
-				if (len < 1)
-				{
-					ll.assign(new ListValue[0]);
-					continue;
-				}
-				ListValue[] values = new ListValue[len];
-				for (int i = 0; i < len; i++)
-				{
-					Element x = (Element) nl.item(i);
-					values[i] = ll.createListValue();
-					load(x, values[i]);
-				}
-				ll.assign(values);
-			}
+	private static void loadList(List l, ArrayList<Element> nl) {
+		int len = nl == null ? 0 : nl.size();
+		ListEntryListener listener = l.entryListener;
+		if (listener != null)
+		{
+			for (int i = 0; i < len; i++)
+				listener.processListEntry(l, loadListValue(l, nl.get(i)));
+			l.unassign();
+			return;
 		}
+		ListValue[] values = new ListValue[len];
+		for (int i = 0; i < len; i++)
+			values[i] = loadListValue(l, nl.get(i));
+		l.assign(values);
+	}
 
+	/**
+	 * Load an entry of a list.
+	 * 
+	 * @param l
+	 *            The list.
+	 * @param e
+	 *            The element of the entry.
+	 * @return The entry.
+	 */
+	static ListValue loadListValue(List l, Element e) {
+		ListValue lv = l.createListValue();
+		load(e, lv);
+		return lv;
 	}
 
 	private static void loadAttributes(Element x,
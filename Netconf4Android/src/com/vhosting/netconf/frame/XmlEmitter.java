@@ -0,0 +1,522 @@
+package com.vhosting.netconf.frame;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import com.vhosting.netconf.transport.Capability;
+import com.vhosting.netconf.transport.Session;
+
+/**
+ * This class writes an XML document directly on an output stream,
+ * encoded in UTF-8, without building a DOM.
+ * 
+ * The text and the values of the attributes are escaped while they
+ * are written. As a DOM serializer does, a namespace is declared on
+ * the element that uses it when its prefix is not yet bound to it.
+ * The prefixes of the capabilities used by a text, as by a value of
+ * type identityref, are declared on the element of the text.
+ * The indentation is written only on request: the server ignores it.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.01, 18/10/2026
+ */
+final class XmlEmitter
+{
+
+	private static final String XMLNS_URI = "http://www.w3.org/2000/xmlns/";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int INDENT = 4;
+
+	// The escaping of the strings written.
+	private static final int RAW = 0;
+	private static final int TEXT = 1;
+	private static final int ATTRIBUTE = 2;
+
+	private final OutputStream out;
+	private final boolean indent;
+	private final Capability[] capabilities;
+
+	private final byte[] buf = new byte[4096];
+	private int count;
+
+	/*
+	 * The open elements: their names, the size of the scope when
+	 * they were opened and if they have child elements.
+	 */
+	private String[] prefixes = new String[16];
+	private String[] names = new String[16];
+	private int[] marks = new int[16];
+	private boolean[] parents = new boolean[16];
+	private int depth;
+
+	// The start tag of the last element is not yet closed.
+	private boolean open;
+
+	/*
+	 * The namespaces in scope as pairs of prefix and namespace Uri;
+	 * the prefix of the default namespace is the empty string.
+	 */
+	private String[] scope = new String[32];
+	private int scopeSize;
+
+	/**
+	 * Create the emitter.
+	 * 
+	 * @param out
+	 *            The output stream.
+	 * @param indent
+	 *            true to indent the elements; false otherwise.
+	 * @param capabilities
+	 *            The capabilities whose prefixes can be used by the
+	 *            texts; null if none.
+	 */
+	XmlEmitter(OutputStream out, boolean indent, Capability[] capabilities)
+	{
+		this.out = out;
+		this.indent = indent;
+		this.capabilities = capabilities;
+	}
+
+	/**
+	 * Write the XML declaration.
+	 */
+	void startDocument() throws IOException {
+		write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>", RAW);
+		if (indent)
+			put('\n');
+	}
+
+	/**
+	 * Write all the bytes still in the buffer.
+	 */
+	void endDocument() throws IOException {
+		out.write(buf, 0, count);
+		count = 0;
+		out.flush();
+	}
+
+	/**
+	 * Write the start tag of an element; the attributes can be
+	 * written until the content of the element.
+	 * 
+	 * @param namespaceURI
+	 *            The namespace Uri; null if none.
+	 * @param prefix
+	 *            The prefix; null for the default namespace.
+	 * @param localName
+	 *            The local name.
+	 */
+	void startElement(String namespaceURI, String prefix, String localName)
+			throws IOException {
+		closeStart();
+		if (depth == names.length)
+			grow();
+		if (depth > 0)
+		{
+			parents[depth - 1] = true;
+			if (indent)
+				newLine(depth);
+		}
+		put('<');
+		writeName(prefix, localName);
+		prefixes[depth] = prefix;
+		names[depth] = localName;
+		marks[depth] = scopeSize;
+		depth++;
+		open = true;
+		declare(prefix, namespaceURI);
+	}
+
+	/**
+	 * Write the end tag of the last element opened.
+	 */
+	void endElement() throws IOException {
+		depth--;
+		if (open)
+		{
+			put('/');
+			put('>');
+			open = false;
+		}
+		else
+		{
+			if (indent && parents[depth])
+				newLine(depth);
+			put('<');
+			put('/');
+			writeName(prefixes[depth], names[depth]);
+			put('>');
+		}
+		parents[depth] = false;
+		scopeSize = marks[depth];
+	}
+
+	/**
+	 * Bind a prefix to a namespace on the element opened, unless
+	 * the prefix is already bound to it.
+	 * 
+	 * @param prefix
+	 *            The prefix; null or empty for the default namespace.
+	 * @param namespaceURI
+	 *            The namespace Uri; null if none.
+	 */
+	void declare(String prefix, String namespaceURI) throws IOException {
+		String p = (prefix == null) ? "" : prefix;
+		String u = (namespaceURI == null) ? "" : namespaceURI;
+		if (p.equals("xml") || (u.length() == 0 && p.length() > 0))
+			return;
+
+		int i = scopeSize - 2;
+		while (i >= 0 && !scope[i].equals(p))
+			i -= 2;
+		if (i < 0 ? u.length() == 0 : scope[i + 1].equals(u))
+			return;
+		// A prefix can be bound once on an element.
+		if (i >= marks[depth - 1])
+			return;
+
+		if (scopeSize == scope.length)
+		{
+			String[] s = new String[scope.length * 2];
+			System.arraycopy(scope, 0, s, 0, scopeSize);
+			scope = s;
+		}
+		scope[scopeSize++] = p;
+		scope[scopeSize++] = u;
+
+		write(" xmlns", RAW);
+		if (p.length() > 0)
+		{
+			put(':');
+			write(p, RAW);
+		}
+		put('=');
+		put('"');
+		write(u, ATTRIBUTE);
+		put('"');
+	}
+
+	/**
+	 * Write an attribute of the element opened.
+	 * The attributes of the namespace 'xmlns' and those named
+	 * 'xmlns' or 'xmlns:prefix' are declarations.
+	 * 
+	 * @param namespaceURI
+	 *            The namespace Uri; null if none.
+	 * @param prefix
+	 *            The prefix; null if none.
+	 * @param localName
+	 *            The local name.
+	 * @param value
+	 *            The value.
+	 */
+	void attribute(String namespaceURI, String prefix, String localName,
+			String value) throws IOException {
+		if (XMLNS_URI.equals(namespaceURI))
+		{
+			declare("xmlns".equals(prefix) ? localName : null, value);
+			return;
+		}
+		if (namespaceURI == null && prefix == null
+				&& localName.startsWith("xmlns"))
+		{
+			if (localName.length() == 5)
+			{
+				declare(null, value);
+				return;
+			}
+			if (localName.charAt(5) == ':')
+			{
+				declare(localName.substring(6), value);
+				return;
+			}
+		}
+
+		if (namespaceURI != null && prefix != null && prefix.length() > 0)
+			declare(prefix, namespaceURI);
+		else
+			prefix = null;
+		put(' ');
+		writeName(prefix, localName);
+		put('=');
+		put('"');
+		write(value, ATTRIBUTE);
+		put('"');
+	}
+
+	/**
+	 * Write the attributes of the element opened.
+	 * 
+	 * @param attributes
+	 *            The attributes.
+	 */
+	void attributes(java.util.List<Attribute> attributes) throws IOException {
+		for (int i = 0; i < attributes.size(); i++)
+		{
+			Attribute a = attributes.get(i);
+			attribute(a.getNamespaceURI(), a.getPrefix(), a.getName(),
+					a.getValue());
+		}
+	}
+
+	/**
+	 * Write a text into the element opened.
+	 * 
+	 * @param text
+	 *            The text.
+	 */
+	void text(String text) throws IOException {
+		if (text.length() == 0)
+			return;
+		if (open)
+			declarePrefixes(text);
+		closeStart();
+		write(text, TEXT);
+	}
+
+	/**
+	 * Write into the element opened a content already
+	 * written as XML in UTF-8.
+	 * 
+	 * @param content
+	 *            The content.
+	 */
+	void content(byte[] content) throws IOException {
+		if (open && capabilities != null)
+			declarePrefixes(content);
+		closeStart();
+		if (content.length > buf.length - count)
+		{
+			out.write(buf, 0, count);
+			count = 0;
+		}
+		if (content.length > buf.length)
+			out.write(content);
+		else
+		{
+			System.arraycopy(content, 0, buf, count, content.length);
+			count += content.length;
+		}
+	}
+
+	/**
+	 * Write an element of a DOM with all its content.
+	 * 
+	 * @param e
+	 *            The element.
+	 * @param attributes
+	 *            Other attributes of the element; null if none.
+	 */
+	void element(Element e, java.util.List<Attribute> attributes)
+			throws IOException {
+		String localName = e.getLocalName();
+		if (localName == null)
+			localName = e.getNodeName();
+		startElement(e.getNamespaceURI(), e.getPrefix(), localName);
+
+		NamedNodeMap attrs = e.getAttributes();
+		for (int i = 0; i < attrs.getLength(); i++)
+		{
+			Attr a = (Attr) attrs.item(i);
+			String name = a.getLocalName();
+			if (name == null)
+				name = a.getName();
+			attribute(a.getNamespaceURI(), a.getPrefix(), name, a.getValue());
+		}
+		if (attributes != null)
+			attributes(attributes);
+
+		for (Node n = e.getFirstChild(); n != null; n = n.getNextSibling())
+		{
+			switch (n.getNodeType())
+			{
+			case Node.ELEMENT_NODE:
+				element((Element) n, null);
+				break;
+			case Node.TEXT_NODE:
+			case Node.CDATA_SECTION_NODE:
+				text(n.getNodeValue());
+				break;
+			case Node.COMMENT_NODE:
+				closeStart();
+				write("<!--", RAW);
+				write(n.getNodeValue(), RAW);
+				write("-->", RAW);
+				break;
+			}
+		}
+		endElement();
+	}
+
+	private void declarePrefixes(String text) throws IOException {
+		if (capabilities == null || text.indexOf(':') < 0)
+			return;
+		for (Capability cap : Session.getCapabilitiesOfPrefixes(text,
+				capabilities))
+			declare(cap.getPrefix(), cap.getNamespaceURI());
+	}
+
+	/*
+	 * Declare the prefixes used by the texts of a content: a text
+	 * between the tags is decoded only if it contains a colon.
+	 */
+	private void declarePrefixes(byte[] content) throws IOException {
+		int start = 0;
+		boolean tag = false;
+		boolean colon = false;
+		for (int i = 0; i < content.length; i++)
+		{
+			switch (content[i])
+			{
+			case '<':
+				if (colon)
+					declarePrefixes(new String(content, start, i - start, UTF8));
+				tag = true;
+				colon = false;
+				break;
+			case '>':
+				tag = false;
+				start = i + 1;
+				break;
+			case ':':
+				if (!tag)
+					colon = true;
+				break;
+			}
+		}
+		if (colon)
+			declarePrefixes(new String(content, start, content.length - start,
+					UTF8));
+	}
+
+	private void closeStart() throws IOException {
+		if (open)
+		{
+			put('>');
+			open = false;
+		}
+	}
+
+	private void newLine(int level) throws IOException {
+		put('\n');
+		for (int i = level * INDENT; i > 0; i--)
+			put(' ');
+	}
+
+	private void writeName(String prefix, String localName)
+			throws IOException {
+		if (prefix != null && prefix.length() > 0)
+		{
+			write(prefix, RAW);
+			put(':');
+		}
+		write(localName, RAW);
+	}
+
+	private void grow() {
+		int n = names.length * 2;
+		String[] p = new String[n];
+		System.arraycopy(prefixes, 0, p, 0, depth);
+		prefixes = p;
+		String[] s = new String[n];
+		System.arraycopy(names, 0, s, 0, depth);
+		names = s;
+		int[] m = new int[n];
+		System.arraycopy(marks, 0, m, 0, depth);
+		marks = m;
+		boolean[] b = new boolean[n];
+		System.arraycopy(parents, 0, b, 0, depth);
+		parents = b;
+	}
+
+	/*
+	 * Write a string encoded in UTF-8, escaping the characters
+	 * that can not be written as they are.
+	 */
+	private void write(String s, int escape) throws IOException {
+		int len = s.length();
+		for (int i = 0; i < len; i++)
+		{
+			char c = s.charAt(i);
+			if (c < 0x80)
+			{
+				if (c <= '>' && escape != RAW)
+				{
+					String ref = reference(c, escape);
+					if (ref != null)
+					{
+						for (int k = 0; k < ref.length(); k++)
+							put(ref.charAt(k));
+						continue;
+					}
+				}
+				put(c);
+			}
+			else if (c < 0x800)
+			{
+				put(0xc0 | (c >> 6));
+				put(0x80 | (c & 0x3f));
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < len
+					&& Character.isLowSurrogate(s.charAt(i + 1)))
+			{
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				put(0xf0 | (cp >> 18));
+				put(0x80 | ((cp >> 12) & 0x3f));
+				put(0x80 | ((cp >> 6) & 0x3f));
+				put(0x80 | (cp & 0x3f));
+			}
+			else if (c >= Character.MIN_SURROGATE
+					&& c <= Character.MAX_SURROGATE)
+			{
+				// A malformed surrogate pair.
+				put('?');
+			}
+			else
+			{
+				put(0xe0 | (c >> 12));
+				put(0x80 | ((c >> 6) & 0x3f));
+				put(0x80 | (c & 0x3f));
+			}
+		}
+	}
+
+	private static String reference(char c, int escape) {
+		switch (c)
+		{
+		case '&':
+			return "&amp;";
+		case '<':
+			return "&lt;";
+		case '>':
+			return "&gt;";
+		case '\r':
+			return "&#13;";
+		case '"':
+			return (escape == ATTRIBUTE) ? "&quot;" : null;
+		case '\n':
+			return (escape == ATTRIBUTE) ? "&#10;" : null;
+		case '\t':
+			return (escape == ATTRIBUTE) ? "&#9;" : null;
+		}
+		return null;
+	}
+
+	private void put(int b) throws IOException {
+		if (count == buf.length)
+		{
+			out.write(buf, 0, count);
+			count = 0;
+		}
+		buf[count++] = (byte) b;
+	}
+
+}
@@ -5,11 +5,15 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
@@ -17,53 +21,119 @@ import javax.xml.transform.sax.SAXTransformerFactory;
 import javax.xml.validation.SchemaFactory;
 
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * This class provides some methods for manipulating XML
  * documents used to handle the protocol.
  * 
+ * The parsers and the serializers are not thread safe: each thread
+ * has its own, created on first use with the configuration of
+ * shared factories and reused for all the following documents, so
+ * that the sessions parse in parallel without any lock.
+ * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public class DOMUtils
 {
-	private static DocumentBuilder db;
-	private static ParserConfigurationException e;
+	private static final DocumentBuilderFactory builderFactory;
+	private static final SAXParserFactory parserFactory;
+	private static final TransformerFactory transformerFactory;
 
-	private static javax.xml.transform.Transformer transformer;
 	private static SchemaFactory schemaFactory;
 
+	private static final ThreadLocal<DocumentBuilder> builders = new ThreadLocal<DocumentBuilder>()
+	{
+		@Override
+		protected DocumentBuilder initialValue() {
+			// The factories are not thread safe.
+			synchronized (builderFactory)
+			{
+				try
+				{
+					return builderFactory.newDocumentBuilder();
+				}
+				catch (ParserConfigurationException e)
+				{
+					RuntimeException ex = new RuntimeException(
+							"Could not instantiate a new document.");
+					ex.initCause(e);
+					throw ex;
+				}
+			}
+		}
+	};
+
+	private static final ThreadLocal<SAXParser> parsers = new ThreadLocal<SAXParser>()
+	{
+		@Override
+		protected SAXParser initialValue() {
+			synchronized (parserFactory)
+			{
+				try
+				{
+					return parserFactory.newSAXParser();
+				}
+				catch (Exception e)
+				{
+					RuntimeException ex = new RuntimeException(
+							"Could not instantiate a new parser.");
+					ex.initCause(e);
+					throw ex;
+				}
+			}
+		}
+	};
+
+	private static final ThreadLocal<javax.xml.transform.Transformer> transformers = new ThreadLocal<javax.xml.transform.Transformer>()
+	{
+		@Override
+		protected javax.xml.transform.Transformer initialValue() {
+			synchronized (transformerFactory)
+			{
+				try
+				{
+					javax.xml.transform.Transformer transformer = transformerFactory
+							.newTransformer();
+					transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+					transformer.setOutputProperty(OutputKeys.MEDIA_TYPE,
+							"text/xml");
+					return transformer;
+				}
+				catch (TransformerConfigurationException e)
+				{
+					RuntimeException ex = new RuntimeException(
+							"Could not instantiate a new transformer.");
+					ex.initCause(e);
+					throw ex;
+				}
+			}
+		}
+	};
+
 	private DOMUtils()
 	{}
 
 	static
 	{
-		try
-		{
-			DocumentBuilderFactory fac = DocumentBuilderFactory.newInstance();
-			fac.setIgnoringElementContentWhitespace(true);
-			fac.setIgnoringComments(true);
-			fac.setNamespaceAware(true);
-			db = fac.newDocumentBuilder();
-			TransformerFactory factory = SAXTransformerFactory.newInstance();
-			//NOANDROID factory.setAttribute("indent-number", new Integer(3));
-			transformer = factory.newTransformer();
-			transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-			transformer.setOutputProperty(OutputKeys.MEDIA_TYPE, "text/xml");
-
-			//NOANDROID schemaFactory = SchemaFactory
-		    // 		.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		DocumentBuilderFactory fac = DocumentBuilderFactory.newInstance();
+		fac.setIgnoringElementContentWhitespace(true);
+		fac.setIgnoringComments(true);
+		fac.setNamespaceAware(true);
+		builderFactory = fac;
+		SAXParserFactory pfac = SAXParserFactory.newInstance();
+		pfac.setNamespaceAware(true);
+		parserFactory = pfac;
+		TransformerFactory factory = SAXTransformerFactory.newInstance();
+		//NOANDROID factory.setAttribute("indent-number", new Integer(3));
+		transformerFactory = factory;
 
-		}
-		catch (ParserConfigurationException e)
-		{
-			e.printStackTrace();
-		}
-		catch (TransformerConfigurationException e)
-		{
-			e.printStackTrace();
-		}
+		//NOANDROID schemaFactory = SchemaFactory
+	    // 		.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
 	}
 
 	/**
@@ -72,16 +142,7 @@ public class DOMUtils
 	 * @return The empty DOM XML Document.
 	 */
 	public static Document newDocument() {
-		if (e != null)
-		{
-			RuntimeException ex = new RuntimeException(
-					"Could not instantiate a new document.");
-			ex.initCause(e);
-			throw ex;
-		}
-		Document d = null;
-		d = db.newDocument();
-		return d;
+		return builders.get().newDocument();
 	}
 
 	/**
@@ -95,18 +156,45 @@ public class DOMUtils
 	 * @throws IOException
 	 *             Throw this exception if there are reading troubles.
 	 */
-	public synchronized static Document newDocument(InputStream in)
+	public static Document newDocument(InputStream in)
+			throws SAXException, IOException {
+		DocumentBuilder db = builders.get();
+		try
+		{
+			return db.parse(in);
+		}
+		finally
+		{
+			// A failed parsing must not affect the next one.
+			db.reset();
+		}
+	}
+
+	/**
+	 * Parse a XML document from an input stream without building
+	 * the DOM: the document is reported to a SAX handler.
+	 * 
+	 * @param in
+	 *            The input stream.
+	 * @param handler
+	 *            The handler of the SAX events.
+	 * @throws SAXException
+	 *             Throw this exception if there are parsing troubles or
+	 *             the handler stops the parsing.
+	 * @throws IOException
+	 *             Throw this exception if there are reading troubles.
+	 */
+	public static void parse(InputStream in, DefaultHandler handler)
 			throws SAXException, IOException {
-		if (e != null)
+		SAXParser p = parsers.get();
+		try
 		{
-			RuntimeException ex = new RuntimeException(
-					"Could not instantiate a new document.");
-			ex.initCause(e);
-			throw ex;
+			p.parse(in, handler);
+		}
+		finally
+		{
+			p.reset();
 		}
-		Document d = null;
-		d = db.parse(in);
-		return d;
 	}
 
 	/**
@@ -119,7 +207,8 @@ public class DOMUtils
 	 * @throws IOException
 	 *             Throw this exception if there are writing troubles.
 	 */
-	public static void dump(Document doc, OutputStream out) throws IOException {
+	public static void dump(Document doc, OutputStream out)
+			throws IOException {
 
 		try
 		{
@@ -127,7 +216,7 @@ public class DOMUtils
 					doc.getDocumentElement());
 			javax.xml.transform.stream.StreamResult result = new javax.xml.transform.stream.StreamResult(
 					new OutputStreamWriter(out, "utf-8"));
-			transformer.transform(domSource, result);
+			transformers.get().transform(domSource, result);
 		}
 		catch (Exception e)
 		{
@@ -136,6 +225,56 @@ public class DOMUtils
 		}
 	}
 
+	/**
+	 * Get the child elements of an element having a name.
+	 * Only the children are examined, not all the descendants.
+	 * 
+	 * @param parent
+	 *            The parent element.
+	 * @param namespaceURI
+	 *            The namespace of the children.
+	 * @param localName
+	 *            The local name of the children.
+	 * @return The child elements.
+	 */
+	static List<Element> getChildElements(Element parent,
+			String namespaceURI, String localName) {
+		ArrayList<Element> l = new ArrayList<Element>(2);
+		for (Node n = parent.getFirstChild(); n != null; n = n
+				.getNextSibling())
+		{
+			if (n.getNodeType() == Node.ELEMENT_NODE
+					&& localName.equals(n.getLocalName())
+					&& namespaceURI.equals(n.getNamespaceURI()))
+				l.add((Element) n);
+		}
+		return l;
+	}
+
+	/**
+	 * Get the first child element of an element having a name.
+	 * 
+	 * @param parent
+	 *            The parent element.
+	 * @param namespaceURI
+	 *            The namespace of the child.
+	 * @param localName
+	 *            The local name of the child.
+	 * @return The child element or null if not present.
+	 */
+	static Element getChildElement(Element parent, String namespaceURI,
+			String localName) {
+		for (Node n = parent.getFirstChild(); n != null; n = n
+				.getNextSibling())
+		{
+			if (n.getNodeType() == Node.ELEMENT_NODE
+					&& localName.equals(n.getLocalName())
+					&& namespaceURI.equals(n.getNamespaceURI()))
+				return (Element) n;
+		}
+		return null;
+	}
+
 	public static boolean validate(Document doc, URL xsd) {
 		// This method is not implemented.
 
@@ -3,6 +3,7 @@ package com.vhosting.netconf.messages;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.Vector;
 
@@ -27,6 +28,7 @@ public final class HelloMsg implements Msg
 	private static String base_xmlns = Session.BASE_1_0.getNamespaceURI();
 
 	private static int sessionId;
+	private Integer serverSessionId;
 	private Document doc;
 
 	private URL xsd = getClass().getResource("base1_0.xsd");
@@ -76,7 +78,30 @@ public final class HelloMsg implements Msg
 	 */
 	public static final HelloMsg createServerHello(byte[] message)
 			throws SAXException, IOException {
-		Document doc = DOMUtils.newDocument(new ByteArrayInputStream(message));
+		return createServerHello(message, 0, message.length);
+	}
+
+	/**
+	 * Create the server side Hello message from a portion of a byte array
+	 * as source.
+	 * 
+	 * @param message
+	 *            The byte array.
+	 * @param offset
+	 *            The offset of the message into the array.
+	 * @param length
+	 *            The length of the message.
+	 * @return The Hello message or null if the message is not a valid Hello
+	 *         message.
+	 * @throws SAXException
+	 *             Throw this exception if there are parsing troubles.
+	 * @throws IOException
+	 *             Throw this exception if there are reading troubles.
+	 */
+	public static final HelloMsg createServerHello(byte[] message,
+			int offset, int length) throws SAXException, IOException {
+		Document doc = DOMUtils.newDocument(new ByteArrayInputStream(message,
+				offset, length));
 
 		boolean is = doc.getElementsByTagNameNS(base_xmlns, "hello")
 				.getLength() > 0;
@@ -95,9 +120,10 @@ public final class HelloMsg implements Msg
 			return null;
 		try
 		{
-			sessionId = Integer.parseInt(((Element) root
+			h.serverSessionId = Integer.parseInt(((Element) root
 					.getElementsByTagNameNS(base_xmlns, "session-id").item(0))
 					.getTextContent());
+			sessionId = h.serverSessionId;
 		}
 		catch (Exception e)
 		{
@@ -129,11 +155,25 @@ public final class HelloMsg implements Msg
 	 * The session Id is null in case of a client side Hello message.
 	 * 
 	 * @return The session identifier or null if not exists.
+	 * @deprecated This is the session id of the last server Hello message
+	 *             created by any connection; use getServerSessionId().
 	 */
+	@Deprecated
 	public static Integer getSessionId() {
 		return sessionId;
 	}
 
+	/**
+	 * Get the session id with this message.
+	 * 
+	 * The session Id is null in case of a client side Hello message.
+	 * 
+	 * @return The session identifier or null if not exists.
+	 */
+	public Integer getServerSessionId() {
+		return serverSessionId;
+	}
+
 	@Override
 	public final boolean validate() {
 		return DOMUtils.validate(doc, xsd);
@@ -151,4 +191,16 @@ public final class HelloMsg implements Msg
 		DOMUtils.dump(doc, out);
 	}
 
+	/**
+	 * Dump the message to an output stream.
+	 * 
+	 * @param out
+	 *            The output stream.
+	 * @throws IOException
+	 *             Throw this exception if there are writing troubles.
+	 */
+	public void dump(OutputStream out) throws IOException {
+		DOMUtils.dump(doc, out);
+	}
+
 }
@@ -0,0 +1,470 @@
+package com.vhosting.netconf.messages;
+
+import javax.xml.namespace.QName;
+
+import com.vhosting.netconf.transport.Session;
+
+/**
+ * This class identifies the kind of a Netconf message from the
+ * root element, examining only the bytes that precede the first
+ * closing '&gt;' of the root start tag, and the event of a
+ * notification from the start tags that follow it.
+ * 
+ * No DOM is built: the message is then parsed once, by the
+ * factory method of its kind.
+ * 
+ * <pre>
+ * switch (MessageSniffer.sniff(b, off, len))
+ * {
+ * case RPC_REPLY:
+ * 	reply = RpcReplyMsg.createServerRpcReply(b, off, len);
+ * 	break;
+ * case NOTIFICATION:
+ * 	notification = NotificationMsg.createNotification(b, off, len);
+ * 	break;
+ * ...
+ * }
+ * </pre>
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.01, 18/10/2026
+ */
+public final class MessageSniffer
+{
+
+	/**
+	 * The kinds of message.
+	 * 
+	 * @author Giuseppe Palmeri
+	 */
+	public static enum Kind
+	{
+		/**
+		 * The root element is &lt;rpc-reply&gt; of the base namespace.
+		 */
+		RPC_REPLY,
+
+		/**
+		 * The root element is &lt;notification&gt; of the notification
+		 * namespace.
+		 */
+		NOTIFICATION,
+
+		/**
+		 * The root element is &lt;hello&gt; of the base namespace.
+		 */
+		HELLO,
+
+		/**
+		 * The root element is any other element.
+		 */
+		OTHER,
+
+		/**
+		 * The root element can not be identified without parsing the
+		 * message: an encoding other than UTF-8, a DOCTYPE, an entity
+		 * reference into a namespace declaration and so on.
+		 */
+		UNKNOWN
+	}
+
+	private static final byte[] BASE_NS = ascii(RpcReplyMsg.base_1_0_xmlns);
+	private static final byte[] NOTIFICATION_NS = ascii(Session.NOTIFICATION_1_0
+			.getNamespaceURI());
+
+	private static final byte[] RPC_REPLY = ascii("rpc-reply");
+	private static final byte[] NOTIFICATION = ascii("notification");
+	private static final byte[] HELLO = ascii("hello");
+	private static final byte[] XMLNS = ascii("xmlns");
+	private static final byte[] EVENT_TIME = ascii("eventTime");
+
+	private MessageSniffer()
+	{}
+
+	/**
+	 * Identify the kind of a message.
+	 * 
+	 * @param b
+	 *            The byte array containing the message.
+	 * @param off
+	 *            The offset of the message into the array.
+	 * @param len
+	 *            The length of the message.
+	 * @return The kind of the message.
+	 */
+	public static Kind sniff(byte[] b, int off, int len) {
+		final int end = off + len;
+		int p = skipProlog(b, off, end);
+		if (p < 0)
+			return Kind.UNKNOWN;
+
+		Tag root = new Tag();
+		if (!root.read(b, p, end))
+			return Kind.UNKNOWN;
+
+		/*
+		 * A root element without namespace is not a Netconf message;
+		 * a prefix not declared is left to the parser to report.
+		 */
+		int d = root.declaration(b, root.nameStart, root.prefixLen);
+		if (d < 0)
+			return root.prefixLen == 0 ? Kind.OTHER : Kind.UNKNOWN;
+		int nsStart = root.decls[d + 2];
+		int nsEnd = root.decls[d + 3];
+
+		if (equals(b, nsStart, nsEnd, BASE_NS))
+		{
+			if (equals(b, root.localStart, root.nameEnd, RPC_REPLY))
+				return Kind.RPC_REPLY;
+			if (equals(b, root.localStart, root.nameEnd, HELLO))
+				return Kind.HELLO;
+		}
+		else if (equals(b, nsStart, nsEnd, NOTIFICATION_NS))
+		{
+			if (equals(b, root.localStart, root.nameEnd, NOTIFICATION))
+				return Kind.NOTIFICATION;
+		}
+		return Kind.OTHER;
+	}
+
+	/**
+	 * Identify the event of a notification: the element that
+	 * follows &lt;eventTime&gt;.
+	 * 
+	 * Only the start tags of the root element, of &lt;eventTime&gt;
+	 * and of the event are examined; the content of the event is not.
+	 * 
+	 * @param b
+	 *            The byte array containing the message.
+	 * @param off
+	 *            The offset of the message into the array.
+	 * @param len
+	 *            The length of the message.
+	 * @return The qualified name of the event; null if the message is
+	 *         not a notification or if the event can not be identified
+	 *         without parsing the message.
+	 */
+	public static QName sniffEvent(byte[] b, int off, int len) {
+		final int end = off + len;
+		int p = skipProlog(b, off, end);
+		if (p < 0)
+			return null;
+
+		Tag root = new Tag();
+		if (!root.read(b, p, end) || root.empty)
+			return null;
+		int d = root.declaration(b, root.nameStart, root.prefixLen);
+		if (d < 0
+				|| !equals(b, root.decls[d + 2], root.decls[d + 3],
+						NOTIFICATION_NS)
+				|| !equals(b, root.localStart, root.nameEnd, NOTIFICATION))
+			return null;
+
+		// The eventTime element, with its text only.
+		Tag tag = new Tag();
+		p = skipToElement(b, root.end, end);
+		if (p < 0 || !tag.read(b, p, end)
+				|| !equals(b, tag.localStart, tag.nameEnd, EVENT_TIME))
+			return null;
+		p = tag.end;
+		if (!tag.empty)
+		{
+			while (p < end && b[p] != '<')
+				p++;
+			if (p + 1 >= end || b[p + 1] != '/')
+				return null;
+			while (p < end && b[p] != '>')
+				p++;
+			if (p == end)
+				return null;
+			p++;
+		}
+
+		// The event.
+		p = skipToElement(b, p, end);
+		if (p < 0 || !tag.read(b, p, end))
+			return null;
+		int nsStart;
+		int nsEnd;
+		d = tag.declaration(b, tag.nameStart, tag.prefixLen);
+		if (d >= 0)
+		{
+			nsStart = tag.decls[d + 2];
+			nsEnd = tag.decls[d + 3];
+		}
+		else
+		{
+			d = root.declaration(b, tag.nameStart, tag.prefixLen);
+			if (d >= 0)
+			{
+				nsStart = root.decls[d + 2];
+				nsEnd = root.decls[d + 3];
+			}
+			else if (tag.prefixLen == 0)
+			{
+				nsStart = 0;
+				nsEnd = 0;
+			}
+			else
+				return null;
+		}
+
+		String namespaceURI = ascii(b, nsStart, nsEnd);
+		String name = ascii(b, tag.localStart, tag.nameEnd);
+		if (namespaceURI == null || name == null)
+			return null;
+		return new QName(namespaceURI, name);
+	}
+
+	/*
+	 * Skip the byte order mark and the prolog: XML declaration,
+	 * processing instructions and comments.
+	 * Return the position of the root start tag; -1 if the prolog
+	 * can not be skipped without parsing it.
+	 */
+	private static int skipProlog(byte[] b, int off, int end) {
+		int p = off;
+
+		// The byte order mark of UTF-8.
+		if (end - off >= 3 && (b[p] & 0xff) == 0xef
+				&& (b[p + 1] & 0xff) == 0xbb && (b[p + 2] & 0xff) == 0xbf)
+			p += 3;
+
+		while (true)
+		{
+			p = skipWhitespace(b, p, end);
+			if (p + 1 >= end || b[p] != '<')
+				return -1;
+
+			if (b[p + 1] == '?')
+				p = indexOf(b, p + 2, end, '?', '>');
+			else if (b[p + 1] == '!')
+			{
+				if (p + 3 < end && b[p + 2] == '-' && b[p + 3] == '-')
+					p = indexOf(b, p + 4, end, '-', '>');
+				else
+					return -1;
+			}
+			else
+				return p;
+
+			if (p < 0)
+				return -1;
+			p += 2;
+		}
+	}
+
+	/*
+	 * Skip the white spaces and the comments that precede a child
+	 * element. Return the position of its start tag; -1 if
+	 * something else comes first.
+	 */
+	private static int skipToElement(byte[] b, int p, int end) {
+		while (true)
+		{
+			p = skipWhitespace(b, p, end);
+			if (p + 1 >= end || b[p] != '<' || b[p + 1] == '/'
+					|| b[p + 1] == '?')
+				return -1;
+			if (b[p + 1] != '!')
+				return p;
+			if (p + 3 >= end || b[p + 2] != '-' || b[p + 3] != '-')
+				return -1;
+			p = indexOf(b, p + 4, end, '-', '>');
+			if (p < 0)
+				return -1;
+			p += 2;
+		}
+	}
+
+	/*
+	 * A start tag: its name and its namespace declarations.
+	 */
+	private static final class Tag
+	{
+		int nameStart;
+		int nameEnd;
+		int localStart;
+		int prefixLen;
+		boolean empty;
+		int end;
+
+		/*
+		 * The namespace declarations, four positions each: start
+		 * and end of the attribute name and of the value.
+		 */
+		int[] decls = new int[16];
+		int nDecls;
+
+		/*
+		 * Read the start tag at p.
+		 * Return false if it can not be read without parsing it.
+		 */
+		boolean read(byte[] b, int p, int end) {
+			nDecls = 0;
+			nameStart = ++p;
+			int colon = -1;
+			while (p < end && !isDelimiter(b[p]))
+			{
+				if (b[p] == ':')
+					colon = p;
+				p++;
+			}
+			if (p == nameStart || p == end)
+				return false;
+			nameEnd = p;
+			localStart = colon < 0 ? nameStart : colon + 1;
+			prefixLen = colon < 0 ? 0 : colon - nameStart;
+
+			// The attributes: only the namespace declarations are kept.
+			while (true)
+			{
+				p = skipWhitespace(b, p, end);
+				if (p == end)
+					return false;
+				if (b[p] == '>')
+				{
+					empty = false;
+					break;
+				}
+				if (b[p] == '/')
+				{
+					if (p + 1 == end || b[p + 1] != '>')
+						return false;
+					empty = true;
+					p++;
+					break;
+				}
+
+				int attStart = p;
+				while (p < end && b[p] != '=' && !isDelimiter(b[p]))
+					p++;
+				int attEnd = p;
+				p = skipWhitespace(b, p, end);
+				if (p == end || b[p] != '=')
+					return false;
+				p = skipWhitespace(b, p + 1, end);
+				if (p == end || (b[p] != '"' && b[p] != '\''))
+					return false;
+				byte quote = b[p];
+				int valueStart = ++p;
+				while (p < end && b[p] != quote)
+				{
+					if (b[p] == '&')
+						return false;
+					p++;
+				}
+				if (p == end)
+					return false;
+				int valueEnd = p++;
+
+				if (attEnd - attStart >= XMLNS.length
+						&& MessageSniffer.equals(b, attStart, attStart
+								+ XMLNS.length, XMLNS))
+				{
+					if (nDecls == decls.length)
+					{
+						int[] d = new int[decls.length * 2];
+						System.arraycopy(decls, 0, d, 0, nDecls);
+						decls = d;
+					}
+					decls[nDecls++] = attStart;
+					decls[nDecls++] = attEnd;
+					decls[nDecls++] = valueStart;
+					decls[nDecls++] = valueEnd;
+				}
+			}
+			this.end = p + 1;
+			return true;
+		}
+
+		/*
+		 * Find the declaration of the namespace of a prefix.
+		 * Return its index into decls; -1 if there is none.
+		 */
+		int declaration(byte[] b, int prefixStart, int prefixLen) {
+			for (int i = 0; i < nDecls; i += 4)
+			{
+				if (declares(b, decls[i], decls[i + 1], prefixStart, prefixLen))
+					return i;
+			}
+			return -1;
+		}
+	}
+
+	/*
+	 * Test if an attribute declares the namespace of a prefix:
+	 * 'xmlns' for the default namespace, 'xmlns:prefix' otherwise.
+	 */
+	private static boolean declares(byte[] b, int attStart, int attEnd,
+			int prefixStart, int prefixLen) {
+		int n = attEnd - attStart;
+		if (prefixLen == 0)
+			return equals(b, attStart, attEnd, XMLNS);
+		if (n != XMLNS.length + 1 + prefixLen
+				|| !equals(b, attStart, attStart + XMLNS.length, XMLNS)
+				|| b[attStart + XMLNS.length] != ':')
+			return false;
+		for (int i = 0; i < prefixLen; i++)
+		{
+			if (b[attStart + XMLNS.length + 1 + i] != b[prefixStart + i])
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	 * Decode a name made of ASCII characters only;
+	 * null if there are other characters.
+	 */
+	private static String ascii(byte[] b, int from, int to) {
+		char[] c = new char[to - from];
+		for (int i = from; i < to; i++)
+		{
+			if (b[i] < 0)
+				return null;
+			c[i - from] = (char) b[i];
+		}
+		return new String(c);
+	}
+
+	private static boolean equals(byte[] b, int from, int to, byte[] s) {
+		if (to - from != s.length)
+			return false;
+		for (int i = 0; i < s.length; i++)
+		{
+			if (b[from + i] != s[i])
+				return false;
+		}
+		return true;
+	}
+
+	private static int indexOf(byte[] b, int from, int end, char c1, char c2) {
+		for (int i = from; i + 1 < end; i++)
+		{
+			if (b[i] == c1 && b[i + 1] == c2)
+				return i;
+		}
+		return -1;
+	}
+
+	private static int skipWhitespace(byte[] b, int p, int end) {
+		while (p < end
+				&& (b[p] == ' ' || b[p] == '\n' || b[p] == '\r' || b[p] == '\t'))
+			p++;
+		return p;
+	}
+
+	private static boolean isDelimiter(byte c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '>'
+				|| c == '/';
+	}
+
+	private static byte[] ascii(String s) {
+		byte[] b = new byte[s.length()];
+		for (int i = 0; i < b.length; i++)
+			b[i] = (byte) s.charAt(i);
+		return b;
+	}
+
+}
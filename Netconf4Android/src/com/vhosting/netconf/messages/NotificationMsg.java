@@ -4,12 +4,12 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URL;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
+import javax.xml.namespace.QName;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import com.vhosting.netconf.notification.NotificationEvent;
@@ -20,7 +20,7 @@ import com.vhosting.netconf.transport.Session;
  * This class represents the Notification message in the Netconf protocol.
  * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  */
 public class NotificationMsg implements Msg, NotificationEvent
 {
@@ -28,7 +28,8 @@ public class NotificationMsg implements Msg, NotificationEvent
 	private static String notification_xmlns = Session.NOTIFICATION_1_0
 			.getNamespaceURI();
 	private Document doc;
-	private URL xsd = getClass().getResource("notification1_0.xsd");
+	private static final URL xsd = NotificationMsg.class
+			.getResource("notification1_0.xsd");
 	private java.util.Date eventTime;
 
 	/**
@@ -57,23 +58,56 @@ public class NotificationMsg implements Msg, NotificationEvent
 	 */
 	public static final NotificationMsg createNotification(byte[] message)
 			throws SAXException, IOException {
-		Document doc = DOMUtils.newDocument(new ByteArrayInputStream(message));
+		return createNotification(message, 0, message.length);
+	}
+
+	/**
+	 * Create the server Notification message from a portion of a byte array
+	 * as source.
+	 * 
+	 * @param message
+	 *            The byte array.
+	 * @param offset
+	 *            The offset of the message into the array.
+	 * @param length
+	 *            The length of the message.
+	 * @return The Notification message or null if the message is not a valid
+	 *         Notification
+	 *         message.
+	 * @throws SAXException
+	 *             Throw this exception if there are parsing troubles.
+	 * @throws IOException
+	 *             Throw this exception if there are reading troubles.
+	 */
+	public static final NotificationMsg createNotification(byte[] message,
+			int offset, int length) throws SAXException, IOException {
+		return createNotification(DOMUtils.newDocument(new ByteArrayInputStream(
+				message, offset, length)));
+	}
 
-		boolean is = doc.getElementsByTagNameNS(notification_xmlns,
-				"notification").getLength() > 0;
-		if (!is)
+	/**
+	 * Create the server Notification message from a document already
+	 * parsed.
+	 * 
+	 * @param doc
+	 *            The document.
+	 * @return The Notification message or null if the document is not a
+	 *         valid Notification message.
+	 */
+	public static final NotificationMsg createNotification(Document doc) {
+		Element notification = doc.getDocumentElement();
+		if (notification == null
+				|| !notification_xmlns.equals(notification.getNamespaceURI())
+				|| !"notification".equals(notification.getLocalName()))
 			return null;
 		NotificationMsg h = new NotificationMsg(doc);
 		if (!h.validate())
 			return null;
 
-		Element notification = (Element) doc.getElementsByTagNameNS(
-				notification_xmlns, "notification").item(0);
-
-		final NodeList eventTime = notification.getElementsByTagNameNS(
+		Element et = DOMUtils.getChildElement(notification,
 				notification_xmlns, "eventTime");
-
-		Element et = (Element) eventTime.item(0);
+		if (et == null)
+			return null;
 		String eventTimeTxt = et.getTextContent();
 		h.eventTime = convert3339Date(eventTimeTxt);
 
@@ -85,29 +119,38 @@ public class NotificationMsg implements Msg, NotificationEvent
 		return eventTime;
 	}
 
+	/**
+	 * Get the qualified name of the event: the element
+	 * that follows &lt;eventTime&gt;.
+	 * 
+	 * @return The qualified name of the event; null if the
+	 *         notification has no event.
+	 */
+	public QName getEvent() {
+		org.w3c.dom.Node n = doc.getDocumentElement().getFirstChild();
+		boolean eventTime = false;
+		for (; n != null; n = n.getNextSibling())
+		{
+			if (n.getNodeType() != org.w3c.dom.Node.ELEMENT_NODE)
+				continue;
+			if (eventTime)
+			{
+				String ns = n.getNamespaceURI();
+				return new QName(ns == null ? "" : ns, n.getLocalName());
+			}
+			eventTime = true;
+		}
+		return null;
+	}
+
 	private static Date convert3339Date(String timeString) {
-		timeString = timeString.replaceFirst("[.]\\d\\d", "");
-		timeString = timeString.replaceFirst("([+-]\\d\\d):(\\d\\d)$", "$1$2");
-		timeString = timeString.replaceFirst("[Zz]$", "");
 		try
 		{
-
-			return new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ssZ")
-					.parse(timeString);
-
+			return new Date(Rfc3339.parse(timeString.trim()));
 		}
 		catch (ParseException e)
 		{
-			try
-			{
-				return new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ss")
-						.parse(timeString);
-			}
-			catch (ParseException e1)
-			{
-				e1.initCause(e);
-				e1.printStackTrace();
-			}
+			e.printStackTrace();
 		}
 		return null;
 	}
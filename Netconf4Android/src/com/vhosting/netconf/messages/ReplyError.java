@@ -0,0 +1,185 @@
+package com.vhosting.netconf.messages;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.w3c.dom.Element;
+
+import com.vhosting.netconf.frame.RpcReplyError;
+import com.vhosting.netconf.frame.RpcReplyErrorInfo;
+import com.vhosting.netconf.frame.RpcReplyErrorMessage;
+
+/**
+ * An &lt;rpc-error&gt; of a RPC reply, filled by the decoder
+ * of the reply.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+final class ReplyError implements RpcReplyError
+{
+
+	private static final HashMap<String, ErrorType> types = new HashMap<String, ErrorType>();
+	private static final HashMap<String, ErrorTag> tags = new HashMap<String, ErrorTag>();
+	private static final HashMap<String, ErrorSeverity> severities = new HashMap<String, ErrorSeverity>();
+
+	static
+	{
+		for (ErrorType t : ErrorType.values())
+			types.put(t.toString(), t);
+		for (ErrorTag t : ErrorTag.values())
+			tags.put(t.toString(), t);
+		for (ErrorSeverity s : ErrorSeverity.values())
+			severities.put(s.toString(), s);
+	}
+
+	ErrorType errorType;
+	ErrorTag errorTag;
+	ErrorSeverity errorSeverity;
+	String errorAppTag;
+	String errorPath;
+	Message errorMessage;
+	Info errorInfo;
+
+	/**
+	 * Assign the value of a child element of &lt;rpc-error&gt;
+	 * of the base namespace.
+	 * 
+	 * @param name
+	 *            The local name of the child.
+	 * @param value
+	 *            The text content of the child.
+	 * @param lang
+	 *            The xml:lang attribute of the child; null or empty if
+	 *            not present.
+	 */
+	void set(String name, String value, String lang) {
+		if (name.equals("error-type"))
+			errorType = types.get(value.trim());
+		else if (name.equals("error-tag"))
+			errorTag = tags.get(value.trim());
+		else if (name.equals("error-severity"))
+			errorSeverity = severities.get(value.trim());
+		else if (name.equals("error-app-tag"))
+			errorAppTag = value;
+		else if (name.equals("error-path"))
+			errorPath = value;
+		else if (name.equals("error-message"))
+			errorMessage = new Message(value, (lang == null || lang
+					.length() == 0) ? "en" : lang);
+	}
+
+	@Override
+	public ErrorType getErrorType() {
+		return errorType;
+	}
+
+	@Override
+	public ErrorTag getErrorTag() {
+		return errorTag;
+	}
+
+	@Override
+	public ErrorSeverity getErrorSeverity() {
+		return errorSeverity;
+	}
+
+	@Override
+	public String getErrorAppTag() {
+		return errorAppTag;
+	}
+
+	@Override
+	public String getErrorPath() {
+		return errorPath;
+	}
+
+	@Override
+	public RpcReplyErrorMessage getErrorMessage() {
+		return errorMessage;
+	}
+
+	@Override
+	public RpcReplyErrorInfo getErrorInfo() {
+		return errorInfo;
+	}
+
+	/**
+	 * The &lt;error-message&gt; of an &lt;rpc-error&gt;.
+	 */
+	static final class Message implements RpcReplyErrorMessage
+	{
+		private final String message;
+		private final String language;
+
+		Message(String message, String language)
+		{
+			this.message = message;
+			this.language = language;
+		}
+
+		@Override
+		public String getLanguage() {
+			return language;
+		}
+
+		@Override
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	/**
+	 * The &lt;error-info&gt; of an &lt;rpc-error&gt;.
+	 */
+	static final class Info implements RpcReplyErrorInfo
+	{
+		private final HashMap<String, String> protocol = new HashMap<String, String>(4);
+		private final List<Element> specific = new ArrayList<Element>(1);
+
+		/**
+		 * Add a child element of the base namespace.
+		 */
+		void addProtocolErrorInfo(String name, String value) {
+			if (!protocol.containsKey(name))
+				protocol.put(name, value);
+		}
+
+		/**
+		 * Add a child element of a data model.
+		 */
+		void addDataModelSpecificErrorInfo(Element e) {
+			specific.add(e);
+		}
+
+		@Override
+		public boolean hasProtocolErrorInfo(ErrorElement errorElement) {
+			return getProtocolErrorInfo(errorElement) != null;
+		}
+
+		@Override
+		public String getProtocolErrorInfo(ErrorElement errorElement) {
+			return protocol.get(errorElement.toString());
+		}
+
+		@Override
+		public boolean hasDataModelSpecificErrorInfo(String namespaceURI,
+				String nodeName) {
+			return getDataModelSpecificErrorInfo(namespaceURI, nodeName) != null;
+		}
+
+		@Override
+		public Element getDataModelSpecificErrorInfo(String namespaceURI,
+				String nodeName) {
+			for (Element e : specific)
+			{
+				if (nodeName.equals(e.getLocalName())
+						&& namespaceURI.equals(e.getNamespaceURI()))
+					return e;
+			}
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,331 @@
+package com.vhosting.netconf.messages;
+
+import java.text.ParseException;
+import java.util.Date;
+
+/**
+ * This class parses and formats the date-time strings of the RFC 3339,
+ * used by Netconf for eventTime, startTime and stopTime.
+ * 
+ * <pre>
+ * date-time    = full-date "T" full-time
+ * full-date    = YYYY "-" MM "-" DD
+ * full-time    = hh ":" mm ":" ss [ "." 1*DIGIT ] time-offset
+ * time-offset  = "Z" / ( "+" / "-" ) hh ":" mm
+ * </pre>
+ * 
+ * The strings are examined in place, from a String or from a portion
+ * of a byte array, without regular expressions, calendars or formats:
+ * only the result is allocated. The fraction of second is kept to the
+ * millisecond and the digits beyond are ignored; a leap second is
+ * counted as the first second of the next minute.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public final class Rfc3339
+{
+
+	/**
+	 * The maximum length of a formatted date-time:
+	 * YYYY-MM-DDThh:mm:ss.sss+hh:mm
+	 */
+	public static final int MAX_LENGTH = 29;
+
+	private static final long MILLIS_PER_DAY = 86400000L;
+
+	private Rfc3339()
+	{}
+
+	/**
+	 * Parse a date-time.
+	 * 
+	 * @param s
+	 *            The date-time string.
+	 * @return The number of milliseconds since January 1, 1970, 00:00:00
+	 *         UTC.
+	 * @throws ParseException
+	 *             Throw this exception if the string is not a date-time.
+	 */
+	public static long parse(CharSequence s) throws ParseException {
+		return parse(s, null, 0, s.length());
+	}
+
+	/**
+	 * Parse a date-time from a portion of a string.
+	 * 
+	 * @param s
+	 *            The string.
+	 * @param from
+	 *            The index of the first character.
+	 * @param to
+	 *            The index after the last character.
+	 * @return The number of milliseconds since January 1, 1970, 00:00:00
+	 *         UTC.
+	 * @throws ParseException
+	 *             Throw this exception if the portion is not a date-time.
+	 */
+	public static long parse(CharSequence s, int from, int to)
+			throws ParseException {
+		return parse(s, null, from, to);
+	}
+
+	/**
+	 * Parse a date-time from a portion of a byte array
+	 * encoded in UTF-8 or in any encoding compatible with ASCII.
+	 * 
+	 * @param b
+	 *            The byte array.
+	 * @param from
+	 *            The index of the first byte.
+	 * @param to
+	 *            The index after the last byte.
+	 * @return The number of milliseconds since January 1, 1970, 00:00:00
+	 *         UTC.
+	 * @throws ParseException
+	 *             Throw this exception if the portion is not a date-time.
+	 */
+	public static long parse(byte[] b, int from, int to) throws ParseException {
+		return parse(null, b, from, to);
+	}
+
+	/**
+	 * Parse a date-time into a Date.
+	 * 
+	 * @param s
+	 *            The date-time string.
+	 * @return The date.
+	 * @throws ParseException
+	 *             Throw this exception if the string is not a date-time.
+	 */
+	public static Date parseDate(CharSequence s) throws ParseException {
+		return new Date(parse(s, null, 0, s.length()));
+	}
+
+	private static long parse(CharSequence s, byte[] b, int from, int to)
+			throws ParseException {
+		if (to - from < 20)
+			throw new ParseException("Not a date-time.", from);
+
+		int year = number(s, b, from, 4);
+		int month = number(s, b, from + 5, 2);
+		int day = number(s, b, from + 8, 2);
+		int hour = number(s, b, from + 11, 2);
+		int minute = number(s, b, from + 14, 2);
+		int second = number(s, b, from + 17, 2);
+		int t = at(s, b, from + 10);
+		if (year < 0 || at(s, b, from + 4) != '-' || at(s, b, from + 7) != '-'
+				|| (t != 'T' && t != 't') || at(s, b, from + 13) != ':'
+				|| at(s, b, from + 16) != ':')
+			throw new ParseException("Not a date-time.", from);
+		if (month < 1 || month > 12 || day < 1
+				|| day > daysOfMonth(year, month) || hour < 0 || hour > 23
+				|| minute < 0 || minute > 59 || second < 0 || second > 60)
+			throw new ParseException("Date-time out of range.", from);
+
+		int p = from + 19;
+		int millis = 0;
+		if (at(s, b, p) == '.')
+		{
+			int start = ++p;
+			int c;
+			while (p < to && (c = at(s, b, p)) >= '0' && c <= '9')
+			{
+				if (p - start < 3)
+					millis = millis * 10 + c - '0';
+				p++;
+			}
+			if (p == start)
+				throw new ParseException("Missing fraction of second.", p);
+			for (int n = p - start; n < 3; n++)
+				millis *= 10;
+		}
+
+		if (p == to)
+			throw new ParseException("Missing time offset.", p);
+		int offset;
+		int c = at(s, b, p);
+		if (c == 'Z' || c == 'z')
+		{
+			offset = 0;
+			p++;
+		}
+		else if ((c == '+' || c == '-') && to - p >= 6)
+		{
+			int oh = number(s, b, p + 1, 2);
+			int om = number(s, b, p + 4, 2);
+			if (oh < 0 || oh > 23 || om < 0 || om > 59
+					|| at(s, b, p + 3) != ':')
+				throw new ParseException("Invalid time offset.", p);
+			offset = oh * 60 + om;
+			if (c == '-')
+				offset = -offset;
+			p += 6;
+		}
+		else
+			throw new ParseException("Invalid time offset.", p);
+		if (p != to)
+			throw new ParseException("Unexpected characters.", p);
+
+		long seconds = daysFromCivil(year, month, day) * 86400L + hour * 3600
+				+ minute * 60 + second - offset * 60;
+		return seconds * 1000 + millis;
+	}
+
+	/**
+	 * Format a date-time in UTC.
+	 * The fraction of second is written only if it is not zero.
+	 * 
+	 * @param millis
+	 *            The number of milliseconds since January 1, 1970,
+	 *            00:00:00 UTC.
+	 * @return The date-time string.
+	 */
+	public static String format(long millis) {
+		return format(millis, 0);
+	}
+
+	/**
+	 * Format a date-time with a time offset.
+	 * The fraction of second is written only if it is not zero.
+	 * 
+	 * @param millis
+	 *            The number of milliseconds since January 1, 1970,
+	 *            00:00:00 UTC.
+	 * @param offsetMinutes
+	 *            The offset from UTC of the local time, in minutes.
+	 * @return The date-time string.
+	 */
+	public static String format(long millis, int offsetMinutes) {
+		char[] buf = new char[MAX_LENGTH];
+		return new String(buf, 0, format(millis, offsetMinutes, buf, 0));
+	}
+
+	/**
+	 * Format a date-time with a time offset into a char array.
+	 * The fraction of second is written only if it is not zero.
+	 * 
+	 * @param millis
+	 *            The number of milliseconds since January 1, 1970,
+	 *            00:00:00 UTC.
+	 * @param offsetMinutes
+	 *            The offset from UTC of the local time, in minutes.
+	 * @param buf
+	 *            The array, with room for MAX_LENGTH characters.
+	 * @param off
+	 *            The index of the first character to write.
+	 * @return The index after the last character written.
+	 * @throws IllegalArgumentException
+	 *             If the year is not in the range 0000-9999 or if the
+	 *             offset is not in the range -23:59 to +23:59.
+	 */
+	public static int format(long millis, int offsetMinutes, char[] buf,
+			int off) {
+		if (offsetMinutes <= -1440 || offsetMinutes >= 1440)
+			throw new IllegalArgumentException("Invalid time offset: "
+					+ offsetMinutes);
+		long local = millis + offsetMinutes * 60000L;
+		long days = local / MILLIS_PER_DAY;
+		int time = (int) (local - days * MILLIS_PER_DAY);
+		if (time < 0)
+		{
+			days--;
+			time += MILLIS_PER_DAY;
+		}
+
+		// From the days since 1970-01-01 to year, month and day.
+		long z = days + 719468;
+		long era = (z >= 0 ? z : z - 146096) / 146097;
+		int doe = (int) (z - era * 146097);
+		int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		int mp = (5 * doy + 2) / 153;
+		int day = doy - (153 * mp + 2) / 5 + 1;
+		int month = mp < 10 ? mp + 3 : mp - 9;
+		long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+		if (year < 0 || year > 9999)
+			throw new IllegalArgumentException("Year out of range: " + year);
+
+		int p = off;
+		p = put(buf, p, (int) year / 100);
+		p = put(buf, p, (int) year % 100);
+		buf[p++] = '-';
+		p = put(buf, p, month);
+		buf[p++] = '-';
+		p = put(buf, p, day);
+		buf[p++] = 'T';
+		p = put(buf, p, time / 3600000);
+		buf[p++] = ':';
+		p = put(buf, p, time / 60000 % 60);
+		buf[p++] = ':';
+		p = put(buf, p, time / 1000 % 60);
+		int ms = time % 1000;
+		if (ms != 0)
+		{
+			buf[p++] = '.';
+			buf[p++] = (char) ('0' + ms / 100);
+			p = put(buf, p, ms % 100);
+		}
+		if (offsetMinutes == 0)
+			buf[p++] = 'Z';
+		else
+		{
+			int o = offsetMinutes;
+			buf[p++] = o < 0 ? '-' : '+';
+			if (o < 0)
+				o = -o;
+			p = put(buf, p, o / 60);
+			buf[p++] = ':';
+			p = put(buf, p, o % 60);
+		}
+		return p;
+	}
+
+	/*
+	 * The days since 1970-01-01 of a date of the
+	 * proleptic Gregorian calendar.
+	 */
+	private static long daysFromCivil(int year, int month, int day) {
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yoe = y - era * 400;
+		int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day
+				- 1;
+		int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * 146097L + doe - 719468;
+	}
+
+	private static int daysOfMonth(int year, int month) {
+		if (month == 2)
+			return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29
+					: 28;
+		return (month == 4 || month == 6 || month == 9 || month == 11) ? 30
+				: 31;
+	}
+
+	/*
+	 * The value of n decimal digits; -1 if they are not all digits.
+	 */
+	private static int number(CharSequence s, byte[] b, int p, int n) {
+		int v = 0;
+		for (int i = p; i < p + n; i++)
+		{
+			int c = at(s, b, i);
+			if (c < '0' || c > '9')
+				return -1;
+			v = v * 10 + c - '0';
+		}
+		return v;
+	}
+
+	private static int at(CharSequence s, byte[] b, int i) {
+		return b != null ? b[i] & 0xff : s.charAt(i);
+	}
+
+	private static int put(char[] buf, int p, int v) {
+		buf[p] = (char) ('0' + v / 10);
+		buf[p + 1] = (char) ('0' + v % 10);
+		return p + 2;
+	}
+
+}
@@ -0,0 +1,408 @@
+package com.vhosting.netconf.messages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.ContentHandler;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * This class decodes a RPC reply in a single forward pass, without
+ * building the DOM: the message-id, the &lt;ok/&gt; element and the
+ * &lt;rpc-error&gt; elements are extracted from the SAX events.
+ * 
+ * The decoding stops at the first child of &lt;rpc-reply&gt; that
+ * carries data: the reply is then read from the DOM, built only if
+ * someone needs it.
+ * If a data handler is registered for the message-id, the data are
+ * instead reported to it while they are parsed and the decoding
+ * continues: nothing of the data is retained.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+final class RpcReplyDecoder extends DefaultHandler
+{
+
+	private static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
+
+	/*
+	 * Thrown to stop the parsing; it is never seen outside,
+	 * so a single instance without a meaningful stack is enough.
+	 */
+	private static final SAXException STOP = new SAXException(
+			"Decoding stopped.");
+
+	private static final String base = RpcReplyMsg.base_1_0_xmlns;
+
+	// The results.
+	boolean isReply;
+	boolean hasData;
+	boolean ok;
+	String messageId;
+	final List<ReplyError> errors = new ArrayList<ReplyError>(1);
+
+	private int depth;
+	private ReplyError error;
+	private String errorChild;
+	private String lang;
+	private ReplyError.Info info;
+	private String infoChild;
+	private int collectDepth;
+	private final StringBuilder text = new StringBuilder();
+
+	// The data-model-specific element of <error-info> being built.
+	private Document doc;
+	private Node node;
+
+	// The streaming of the data.
+	private final RpcReplyMsg.DataHandlerResolver resolver;
+	private ContentHandler data;
+	private boolean dataStarted;
+	private int dataDepth;
+	private boolean dataClosing;
+	private final ArrayList<String> mappings = new ArrayList<String>(4);
+	private final ArrayList<String> rootMappings = new ArrayList<String>(4);
+	Exception dataFailure;
+
+	/**
+	 * Create the decoder.
+	 * 
+	 * @param resolver
+	 *            The resolver of the data handlers; null if the data are
+	 *            never streamed.
+	 */
+	RpcReplyDecoder(RpcReplyMsg.DataHandlerResolver resolver)
+	{
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Test if the data have been reported to a data handler.
+	 */
+	boolean isStreamed() {
+		return dataStarted;
+	}
+
+	/**
+	 * Test if the parsing was stopped by the decoder.
+	 */
+	static boolean isStop(SAXException e) {
+		return e == STOP;
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName,
+			Attributes atts) throws SAXException {
+		depth++;
+		dataClosing = false;
+
+		if (dataDepth > 0)
+		{
+			startData(uri, localName, qName, atts);
+			return;
+		}
+
+		try
+		{
+			decode(uri, localName, qName, atts);
+		}
+		finally
+		{
+			// The mappings of an element not streamed.
+			mappings.clear();
+		}
+	}
+
+	private void decode(String uri, String localName, String qName,
+			Attributes atts) throws SAXException {
+		if (node != null)
+		{
+			node = node.appendChild(createElement(uri, qName, atts));
+			return;
+		}
+		if (collectDepth > 0)
+			return;
+
+		switch (depth)
+		{
+		case 1:
+			if (!base.equals(uri) || !"rpc-reply".equals(localName))
+				throw STOP;
+			isReply = true;
+			messageId = atts.getValue("", "message-id");
+			if (messageId != null && messageId.length() == 0)
+				messageId = null;
+			if (resolver != null && messageId != null)
+			{
+				try
+				{
+					data = resolver.getDataHandler(Integer.valueOf(messageId));
+				}
+				catch (NumberFormatException e)
+				{
+					// Not a message-id of this client.
+				}
+			}
+			// The data use also the namespaces declared by the root.
+			if (data != null)
+				rootMappings.addAll(mappings);
+			break;
+		case 2:
+			if (base.equals(uri) && "rpc-error".equals(localName))
+				error = new ReplyError();
+			else if (base.equals(uri) && "ok".equals(localName))
+				ok = true;
+			else if (data != null || dataStarted)
+			{
+				dataDepth = depth;
+				if (!dataStarted)
+				{
+					dataStarted = true;
+					try
+					{
+						data.startDocument();
+						for (int i = 0; i < rootMappings.size(); i += 2)
+							data.startPrefixMapping(rootMappings.get(i),
+									rootMappings.get(i + 1));
+					}
+					catch (Exception e)
+					{
+						failData(e);
+					}
+				}
+				startData(uri, localName, qName, atts);
+			}
+			else
+			{
+				hasData = true;
+				throw STOP;
+			}
+			break;
+		case 3:
+			if (error == null || !base.equals(uri))
+				break;
+			if ("error-info".equals(localName))
+			{
+				info = new ReplyError.Info();
+				error.errorInfo = info;
+			}
+			else
+			{
+				errorChild = localName;
+				lang = atts.getValue(XML_NS, "lang");
+				collect();
+			}
+			break;
+		case 4:
+			if (info == null)
+				break;
+			if (base.equals(uri))
+			{
+				infoChild = localName;
+				collect();
+			}
+			else
+			{
+				if (doc == null)
+					doc = DOMUtils.newDocument();
+				node = createElement(uri, qName, atts);
+			}
+			break;
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName)
+			throws SAXException {
+		dataClosing = false;
+		if (dataDepth > 0)
+		{
+			if (data != null)
+			{
+				try
+				{
+					data.endElement(uri, localName, qName);
+				}
+				catch (Exception e)
+				{
+					failData(e);
+				}
+			}
+			if (depth == dataDepth)
+			{
+				dataDepth = 0;
+				dataClosing = true;
+			}
+		}
+		else if (depth == 1 && dataStarted && data != null)
+		{
+			try
+			{
+				for (int i = 0; i < rootMappings.size(); i += 2)
+					data.endPrefixMapping(rootMappings.get(i));
+				data.endDocument();
+			}
+			catch (Exception e)
+			{
+				failData(e);
+			}
+		}
+		else if (node != null)
+		{
+			if (depth == 4)
+			{
+				info.addDataModelSpecificErrorInfo((Element) node);
+				node = null;
+			}
+			else
+				node = node.getParentNode();
+		}
+		else if (depth == collectDepth)
+		{
+			collectDepth = 0;
+			if (depth == 3)
+				error.set(errorChild, text.toString(), lang);
+			else
+				info.addProtocolErrorInfo(infoChild, text.toString());
+		}
+		else if (depth == 3 && info != null)
+			info = null;
+		else if (depth == 2 && error != null)
+		{
+			errors.add(error);
+			error = null;
+		}
+		depth--;
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) {
+		if (dataDepth > 0)
+		{
+			if (data != null)
+			{
+				try
+				{
+					data.characters(ch, start, length);
+				}
+				catch (Exception e)
+				{
+					failData(e);
+				}
+			}
+		}
+		else if (node != null)
+			node.appendChild(doc.createTextNode(new String(ch, start, length)));
+		else if (collectDepth > 0)
+			text.append(ch, start, length);
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) {
+		if (dataDepth > 0 && data != null)
+		{
+			try
+			{
+				data.ignorableWhitespace(ch, start, length);
+			}
+			catch (Exception e)
+			{
+				failData(e);
+			}
+		}
+	}
+
+	@Override
+	public void processingInstruction(String target, String value) {
+		if (dataDepth > 0 && data != null)
+		{
+			try
+			{
+				data.processingInstruction(target, value);
+			}
+			catch (Exception e)
+			{
+				failData(e);
+			}
+		}
+	}
+
+	/*
+	 * The prefix mappings precede the element that declares them:
+	 * they are kept until it is known if the element is streamed.
+	 * The mappings of the root are reported to the data handler
+	 * after the start of the document.
+	 */
+	@Override
+	public void startPrefixMapping(String prefix, String uri) {
+		mappings.add(prefix);
+		mappings.add(uri);
+	}
+
+	@Override
+	public void endPrefixMapping(String prefix) {
+		if ((dataDepth > 0 || dataClosing) && data != null)
+		{
+			try
+			{
+				data.endPrefixMapping(prefix);
+			}
+			catch (Exception e)
+			{
+				failData(e);
+			}
+		}
+	}
+
+	private void startData(String uri, String localName, String qName,
+			Attributes atts) {
+		if (data != null)
+		{
+			try
+			{
+				for (int i = 0; i < mappings.size(); i += 2)
+					data.startPrefixMapping(mappings.get(i), mappings
+							.get(i + 1));
+				data.startElement(uri, localName, qName, atts);
+			}
+			catch (Exception e)
+			{
+				failData(e);
+			}
+		}
+		mappings.clear();
+	}
+
+	/*
+	 * A failure of the data handler does not stop the decoding
+	 * of the reply: the rest of the data is skipped.
+	 */
+	private void failData(Exception e) {
+		dataFailure = e;
+		data = null;
+	}
+
+	private void collect() {
+		collectDepth = depth;
+		text.setLength(0);
+	}
+
+	private Element createElement(String uri, String qName, Attributes atts) {
+		Element e = doc.createElementNS(uri.length() == 0 ? null : uri, qName);
+		for (int i = 0; i < atts.getLength(); i++)
+		{
+			String u = atts.getURI(i);
+			e.setAttributeNS(u.length() == 0 ? null : u, atts.getQName(i), atts
+					.getValue(i));
+		}
+		return e;
+	}
+
+}
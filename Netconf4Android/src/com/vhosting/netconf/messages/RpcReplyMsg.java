@@ -3,38 +3,67 @@ package com.vhosting.netconf.messages;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
 import com.vhosting.netconf.frame.Rpc;
 import com.vhosting.netconf.frame.RpcReply;
 import com.vhosting.netconf.frame.RpcReplyError;
-import com.vhosting.netconf.frame.RpcReplyError.ErrorSeverity;
-import com.vhosting.netconf.frame.RpcReplyError.ErrorTag;
-import com.vhosting.netconf.frame.RpcReplyError.ErrorType;
-import com.vhosting.netconf.frame.RpcReplyErrorInfo;
-import com.vhosting.netconf.frame.RpcReplyErrorMessage;
+import com.vhosting.netconf.transport.NetconfCatcher;
 
 /**
  * This class represents the RPC Reply message in the Netconf protocol.
  * 
+ * A reply received as bytes is decoded in a single forward pass
+ * that extracts the message-id and the &lt;rpc-error&gt; elements; the
+ * DOM of the reply is built only when it is needed, that is when
+ * the reply carries data and these are loaded.
+ * 
  * @author Giuseppe Palmeri
- * @version 1.01, 02/11/2010
+ * @version 1.02, 18/10/2026
  */
 public class RpcReplyMsg implements Msg, RpcReply
 {
 
 	public static final String base_1_0_xmlns = "urn:ietf:params:xml:ns:netconf:base:1.0";
 
+	private static final RpcReplyError[] NO_ERRORS = new RpcReplyError[0];
+
 	private String messageId;
-	private boolean isErr;
 	private RpcReplyError[] errors;
+
+	// The errors that precede the data, when the decoding stopped.
+	private RpcReplyError[] decodedErrors;
+
+	private Exception dataHandlerException;
+
+	/**
+	 * This interface provides the handler that receives the data
+	 * of a RPC reply while it is parsed.
+	 * 
+	 * @author Giuseppe Palmeri
+	 */
+	public static interface DataHandlerResolver
+	{
+		/**
+		 * Get the data handler for a RPC reply.
+		 * 
+		 * @param messageId
+		 *            The message-id of the RPC reply.
+		 * @return The handler that receives the data or null if the data
+		 *         must be retained by the reply.
+		 */
+		public ContentHandler getDataHandler(Integer messageId);
+	}
 	private Document doc;
-	private URL xsd = getClass().getResource("base1_0.xsd");
+	private byte[] message;
+	private static final URL xsd = RpcReplyMsg.class
+			.getResource("base1_0.xsd");
 
 	/**
 	 * Build the server side rpc-reply message.
@@ -47,6 +76,18 @@ public class RpcReplyMsg implements Msg, RpcReply
 		this.doc = doc;
 	}
 
+	/**
+	 * Build the server side rpc-reply message whose
+	 * document is parsed when needed.
+	 * 
+	 * @param message
+	 *            The message, owned by this object.
+	 */
+	private RpcReplyMsg(byte[] message)
+	{
+		this.message = message;
+	}
+
 	/**
 	 * Create the server side Rpc Reply message from a byte array as source.
 	 * 
@@ -62,292 +103,229 @@ public class RpcReplyMsg implements Msg, RpcReply
 	 */
 	public static final RpcReplyMsg createServerRpcReply(byte[] message)
 			throws SAXException, IOException {
-		Document doc = DOMUtils.newDocument(new ByteArrayInputStream(message));
+		return createServerRpcReply(message, 0, message.length);
+	}
 
-		boolean is = doc.getElementsByTagNameNS(base_1_0_xmlns, "rpc-reply")
-				.getLength() > 0;
-		if (!is)
+	/**
+	 * Create the server side Rpc Reply message from a portion of a byte array
+	 * as source.
+	 * 
+	 * The bytes are copied: the array can be reused once this method
+	 * returns.
+	 * 
+	 * @param message
+	 *            The byte array.
+	 * @param offset
+	 *            The offset of the message into the array.
+	 * @param length
+	 *            The length of the message.
+	 * @return The RPC Reply message or null if the message is not a valid RPC
+	 *         Reply
+	 *         message.
+	 * @throws SAXException
+	 *             Throw this exception if there are parsing troubles.
+	 * @throws IOException
+	 *             Throw this exception if there are reading troubles.
+	 */
+	public static final RpcReplyMsg createServerRpcReply(byte[] message,
+			int offset, int length) throws SAXException, IOException {
+		return createServerRpcReply(message, offset, length, null);
+	}
+
+	/**
+	 * Create the server side Rpc Reply message from a portion of a byte array
+	 * as source, reporting the data to a handler if the resolver provides
+	 * one for the message-id.
+	 * 
+	 * The SAX events of the children of &lt;rpc-reply&gt; other than
+	 * &lt;ok&gt; and &lt;rpc-error&gt;, usually the only &lt;data&gt;
+	 * element, are reported to the handler between a startDocument() and
+	 * an endDocument(); the reply does not retain the data and nothing
+	 * can be loaded from it.
+	 * 
+	 * @param message
+	 *            The byte array.
+	 * @param offset
+	 *            The offset of the message into the array.
+	 * @param length
+	 *            The length of the message.
+	 * @param resolver
+	 *            The resolver of the data handlers; null if the data are
+	 *            retained by the reply.
+	 * @return The RPC Reply message or null if the message is not a valid RPC
+	 *         Reply
+	 *         message.
+	 * @throws SAXException
+	 *             Throw this exception if there are parsing troubles.
+	 * @throws IOException
+	 *             Throw this exception if there are reading troubles.
+	 * @see #getDataHandlerException()
+	 */
+	public static final RpcReplyMsg createServerRpcReply(byte[] message,
+			int offset, int length, DataHandlerResolver resolver)
+			throws SAXException, IOException {
+		RpcReplyDecoder d = new RpcReplyDecoder(resolver);
+		try
+		{
+			DOMUtils.parse(new ByteArrayInputStream(message, offset, length),
+					d);
+		}
+		catch (SAXException e)
+		{
+			if (!RpcReplyDecoder.isStop(e))
+				throw e;
+		}
+		if (!d.isReply)
+			return null;
+
+		// The data reported to a handler are not retained.
+		byte[] b = null;
+		if (!d.isStreamed())
+		{
+			b = new byte[length];
+			System.arraycopy(message, offset, b, 0, length);
+		}
+		RpcReplyMsg h = new RpcReplyMsg(b);
+		h.messageId = d.messageId;
+		h.dataHandlerException = d.dataFailure;
+
+		/*
+		 * The schema validation is not available: the structure
+		 * of the reply has been checked by the decoder.
+		 * When the decoding stopped at the data, the errors are
+		 * read from the document.
+		 */
+		RpcReplyError[] errors = d.errors.isEmpty() ? NO_ERRORS : d.errors
+				.toArray(new RpcReplyError[d.errors.size()]);
+		if (d.hasData)
+			h.decodedErrors = errors;
+		else
+			h.errors = errors;
+		return h;
+	}
+
+	/**
+	 * Create the server side Rpc Reply message from a document already
+	 * parsed.
+	 * 
+	 * @param doc
+	 *            The document.
+	 * @return The RPC Reply message or null if the document is not a valid RPC
+	 *         Reply message.
+	 */
+	public static final RpcReplyMsg createServerRpcReply(Document doc) {
+		Element rpcReply = doc.getDocumentElement();
+		if (rpcReply == null
+				|| !base_1_0_xmlns.equals(rpcReply.getNamespaceURI())
+				|| !"rpc-reply".equals(rpcReply.getLocalName()))
 			return null;
 		RpcReplyMsg h = new RpcReplyMsg(doc);
 		if (!h.validate())
 			return null;
 
-		Element rpcReply = (Element) doc.getElementsByTagNameNS(base_1_0_xmlns,
-				"rpc-reply").item(0);
-
 		//h.messageId = rpcReply.getAttributeNS(base_1_0_xmlns, "message-id");
 		h.messageId = rpcReply.getAttribute("message-id");
 		
 		if (h.messageId.equals(""))
 			h.messageId = null;
 
-		final NodeList rpcErrors = doc.getDocumentElement()
-				.getElementsByTagNameNS(base_1_0_xmlns, "rpc-error");
-		int errLen = rpcErrors.getLength();
-		h.isErr = errLen > 0;
-		h.errors = new RpcReplyError[errLen];
+		h.readErrors();
+		return h;
+	}
+
+	/*
+	 * Read the <rpc-error> elements from the document.
+	 */
+	private void readErrors() {
+		final List<Element> rpcErrors = DOMUtils.getChildElements(doc
+				.getDocumentElement(), base_1_0_xmlns, "rpc-error");
+		int errLen = rpcErrors.size();
+		RpcReplyError[] errors = new RpcReplyError[errLen];
 
 		for (int i = 0; i < errLen; i++)
 		{
-			NodeList errTags = rpcErrors.item(i).getChildNodes();
-			int errTagsLen = errTags.getLength();
-
-			ErrorType errorType = null;
-			ErrorTag errorTag = null;
-			ErrorSeverity errorSeverity = null;
-			String errorAppTag = null;
-			String errorPath = null;
-			String errorMessage = null;
-			String errorMessageLang = "en";
-
-			RpcReplyErrorInfo errorInfo = null;
-
-			for (int y = 0; y < errTagsLen; y++)
+			ReplyError error = new ReplyError();
+			for (Node n = rpcErrors.get(i).getFirstChild(); n != null; n = n
+					.getNextSibling())
 			{
-				Node n = errTags.item(y);
 				if (!(n instanceof Element))
 					continue;
-				if (!n.getNamespaceURI().equalsIgnoreCase(base_1_0_xmlns))
+				if (!base_1_0_xmlns.equals(n.getNamespaceURI()))
 					continue;
 
 				Element errTag = (Element) n;
 				String name = errTag.getLocalName();
-				String value = errTag.getTextContent();
-
-				if (name.equalsIgnoreCase("error-type"))
-				{
-					if (RpcReplyError.ErrorType.rpc.toString().equals(value))
-						errorType = RpcReplyError.ErrorType.rpc;
-					else if (RpcReplyError.ErrorType.application.toString()
-							.equals(value))
-						errorType = RpcReplyError.ErrorType.application;
-					else if (RpcReplyError.ErrorType.protocol.toString()
-							.equals(value))
-						errorType = RpcReplyError.ErrorType.protocol;
-					else if (RpcReplyError.ErrorType.transport.toString()
-							.equals(value))
-						errorType = RpcReplyError.ErrorType.transport;
-				}
-				else if (name.equalsIgnoreCase("error-tag"))
-				{
 
-					
-					if (RpcReplyError.ErrorTag.access_denied.toString().equals(
-							value))
-						errorTag = RpcReplyError.ErrorTag.access_denied;
-					else if (RpcReplyError.ErrorTag.bad_attribute.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.bad_attribute;
-					else if (RpcReplyError.ErrorTag.bad_element.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.bad_element;
-					else if (RpcReplyError.ErrorTag.data_exists.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.data_exists;
-					else if (RpcReplyError.ErrorTag.data_missing.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.data_missing;
-					else if (RpcReplyError.ErrorTag.in_use.toString().equals(
-							value))
-						errorTag = RpcReplyError.ErrorTag.in_use;
-					else if (RpcReplyError.ErrorTag.invalid_value.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.invalid_value;
-					else if (RpcReplyError.ErrorTag.lock_denied.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.lock_denied;
-					else if (RpcReplyError.ErrorTag.missing_attribute
-							.toString().equals(value))
-						errorTag = RpcReplyError.ErrorTag.missing_attribute;
-					else if (RpcReplyError.ErrorTag.missing_element.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.missing_element;
-					else if (RpcReplyError.ErrorTag.operation_failed.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.operation_failed;
-					else if (RpcReplyError.ErrorTag.operation_not_supported
-							.toString().equals(value))
-						errorTag = RpcReplyError.ErrorTag.operation_not_supported;
-					else if (RpcReplyError.ErrorTag.partial_operation
-							.toString().equals(value))
-						errorTag = RpcReplyError.ErrorTag.partial_operation;
-					else if (RpcReplyError.ErrorTag.resource_denied.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.resource_denied;
-					else if (RpcReplyError.ErrorTag.rollback_failed.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.rollback_failed;
-					else if (RpcReplyError.ErrorTag.too_big.toString().equals(
-							value))
-						errorTag = RpcReplyError.ErrorTag.too_big;
-					else if (RpcReplyError.ErrorTag.unknown_attribute
-							.toString().equals(value))
-						errorTag = RpcReplyError.ErrorTag.unknown_attribute;
-					else if (RpcReplyError.ErrorTag.unknown_element.toString()
-							.equals(value))
-						errorTag = RpcReplyError.ErrorTag.unknown_element;
-					else if (RpcReplyError.ErrorTag.unknown_namespace
-							.toString().equals(value))
-						errorTag = RpcReplyError.ErrorTag.unknown_namespace;
-				}
-				else if (name.equalsIgnoreCase("error-severity"))
-				{
-					if (RpcReplyError.ErrorSeverity.error.toString().equals(
-							value))
-						errorSeverity = RpcReplyError.ErrorSeverity.error;
-					else if (RpcReplyError.ErrorSeverity.warning.toString()
-							.equals(value))
-						errorSeverity = RpcReplyError.ErrorSeverity.warning;
-				}
-				else if (name.equalsIgnoreCase("error-app-tag"))
-				{
-					errorAppTag = value;
-				}
-				else if (name.equalsIgnoreCase("error-path"))
+				if (name.equals("error-info"))
 				{
-					errorPath = value;
+					ReplyError.Info info = new ReplyError.Info();
+					for (Node c = errTag.getFirstChild(); c != null; c = c
+							.getNextSibling())
+					{
+						if (!(c instanceof Element))
+							continue;
+						if (base_1_0_xmlns.equals(c.getNamespaceURI()))
+							info.addProtocolErrorInfo(c.getLocalName(), c
+									.getTextContent());
+						else
+							info.addDataModelSpecificErrorInfo((Element) c);
+					}
+					error.errorInfo = info;
 				}
-				else if (name.equalsIgnoreCase("error-message"))
+				else
 				{
-					errorMessage = value;
-
 					// Verifica l'esistenza di xml:lang e se esiste
 					// imposta il valore della lingua.
-					Element e = (Element) errTag;
-					String lang = e.getAttributeNS(
-							"http://www.w3.org/XML/1998/namespace", "lang");
-					if (lang.length() > 0)
-						errorMessageLang = lang;
-				}
-				else if (name.equalsIgnoreCase("error-info"))
-				{
-					if (errTag.hasChildNodes())
-					{
-						final NodeList errorInfoElements = errTag
-								.getChildNodes();
-						final int len = errorInfoElements.getLength();
-
-						errorInfo = new RpcReplyErrorInfo()
-						{
-
-							public boolean hasProtocolErrorInfo(
-									ErrorElement errorElement) {
-								return getProtocolErrorInfo(errorElement) == null;
-							}
-
-							public String getProtocolErrorInfo(
-									ErrorElement errorElement) {
-								for (int i = 0; i < len; i++)
-								{
-									Node n = errorInfoElements.item(i);
-									if (!(n instanceof Element))
-										continue;
-									if (!n.getNamespaceURI().equalsIgnoreCase(
-											base_1_0_xmlns))
-										continue;
-									String name = n.getLocalName();
-									String value = n.getTextContent();
-									
-									if (errorElement.equals(name))
-										return value;
-								}
-								return null;
-							}
-
-							public boolean hasDataModelSpecificErrorInfo(
-									String namespaceURI, String nodeName) {
-								return getDataModelSpecificErrorInfo(
-										namespaceURI, nodeName) == null;
-							}
-
-							public Element getDataModelSpecificErrorInfo(
-									String namespaceURI, String nodeName) {
-								for (int i = 0; i < len; i++)
-								{
-									Node n = errorInfoElements.item(i);
-									String name = n.getNodeName();
-
-									if (nodeName.equals(name)
-											&& n.getNamespaceURI().equals(
-													namespaceURI))
-									{
-										return (Element) n;
-									}
-								}
-								return null;
-							}
-						};
-					}
+					error.set(name, errTag.getTextContent(), errTag
+							.getAttributeNS(
+									"http://www.w3.org/XML/1998/namespace",
+									"lang"));
 				}
-
 			}
-			final ErrorType retErrorType = errorType;
-			final ErrorTag retErrorTag = errorTag;
-			final ErrorSeverity retErrorSeveriy = errorSeverity;
-			final String retErrorPath = errorPath;
-			final String retErrorAppTag = errorAppTag;
-
-			final String rtnErrorMessageLang = errorMessageLang;
-			final String rtnErrorMessageTxt = errorMessage;
-			final RpcReplyErrorMessage retErrorMessage = (errorMessage == null) ? null
-					: new RpcReplyErrorMessage()
-					{
-
-						@Override
-						public String getLanguage() {
-							return rtnErrorMessageLang;
-						}
-
-						@Override
-						public String getMessage() {
-							return rtnErrorMessageTxt;
-						}
-
-					};
-
-			final RpcReplyErrorInfo retErrorInfo = errorInfo;
+			errors[i] = error;
+		}
+		this.errors = errors;
+	}
 
-			h.errors[i] = new RpcReplyError()
+	/*
+	 * Get the document, parsing the message if not yet done.
+	 * The decoder stops at the data, so a malformed data content
+	 * is found only here: in this case the error is written to the
+	 * log and null is returned.
+	 */
+	private synchronized Document getDocument() {
+		if (doc == null && message != null)
+		{
+			try
 			{
+				doc = DOMUtils.newDocument(new ByteArrayInputStream(message));
+			}
+			catch (Exception e)
+			{
+				if (NetconfCatcher.getLogLevel() != NetconfCatcher.LogLevel.NONE)
+					NetconfCatcher.getLogStream().println(
+							"Invalid RPC reply message; message-id: "
+									+ messageId + "; " + e.getMessage());
+			}
+			message = null;
+		}
+		return doc;
+	}
 
-				@Override
-				public ErrorType getErrorType() {
-					return retErrorType;
-				}
-
-				@Override
-				public ErrorTag getErrorTag() {
-					return retErrorTag;
-				}
-
-				@Override
-				public ErrorSeverity getErrorSeverity() {
-					return retErrorSeveriy;
-				}
-
-				@Override
-				public String getErrorAppTag() {
-					return retErrorAppTag;
-				}
-
-				@Override
-				public String getErrorPath() {
-					return retErrorPath;
-				}
-
-				@Override
-				public RpcReplyErrorMessage getErrorMessage() {
-					return retErrorMessage;
-				}
-
-				@Override
-				public RpcReplyErrorInfo getErrorInfo() {
-					return retErrorInfo;
-				}
-
-			};
+	/*
+	 * Read the errors from the document if the decoder
+	 * has not read them.
+	 */
+	private synchronized RpcReplyError[] errors() {
+		if (errors == null)
+		{
+			if (getDocument() != null)
+				readErrors();
+			else
+				errors = decodedErrors;
+			decodedErrors = null;
 		}
-		return h;
+		return errors;
 	}
 
 	/**
@@ -361,23 +339,39 @@ public class RpcReplyMsg implements Msg, RpcReply
 		return Integer.parseInt(messageId);
 	}
 
+	/**
+	 * Get the exception thrown by the data handler.
+	 * When the handler throws an exception, the rest of the data
+	 * is not reported to it.
+	 * 
+	 * @return The exception or null if the handler did not fail or the
+	 *         data were not reported to a handler.
+	 */
+	public Exception getDataHandlerException() {
+		return dataHandlerException;
+	}
+
 	@Override
 	public boolean containsErrors() {
-		return isErr;
+		return errors().length > 0;
 	}
 
 	@Override
 	public RpcReplyError[] getErrors() {
-		return errors;
+		return errors();
 	}
 
 	@Override
 	public boolean load(Rpc rpc) {
+		Document doc = getDocument();
+		if (doc == null)
+			return false;
 		return rpc.readFromRpcReplyMessage(doc);
 	}
 
 	@Override
 	public boolean validate() {
-		return DOMUtils.validate(doc, xsd);
+		Document doc = getDocument();
+		return doc != null && DOMUtils.validate(doc, xsd);
 	}
 }
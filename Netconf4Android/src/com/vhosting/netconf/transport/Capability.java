@@ -10,8 +10,11 @@ import java.util.Hashtable;
  * this class can be instantiated and used the
  * instance to create new operations.
  * 
+ * The presence of the capability on the server is kept by the session,
+ * indexed by the ordinal assigned to the capability at its registration.
+ * 
  * @author Giuseppe Palmeri
- * @version 1.00, 02/11/2010
+ * @version 1.01, 18/10/2026
  * 
  */
 public class Capability
@@ -21,10 +24,15 @@ public class Capability
 	String namespaceURI;
 	protected String prefix;
 
-	private Hashtable<Integer, CapabilityParams> params = new Hashtable<Integer, CapabilityParams>();
+	// The position of the capability in the register of the sessions.
+	int ordinal = -1;
+
+	// The next registered capability with the same base Uri.
+	Capability sameBaseURI;
 
-	private String stripBaseURI(String uri) {
-		return uri.replaceAll("[?].*?$", "");
+	static String stripBaseURI(String uri) {
+		int q = uri.indexOf('?');
+		return (q < 0) ? uri : uri.substring(0, q);
 	}
 
 	@Override
@@ -75,7 +83,7 @@ public class Capability
 	public boolean isPresentOnServer(Session session) {
 		if (!session.isActive())
 			throw new RuntimeException("The server connection is not present.");
-		return getServerCapabilityParams(session) != null;
+		return session.isCapabilityPresent(ordinal);
 	}
 
 	/**
@@ -90,8 +98,7 @@ public class Capability
 	public CapabilityParams getServerCapabilityParams(Session session) {
 		if (!session.isActive())
 			throw new RuntimeException("The server connection is not present.");
-		CapabilityParams srvParams = params.get(session.getSessionId());
-		return srvParams;
+		return session.getCapabilityParams(ordinal);
 	}
 
 	/**
@@ -119,8 +126,8 @@ public class Capability
 		String baseURI = stripBaseURI(capabilityURI);
 		if (baseURI.equals(this.capabilityBaseURI))
 		{
-			CapabilityParams srvParams = new CapabilityParams(capabilityURI);
-			params.put(session.getSessionId(), srvParams);
+			session.setCapabilityPresence(this, new CapabilityParams(
+					capabilityURI));
 			return true;
 		}
 		return false;
@@ -137,7 +144,7 @@ public class Capability
 	public void unsetServerCapabilityPresence(Session session) {
 		if (!session.isActive())
 			throw new RuntimeException("The server connection is not present.");
-		params.remove(session.getSessionId());
+		session.setCapabilityPresence(this, null);
 	}
 
 	/**
@@ -188,26 +195,17 @@ public class Capability
 
 		CapabilityParams(String capabilityURI)
 		{
-			if (capabilityURI.matches("^urn:ietf:params:netconf:capability:"))
-			{
+			if (capabilityURI.startsWith("urn:ietf:params:netconf:"))
 				isNetconfCapability = true;
-				return;
-			}
 			loadParameters(params, capabilityURI);
 			revision = params.get("revision");
 			module = params.get("module");
 			String features = params.get("features");
 			if (features != null)
-				this.features = features.split(",");
-			if (this.features != null)
-				for (int i = 0; i < this.features.length; i++)
-					this.features[i] = this.features[i].trim();
+				this.features = splitList(features);
 			String deviations = params.get("deviations");
 			if (deviations != null)
-				this.deviations = deviations.split(",");
-			if (this.deviations != null)
-				for (int i = 0; i < this.deviations.length; i++)
-					this.deviations[i] = this.deviations[i].trim();
+				this.deviations = splitList(deviations);
 			if (module != null)
 				isYANGCapability = true;
 		}
@@ -292,43 +290,108 @@ public class Capability
 			return !isNetconfCapability;
 		}
 
-		private void loadParameters(Hashtable<String, String> params,
-				String capabilityURI) {
-			params.clear();
-			String q = null;
-			String uri = capabilityURI;
+	}
 
-			if (uri.matches("^.*?[?].*?$"))
-			{
-				q = uri.replaceAll("^.*?[?]", "");
-			}
+	/*
+	 * Load the parameters of the query of a capability Uri.
+	 * The parameters without a value are ignored.
+	 */
+	static void loadParameters(Hashtable<String, String> params,
+			String capabilityURI) {
+		params.clear();
+		int q = capabilityURI.indexOf('?');
+		if (q < 0)
+			return;
+
+		int len = capabilityURI.length();
+		int from = q + 1;
+		while (from < len)
+		{
+			int to = capabilityURI.indexOf('&', from);
+			if (to < 0)
+				to = len;
+			int eq = capabilityURI.indexOf('=', from);
+			if (eq >= 0 && eq + 1 < to)
+				params.put(decode(capabilityURI, from, eq),
+						decode(capabilityURI, eq + 1, to));
+			from = to + 1;
+		}
+	}
 
-			if (q != null)
+	/*
+	 * Decode a part of the query as does the URLDecoder with
+	 * the UTF-8 encoding; the malformed escapes are kept as they are.
+	 */
+	static String decode(String s, int from, int to) {
+		int i = from;
+		while (i < to && s.charAt(i) != '%' && s.charAt(i) != '+')
+			i++;
+		if (i == to)
+			return s.substring(from, to);
+
+		StringBuilder sb = new StringBuilder(to - from);
+		sb.append(s, from, i);
+		byte[] bytes = null;
+		while (i < to)
+		{
+			char c = s.charAt(i);
+			if (c == '%')
 			{
-				String[] nv = q.split("&");
-				int i = 0;
-				for (String a : nv)
+				if (bytes == null)
+					bytes = new byte[(to - i) / 3];
+				int n = 0;
+				while (i + 2 < to && s.charAt(i) == '%')
 				{
-
-					try
-					{
-						String[] nnvv = a.split("=");
-						String name = nnvv[0];
-						String value = (nnvv.length > 1) ? nnvv[1] : null;
-						name = java.net.URLDecoder.decode(name, "UTF-8");
-						if (value != null)
-							value = java.net.URLDecoder.decode(value, "UTF-8");
-						if (value != null)
-							params.put(name, value);
-
-					}
-					catch (UnsupportedEncodingException e)
-					{
-
-					}
+					int h = Character.digit(s.charAt(i + 1), 16);
+					int l = Character.digit(s.charAt(i + 2), 16);
+					if (h < 0 || l < 0)
+						break;
+					bytes[n++] = (byte) (h << 4 | l);
+					i += 3;
+				}
+				if (n == 0)
+				{
+					sb.append(c);
 					i++;
+					continue;
+				}
+				try
+				{
+					sb.append(new String(bytes, 0, n, "UTF-8"));
+				}
+				catch (UnsupportedEncodingException e)
+				{
+					// UTF-8 is always supported.
 				}
 			}
+			else
+			{
+				sb.append((c == '+') ? ' ' : c);
+				i++;
+			}
+		}
+		return sb.toString();
+	}
+
+	/*
+	 * Split a comma separated list of a parameter;
+	 * the items are trimmed.
+	 */
+	static String[] splitList(String list) {
+		int n = 1;
+		for (int i = 0; i < list.length(); i++)
+			if (list.charAt(i) == ',')
+				n++;
+		String[] items = new String[n];
+		int from = 0;
+		for (int k = 0; k < n; k++)
+		{
+			int to = list.indexOf(',', from);
+			if (to < 0)
+				to = list.length();
+			items[k] = list.substring(from, to).trim();
+			from = to + 1;
 		}
+		return items;
 	}
 }
@@ -0,0 +1,240 @@
+package com.vhosting.netconf.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * This class reads and writes the Netconf messages using the
+ * chunked framing of the base:1.1 capability.
+ * See the RFC 6242.
+ * 
+ * <pre>
+ * Chunked-Message = 1*chunk end-of-chunks
+ * 
+ * chunk           = LF HASH chunk-size LF chunk-data
+ * end-of-chunks   = LF HASH HASH LF
+ * </pre>
+ * 
+ * Only the chunk headers are examined: the chunk data are never scanned.
+ * The chunks of a message are reassembled into the buffer of the framer,
+ * moving each chunk over the header that precedes it; a message made of
+ * a single chunk is returned without any copy.
+ * 
+ * A message is written as a single chunk; an empty message can not
+ * be written, since a message has at least one chunk.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public final class ChunkedFramer extends MessageFramer
+{
+
+	private static final byte[] END_OF_CHUNKS = { '\n', '#', '#', '\n' };
+
+	/*
+	 * The maximum chunk-size admitted by the RFC is 4294967295;
+	 * this implementation is limited by the size of a Java array.
+	 */
+	private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE - 64;
+
+	// The header of the chunk written by writeMessage().
+	private final byte[] header = new byte[16];
+
+	// The reassembled data of the message being read.
+	private int msgStart = -1;
+	private int msgEnd;
+
+	/**
+	 * Create the framer.
+	 * 
+	 * @param in
+	 *            The input stream from the server; null if the
+	 *            framer is fed with readFrom().
+	 */
+	public ChunkedFramer(InputStream in)
+	{
+		super(in);
+	}
+
+	/**
+	 * Create the framer that continues the reading
+	 * from where another framer has stopped.
+	 * This is used to switch the framing once the Hello
+	 * messages have been exchanged.
+	 * 
+	 * @param previous
+	 *            The framer used until now.
+	 */
+	public ChunkedFramer(MessageFramer previous)
+	{
+		super(previous);
+	}
+
+	@Override
+	boolean nextMessage() throws IOException {
+		final byte[] buf = this.buf;
+		int p = scan;
+
+		if (msgStart < 0)
+		{
+			/*
+			 * Some servers terminate the Hello message with a line feed
+			 * after the ']]>]]>' sequence: the white spaces between
+			 * two messages are ignored.
+			 */
+			while (p < end && isWhitespace(buf[p]))
+			{
+				if (buf[p] == '\n' && (p + 1 == end || buf[p + 1] == '#'))
+					break;
+				p++;
+			}
+			start = p;
+			scan = p;
+		}
+
+		while (true)
+		{
+			if (end - p < 4)
+			{
+				required = p - start + 4;
+				return false;
+			}
+
+			if (buf[p] != '\n' || buf[p + 1] != '#')
+				throw new IOException("Invalid chunk header.");
+
+			if (buf[p + 2] == '#')
+			{
+				if (buf[p + 3] != '\n')
+					throw new IOException("Invalid end of chunks.");
+				if (msgStart < 0)
+					throw new IOException("Message without chunks.");
+
+				slice.set(buf, msgStart, msgEnd - msgStart);
+				msgStart = -1;
+				start = p + END_OF_CHUNKS.length;
+				scan = start;
+				return true;
+			}
+
+			long size = 0;
+			int q = p + 2;
+			while (true)
+			{
+				if (q == end)
+				{
+					required = q - start + 1;
+					return false;
+				}
+				int c = buf[q];
+				if (c == '\n')
+					break;
+				if (c < '0' || c > '9' || (c == '0' && q == p + 2))
+					throw new IOException("Invalid chunk size.");
+				size = size * 10 + (c - '0');
+				if (size > MAX_CHUNK_SIZE)
+					throw new IOException("Chunk too big: " + size);
+				q++;
+			}
+			if (q == p + 2)
+				throw new IOException("Invalid chunk size.");
+
+			int data = q + 1;
+			int len = (int) size;
+			if (end - data < len)
+			{
+				required = data - start + len;
+				return false;
+			}
+
+			if (msgStart < 0)
+			{
+				msgStart = data;
+				msgEnd = data + len;
+			}
+			else
+			{
+				System.arraycopy(buf, data, buf, msgEnd, len);
+				msgEnd += len;
+			}
+
+			p = data + len;
+			scan = p;
+		}
+	}
+
+	@Override
+	void moved(int delta) {
+		super.moved(delta);
+		if (msgStart >= 0)
+		{
+			msgStart -= delta;
+			msgEnd -= delta;
+		}
+	}
+
+	/**
+	 * Write a message as a single chunk.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             Throw this exception if the message is empty.
+	 */
+	@Override
+	public void writeMessage(OutputStream out, byte[] b, int off, int len)
+			throws IOException {
+		if (len <= 0)
+			throw new IllegalArgumentException("Empty message.");
+		synchronized (header)
+		{
+			int n = headerLength(len);
+			encodeHeader(header, 0, n, len);
+			out.write(header, 0, n);
+		}
+		out.write(b, off, len);
+		out.write(END_OF_CHUNKS);
+		out.flush();
+	}
+
+	@Override
+	int frame(MessageWriter w) {
+		int len = w.getLength();
+		if (len == 0)
+			throw new IllegalArgumentException("Empty message.");
+		w.write(END_OF_CHUNKS, 0, END_OF_CHUNKS.length);
+
+		int n = headerLength(len);
+		int off = MessageWriter.HEADROOM - n;
+		encodeHeader(w.buf, off, n, len);
+		return off;
+	}
+
+	/*
+	 * Get the length of the header of a chunk: LF HASH chunk-size LF.
+	 */
+	private static int headerLength(int size) {
+		int n = 4;
+		while (size >= 10)
+		{
+			size /= 10;
+			n++;
+		}
+		return n;
+	}
+
+	/*
+	 * Encode the header of a chunk into an array, writing the
+	 * digits of the size from the last one.
+	 */
+	private static void encodeHeader(byte[] b, int off, int n, int size) {
+		b[off] = '\n';
+		b[off + 1] = '#';
+		b[off + n - 1] = '\n';
+		for (int i = off + n - 2; i > off + 1; i--)
+		{
+			b[i] = (byte) ('0' + size % 10);
+			size /= 10;
+		}
+	}
+
+}
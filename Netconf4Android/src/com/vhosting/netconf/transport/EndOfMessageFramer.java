@@ -0,0 +1,111 @@
+package com.vhosting.netconf.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * This class reads the Netconf messages delimited by the
+ * end of message sequence ']]&gt;]]&gt;' from an input stream.
+ * See the RFC 4742.
+ * 
+ * The input stream is read in bulk into a growable buffer and
+ * the delimiter is searched with the Boyer-Moore-Horspool algorithm,
+ * so that most of the bytes of a message are never compared.
+ * 
+ * The messages are returned as slices of the internal buffer:
+ * no copy and no character decoding is made.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public final class EndOfMessageFramer extends MessageFramer
+{
+
+	private static final byte[] DELIMITER = { ']', ']', '>', ']', ']', '>' };
+
+	private static final byte[] END_MESSAGE = { ']', ']', '>', ']', ']', '>',
+			'\n' };
+
+	/*
+	 * Skip table: how far the search window can be moved
+	 * when its last byte is the indexed byte.
+	 */
+	private static final int[] SKIP = new int[256];
+
+	static
+	{
+		int last = DELIMITER.length - 1;
+		Arrays.fill(SKIP, DELIMITER.length);
+		for (int i = 0; i < last; i++)
+			SKIP[DELIMITER[i] & 0xff] = last - i;
+	}
+
+	/**
+	 * Create the framer.
+	 * 
+	 * @param in
+	 *            The input stream from the server; null if the
+	 *            framer is fed with readFrom().
+	 */
+	public EndOfMessageFramer(InputStream in)
+	{
+		super(in);
+	}
+
+	@Override
+	boolean nextMessage() {
+		int i = indexOfDelimiter();
+		if (i < 0)
+			return false;
+
+		/*
+		 * The message is returned without the white
+		 * spaces that can precede it.
+		 */
+		int from = start;
+		while (from < i && isWhitespace(buf[from]))
+			from++;
+
+		start = i + DELIMITER.length;
+		scan = start;
+
+		slice.set(buf, from, i - from);
+		return true;
+	}
+
+	@Override
+	public void writeMessage(OutputStream out, byte[] b, int off, int len)
+			throws IOException {
+		out.write(b, off, len);
+		out.write(END_MESSAGE);
+		out.flush();
+	}
+
+	@Override
+	int frame(MessageWriter w) {
+		w.write(END_MESSAGE, 0, END_MESSAGE.length);
+		return MessageWriter.HEADROOM;
+	}
+
+	private int indexOfDelimiter() {
+		final int last = DELIMITER.length - 1;
+		final byte[] buf = this.buf;
+		int i = scan;
+		while (i + last < end)
+		{
+			int j = last;
+			while (buf[i + j] == DELIMITER[j])
+			{
+				if (j == 0)
+					return i;
+				j--;
+			}
+			i += SKIP[buf[i + last] & 0xff];
+		}
+		scan = i;
+		return -1;
+	}
+
+}
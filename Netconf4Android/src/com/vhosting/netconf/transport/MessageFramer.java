@@ -0,0 +1,267 @@
+package com.vhosting.netconf.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * This class is the base of the framing codecs that delimit
+ * the Netconf messages on a stream oriented transport.
+ * 
+ * <pre>
+ * The codecs available are:
+ * 
+ * 1. EndOfMessageFramer: the ']]&gt;]]&gt;' framing of base:1.0 (RFC 4742);
+ * 2. ChunkedFramer: the chunked framing of base:1.1 (RFC 6242).
+ * </pre>
+ * 
+ * A framer reads the input stream in bulk into a growable buffer
+ * that is reused for all the messages of the session; the messages
+ * are returned as slices of this buffer.
+ * 
+ * A framer can also be fed by a non-blocking channel: in this case
+ * it is created without an input stream, the bytes are read with
+ * readFrom() when the channel is readable and the complete messages
+ * are taken with pollMessage().
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public abstract class MessageFramer
+{
+
+	private static final int INITIAL_CAPACITY = 16 * 1024;
+
+	/*
+	 * A buffer bigger than this is released when it
+	 * is empty, so that a single huge reply does not
+	 * hold memory for the whole session.
+	 */
+	private static final int RETAINED_CAPACITY = 1024 * 1024;
+
+	private final InputStream in;
+
+	final MessageSlice slice = new MessageSlice();
+
+	byte[] buf;
+
+	// The first byte not yet consumed.
+	int start;
+
+	// The end of the bytes read.
+	int end;
+
+	// The next position to examine.
+	int scan;
+
+	// The bytes, counted from start, needed to make progress.
+	int required;
+
+	MessageFramer(InputStream in)
+	{
+		this.in = in;
+		this.buf = new byte[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Take over the stream and the bytes not yet consumed
+	 * by another framer; used when the framing changes
+	 * after the exchange of the Hello messages.
+	 */
+	MessageFramer(MessageFramer previous)
+	{
+		synchronized (previous)
+		{
+			this.in = previous.in;
+			this.buf = previous.buf;
+			this.start = previous.start;
+			this.end = previous.end;
+			this.scan = previous.start;
+		}
+	}
+
+	/**
+	 * Read the next message from the input stream.
+	 * 
+	 * <b>The slice returned is only valid until the next
+	 * invocation of this method.</b>
+	 * 
+	 * @return The message or null if the end of the stream is reached.
+	 * @throws IOException
+	 *             Throw this exception if there are reading troubles or
+	 *             the framing is violated.
+	 */
+	public final synchronized MessageSlice readMessage() throws IOException {
+		while (true)
+		{
+			MessageSlice s = pollMessage();
+			if (s != null)
+				return s;
+
+			if (!fill())
+				return null;
+		}
+	}
+
+	/**
+	 * Take the next message from the bytes already read,
+	 * without reading the input.
+	 * 
+	 * <b>The slice returned is only valid until the next
+	 * invocation of this method or readMessage().</b>
+	 * 
+	 * @return The message or null if a complete message is not available.
+	 * @throws IOException
+	 *             Throw this exception if the framing is violated.
+	 */
+	public final synchronized MessageSlice pollMessage() throws IOException {
+		if (start == end)
+			reset();
+
+		required = 0;
+		if (nextMessage())
+			return slice;
+		return null;
+	}
+
+	/**
+	 * Read the bytes available on a channel.
+	 * The channel is read once; the complete messages can then
+	 * be taken with pollMessage().
+	 * 
+	 * @param ch
+	 *            The channel to read.
+	 * @return The number of bytes read, possibly zero, or -1 if
+	 *         the end of the stream is reached.
+	 * @throws IOException
+	 *             Throw this exception if there are reading troubles.
+	 */
+	public final synchronized int readFrom(ReadableByteChannel ch)
+			throws IOException {
+		ensureSpace();
+		int n = ch.read(ByteBuffer.wrap(buf, end, buf.length - end));
+		if (n > 0)
+			end += n;
+		return n;
+	}
+
+	/**
+	 * Write a message on the output stream adding the framing.
+	 * 
+	 * @param out
+	 *            The output stream to the server.
+	 * @param b
+	 *            The byte array containing the message.
+	 * @param off
+	 *            The offset of the message into the array.
+	 * @param len
+	 *            The length of the message.
+	 * @throws IOException
+	 *             Throw this exception if there are writing troubles.
+	 */
+	public abstract void writeMessage(OutputStream out, byte[] b, int off,
+			int len) throws IOException;
+
+	/**
+	 * Write the message serialized into a message writer on the output
+	 * stream adding the framing.
+	 * The framing is added into the buffer of the writer, so that
+	 * the whole frame is sent with a single write.
+	 * 
+	 * @param out
+	 *            The output stream to the server.
+	 * @param w
+	 *            The message writer containing the message.
+	 * @throws IOException
+	 *             Throw this exception if there are writing troubles.
+	 */
+	public final void writeMessage(OutputStream out, MessageWriter w)
+			throws IOException {
+		int off = frame(w);
+		out.write(w.buf, off, w.count - off);
+		out.flush();
+	}
+
+	/**
+	 * Add the framing around the message of a message writer:
+	 * the bytes that precede the message are written into the
+	 * reserved space, those that follow it are appended.
+	 * 
+	 * @return The offset of the first byte of the frame.
+	 */
+	abstract int frame(MessageWriter w);
+
+	/**
+	 * Search the next complete message between start and end.
+	 * When found, the message is assigned to the slice and the
+	 * consumed bytes are excluded moving start.
+	 * 
+	 * @return true if a message is available; false otherwise.
+	 */
+	abstract boolean nextMessage() throws IOException;
+
+	/**
+	 * Invoked when the unconsumed bytes are moved back by delta
+	 * positions into the buffer.
+	 */
+	void moved(int delta) {
+		scan -= delta;
+	}
+
+	private boolean fill() throws IOException {
+		ensureSpace();
+		int n = in.read(buf, end, buf.length - end);
+		if (n < 0)
+			return false;
+		end += n;
+		return true;
+	}
+
+	/*
+	 * Make room for at least one byte and for the bytes
+	 * required by the last invocation of nextMessage().
+	 */
+	private void ensureSpace() throws IOException {
+		int pending = end - start;
+		int need = Math.max(required, pending + 1);
+
+		if (end == buf.length || buf.length - start < need)
+		{
+			int capacity = buf.length;
+			while (capacity < need)
+			{
+				if (capacity > Integer.MAX_VALUE / 2)
+					throw new IOException("Message too big.");
+				capacity *= 2;
+			}
+
+			if (capacity != buf.length)
+			{
+				byte[] b = new byte[capacity];
+				System.arraycopy(buf, start, b, 0, pending);
+				buf = b;
+			}
+			else
+				System.arraycopy(buf, start, buf, 0, pending);
+
+			moved(start);
+			start = 0;
+			end = pending;
+		}
+	}
+
+	private void reset() {
+		if (buf.length > RETAINED_CAPACITY)
+			buf = new byte[INITIAL_CAPACITY];
+		moved(start);
+		start = 0;
+		end = 0;
+	}
+
+	static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.vhosting.netconf.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * This class represents a Netconf message as a portion of a byte array.
+ * 
+ * A message slice is used to hand a message read from the server to
+ * the protocol layer without copying it.
+ * The slice returned by a transport is only valid until the next
+ * message is read from the same transport.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public final class MessageSlice
+{
+
+	private byte[] array;
+	private int offset;
+	private int length;
+
+	/**
+	 * Create a message slice over a portion of a byte array.
+	 * 
+	 * @param array
+	 *            The byte array.
+	 * @param offset
+	 *            The offset of the first byte of the message.
+	 * @param length
+	 *            The length of the message.
+	 */
+	public MessageSlice(byte[] array, int offset, int length)
+	{
+		set(array, offset, length);
+	}
+
+	MessageSlice()
+	{}
+
+	void set(byte[] array, int offset, int length) {
+		this.array = array;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Get the byte array that contains the message.
+	 * 
+	 * @return The byte array.
+	 */
+	public byte[] getArray() {
+		return array;
+	}
+
+	/**
+	 * Get the offset of the first byte of the message.
+	 * 
+	 * @return The offset.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Get the length of the message.
+	 * 
+	 * @return The length.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Copy the message into a new byte array.
+	 * 
+	 * @return The byte array.
+	 */
+	public byte[] toByteArray() {
+		byte[] b = new byte[length];
+		System.arraycopy(array, offset, b, 0, length);
+		return b;
+	}
+
+	/**
+	 * Create an input stream that reads the message.
+	 * 
+	 * @return The input stream.
+	 */
+	public InputStream newInputStream() {
+		return new ByteArrayInputStream(array, offset, length);
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.vhosting.netconf.transport;
+
+import java.io.OutputStream;
+
+/**
+ * This class is the buffer where the outgoing Netconf messages are
+ * serialized before being sent to the server.
+ * 
+ * A message writer is owned by a connection and it is reused for all the
+ * messages sent; some bytes are reserved before the message so that the
+ * framer can add the framing around the message into the same buffer,
+ * and the whole frame is sent with a single write.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public final class MessageWriter extends OutputStream
+{
+
+	/*
+	 * The bytes reserved for the framing that precedes the
+	 * message; enough for the biggest chunk header.
+	 */
+	static final int HEADROOM = 16;
+
+	private static final int INITIAL_CAPACITY = 8 * 1024;
+
+	// A buffer bigger than this is released by reset().
+	private static final int RETAINED_CAPACITY = 1024 * 1024;
+
+	byte[] buf = new byte[INITIAL_CAPACITY];
+	int count = HEADROOM;
+
+	/**
+	 * Discard the message written so far.
+	 */
+	public void reset() {
+		if (buf.length > RETAINED_CAPACITY)
+			buf = new byte[INITIAL_CAPACITY];
+		count = HEADROOM;
+	}
+
+	@Override
+	public void write(int b) {
+		ensureCapacity(count + 1);
+		buf[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || off + len > b.length)
+			throw new IndexOutOfBoundsException();
+		ensureCapacity(count + len);
+		System.arraycopy(b, off, buf, count, len);
+		count += len;
+	}
+
+	/**
+	 * Get the byte array that contains the message.
+	 * 
+	 * @return The byte array.
+	 */
+	public byte[] getArray() {
+		return buf;
+	}
+
+	/**
+	 * Get the offset of the first byte of the message.
+	 * 
+	 * @return The offset.
+	 */
+	public int getOffset() {
+		return HEADROOM;
+	}
+
+	/**
+	 * Get the length of the message written so far.
+	 * 
+	 * @return The length.
+	 */
+	public int getLength() {
+		return count - HEADROOM;
+	}
+
+	void ensureCapacity(int capacity) {
+		if (capacity > buf.length)
+		{
+			if (capacity < 0)
+				throw new OutOfMemoryError("Message too big.");
+			byte[] b = new byte[Math.max(capacity, buf.length * 2)];
+			System.arraycopy(buf, 0, b, 0, count);
+			buf = b;
+		}
+	}
+
+}
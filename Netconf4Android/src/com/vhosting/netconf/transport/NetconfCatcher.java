@@ -2,20 +2,29 @@ package com.vhosting.netconf.transport;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Set;
 import java.util.Vector;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.xml.namespace.QName;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
 
 import com.vhosting.netconf.messages.HelloMsg;
+import com.vhosting.netconf.messages.MessageSniffer;
 import com.vhosting.netconf.messages.NotificationMsg;
 import com.vhosting.netconf.messages.RpcReplyMsg;
 import com.vhosting.netconf.notification.NotificationsListener;
+import com.vhosting.netconf.frame.Identity;
 import com.vhosting.netconf.frame.Rpc;
+import com.vhosting.netconf.frame.RpcCallback;
+import com.vhosting.netconf.frame.RpcFuture;
 import com.vhosting.netconf.frame.RpcHandler;
 import com.vhosting.netconf.frame.RpcReply;
 import com.vhosting.netconf.frame.RpcReplyListener;
@@ -46,12 +55,14 @@ import com.vhosting.netconf.transport.NetconfTransportEvent.EventType;
 public abstract class NetconfCatcher
 {
 
-	private static Integer wiredMessageId = 0;
-	private HashMap<Integer, RpcReplySpecificListener> listeners = new HashMap<Integer, RpcReplySpecificListener>();
+	private final Object sendLock = new Object();
+	private final ReplyCorrelator correlator = new ReplyCorrelator();
 
 	private Session session = new Session();
 	private RpcHandler handler;
 	private String label;
+	private volatile MessageFramer framer;
+	private final MessageWriter writer = new MessageWriter();
 
 	
 
@@ -96,7 +107,33 @@ public abstract class NetconfCatcher
 	 *             the message sent can not exercise.
 	 */
 	protected final void sendHelloMsg() throws IOException {
-		HelloMsg hello = new HelloMsg(Session.getRegisteredCapabilities());
+		Capability[] caps = Session.getRegisteredCapabilities();
+		if (framer == null)
+		{
+			/*
+			 * Without a framer the transport can not
+			 * switch to the chunked framing.
+			 */
+			Vector<Capability> v = new Vector<Capability>();
+			for (Capability c : caps)
+				if (c != Session.BASE_1_1)
+					v.add(c);
+			caps = v.toArray(new Capability[v.size()]);
+		}
+		HelloMsg hello = new HelloMsg(caps);
+
+		OutputStream out = doGetOutputStreamToServer();
+		if (out != null && framer != null)
+		{
+			synchronized (writer)
+			{
+				writer.reset();
+				hello.dump(writer);
+				sendMessage(out);
+			}
+			return;
+		}
+
 		ByteArrayOutputStream b;
 		hello.dump(b = new ByteArrayOutputStream());
 		b.flush();
@@ -106,6 +143,18 @@ public abstract class NetconfCatcher
 		writeLog(array, true);
 	}
 
+	/*
+	 * Send the message serialized into the writer.
+	 * The caller must hold the lock of the writer.
+	 */
+	private void sendMessage(OutputStream out) throws IOException {
+		// The log is written before the framing is added.
+		int offset = writer.getOffset();
+		int length = writer.getLength();
+		framer.writeMessage(out, writer);
+		writeLog(writer.getArray(), offset, length, true);
+	}
+
 	/**
 	 * The first package is expected to arrive from
 	 * the server is a Hello message.
@@ -122,16 +171,29 @@ public abstract class NetconfCatcher
 	 *             the message sent can not exercise.
 	 */
 	private final boolean checkServerHelloMsg() throws IOException {
+		return checkServerHelloMsg(_doReadDataFromServer());
+	}
+
+	private final boolean checkServerHelloMsg(MessageSlice in)
+			throws IOException {
 		try
 		{
 			boolean b = false;
-			HelloMsg hello = HelloMsg
-					.createServerHello(_doReadDataFromServer());
+			HelloMsg hello = HelloMsg.createServerHello(in.getArray(),
+					in.getOffset(), in.getLength());
 			if (hello == null)
 				b = false;
 
 			session.activeSession(hello.getCapabilitiesURI(),
-					HelloMsg.getSessionId());
+					hello.getServerSessionId());
+
+			/*
+			 * The Hello messages are always delimited by ']]>]]>'.
+			 * When both the peers support base:1.1 the following
+			 * messages use the chunked framing (RFC 6242).
+			 */
+			if (framer != null && Session.BASE_1_1.isPresentOnServer(session))
+				framer = new ChunkedFramer(framer);
 
 			b = true;
 
@@ -220,6 +282,11 @@ public abstract class NetconfCatcher
 	}
 
 	private void writeLog(byte[] array, boolean isOutgoing) {
+		writeLog(array, 0, array.length, isOutgoing);
+	}
+
+	private void writeLog(byte[] array, int offset, int length,
+			boolean isOutgoing) {
 		if (getLogLevel() == LogLevel.MESSAGES)
 		{
 			Integer s = session.getSessionId();
@@ -233,7 +300,7 @@ public abstract class NetconfCatcher
 			String msg;
 			try
 			{
-				msg = new String(array, "UTF-8");
+				msg = new String(array, offset, length, "UTF-8");
 				msg = "        " + msg.replaceAll("\n", "\n        ");
 			}
 			catch (UnsupportedEncodingException e)
@@ -247,6 +314,34 @@ public abstract class NetconfCatcher
 
 	}
 
+	/**
+	 * Set the framer used to delimit the messages on the transport.
+	 * 
+	 * A transport that uses the framing codecs of this library should
+	 * set an EndOfMessageFramer before sending the Hello message and
+	 * should use getMessageFramer() to read and write the messages.
+	 * When a framer is set, the base:1.1 capability is announced
+	 * and, if it is supported by the server, the framer is replaced
+	 * with a ChunkedFramer after the exchange of the Hello messages.
+	 * 
+	 * @param framer
+	 *            The framer of a new connection.
+	 * @see #getMessageFramer()
+	 */
+	protected final void setMessageFramer(MessageFramer framer) {
+		this.framer = framer;
+	}
+
+	/**
+	 * Get the framer to use to read and write the messages.
+	 * 
+	 * @return The framer; null if it was never set.
+	 * @see #setMessageFramer(MessageFramer)
+	 */
+	protected final MessageFramer getMessageFramer() {
+		return framer;
+	}
+
 	/**
 	 * Check if the connection is alive or not.
 	 * @return true if the connection is alive; false otherwise.
@@ -310,6 +405,7 @@ public abstract class NetconfCatcher
 			}
 		}
 		closedByUser = false;
+		cancelPendingReplies();
 	}
 
 	/**
@@ -322,6 +418,8 @@ public abstract class NetconfCatcher
 	 * In particular, for the ssh protocol this method should be implemented
 	 * by adding the string ']]>]]>' after the message.
 	 * See the RFC 4742.
+	 * Transports that set a MessageFramer should write the message
+	 * through it, so that the negotiated framing is applied.
 	 * 
 	 * Similarly, this method be overridden if necessary for other types
 	 * of transport protocols.
@@ -333,6 +431,27 @@ public abstract class NetconfCatcher
 	 */
 	protected abstract void doSendDataToServer(byte[] bytes) throws IOException;
 
+	/**
+	 * This method is invoked before sending a message in order to get
+	 * the output stream to the server.
+	 * 
+	 * When a transport returns an output stream and has set a
+	 * MessageFramer, the messages are serialized into a buffer owned
+	 * by the connection and reused for all the messages; the framer
+	 * adds the framing into the same buffer and the message is sent
+	 * with a single write, without invoking doSendDataToServer().
+	 * 
+	 * The default implementation returns null, so that every message
+	 * is copied into a new byte array and passed to doSendDataToServer().
+	 * 
+	 * @return The output stream to the server or null.
+	 * @see #setMessageFramer(MessageFramer)
+	 * @see #doSendDataToServer(byte[])
+	 */
+	protected OutputStream doGetOutputStreamToServer() {
+		return null;
+	}
+
 	/**
 	 * This method must necessarily be implemented when required
 	 * to read the next message from the server.
@@ -350,9 +469,32 @@ public abstract class NetconfCatcher
 	 */
 	protected abstract byte[] doReadDataFromServer() throws IOException;
 
-	private synchronized byte[] _doReadDataFromServer() throws IOException {
+	/**
+	 * This method is invoked when required to read the next
+	 * message from the server.
+	 * 
+	 * The default implementation wraps the array returned by
+	 * doReadDataFromServer(); a transport that keeps the messages
+	 * into its own buffer can override this method in order to
+	 * return the message without copying it.
+	 * 
+	 * <b>The slice returned must be valid until the next invocation
+	 * of this method.</b>
+	 * 
+	 * @return The message read and made available.
+	 * @throws IOException
+	 *             Throw this exception when the server connection was lost.
+	 * @see #doReadDataFromServer()
+	 */
+	protected MessageSlice doReadMessageFromServer() throws IOException {
 		byte[] in = doReadDataFromServer();
-		writeLog(in, false);
+		return new MessageSlice(in, 0, in.length);
+	}
+
+	private synchronized MessageSlice _doReadDataFromServer()
+			throws IOException {
+		MessageSlice in = doReadMessageFromServer();
+		writeLog(in.getArray(), in.getOffset(), in.getLength(), false);
 		return in;
 	}
 
@@ -368,6 +510,7 @@ public abstract class NetconfCatcher
 
 		doDisconnect();
 		session.inactiveSession();
+		cancelPendingReplies();
 	}
 
 	/**
@@ -383,15 +526,43 @@ public abstract class NetconfCatcher
 	 */
 	protected abstract boolean doDisconnect();
 
+	/**
+	 * This method must be invoked when the connection is dropped
+	 * outside of the method whileRpcReplyCatching(), for example
+	 * by a catcher that reads the messages without blocking.
+	 * 
+	 * The connection is closed with doDisconnect(), the session
+	 * becomes inactive and the requests waiting for the reply fail
+	 * at once.
+	 */
+	protected final void connectionDropped() {
+		_doDisconnect();
+	}
+
 	private synchronized boolean _doDisconnect() {
 		closedByUser = false;
 		boolean rtn = doDisconnect();
 		session.inactiveSession();
+		cancelPendingReplies();
 		return rtn;
 	}
 
-	private final BlockingQueue<RpcReplyMsg> queue = new ArrayBlockingQueue<RpcReplyMsg>(
-			24, true);
+	// The data handlers of the requests waiting for the reply.
+	private final RpcReplyMsg.DataHandlerResolver dataHandlers = new RpcReplyMsg.DataHandlerResolver()
+	{
+		@Override
+		public ContentHandler getDataHandler(Integer messageId) {
+			return correlator.getDataHandler(messageId);
+		}
+	};
+
+	private void cancelPendingReplies() {
+		for (ReplyCorrelator.Entry e : correlator.clear())
+		{
+			if (e.future != null)
+				e.future.fail(new IOException("Connection closed."));
+		}
+	}
 
 	/**
 	 * This method must be called immediately following methods:
@@ -415,103 +586,176 @@ public abstract class NetconfCatcher
 			throws IOException {
 		if (!checkServerHelloMsg())
 			return;
+		fireReadyForRpcRequests();
+		while (true)
+		{
+			MessageSlice in;
+			try
+			{
+
+				in = _doReadDataFromServer();
+
+			}
+			catch (IOException e)
+			{
+
+				throw e;
+			}
+			dispatchServerMessage(in);
+		}
+	}
+
+	/**
+	 * This method must be invoked by the transports that do not read
+	 * the messages with a dedicated thread, for each message received
+	 * from the server, in place of the methods:
+	 * 
+	 * <pre>
+	 * checkServerHelloMsg();
+	 * whileRpcReplyCatching();
+	 * </pre>
+	 * 
+	 * The first message is expected to be the Hello message of the
+	 * server; the following messages are dispatched to the listeners
+	 * in the thread of the caller.
+	 * 
+	 * <b>If the message is not valid, the method is committed
+	 * to dropping the connection.</b>
+	 * 
+	 * @param in
+	 *            The message received from the server.
+	 * @return true if the message has been processed; false if the
+	 *         connection has been dropped.
+	 * @throws IOException
+	 *             Throw this exception if the connection is closed for any
+	 *             reason.
+	 */
+	protected final boolean processServerMessage(MessageSlice in)
+			throws IOException {
+		writeLog(in.getArray(), in.getOffset(), in.getLength(), false);
+		if (!session.isActive())
+		{
+			if (!checkServerHelloMsg(in))
+				return false;
+			fireReadyForRpcRequests();
+			return true;
+		}
+		return dispatchServerMessage(in);
+	}
+
+	/**
+	 * This method is invoked when the Hello messages have been exchanged
+	 * in order to run the listener task that will send the RPC requests.
+	 * 
+	 * The default implementation runs the task into a new thread;
+	 * a transport that manages many connections can override this
+	 * method in order to run the task into a shared thread pool.
+	 * 
+	 * @param task
+	 *            The task to run.
+	 */
+	protected void executeListenerTask(Runnable task) {
+		new Thread(task).start();
+	}
+
+	private void fireReadyForRpcRequests() {
 		try
 		{
 			if (ncl != null)
 			{
-
-				Thread t = new Thread(new Runnable()
+				executeListenerTask(new Runnable()
 				{
 					public void run() {
 
 						ncl.processReadyForRpcRequests(handler);
 					}
 				});
-				t.start();
 			}
 		}
 		catch (Exception e)
 		{
 			e.printStackTrace();
 		}
-		while (true)
+	}
+
+	private boolean dispatchServerMessage(MessageSlice in) {
+		try
 		{
-			byte[] in;
-			try
+			RpcReplyMsg rpcReply = null;
+
+			/*
+			 * The kind of message is identified from the root element,
+			 * so that the message is parsed only once and only if
+			 * there is someone that receives it.
+			 */
+			byte[] b = in.getArray();
+			int off = in.getOffset();
+			int len = in.getLength();
+			switch (MessageSniffer.sniff(b, off, len))
 			{
-
-				in = _doReadDataFromServer();
-
+			case RPC_REPLY:
+				rpcReply = RpcReplyMsg.createServerRpcReply(b, off, len,
+						dataHandlers);
+				break;
+			case NOTIFICATION:
+				dispatchNotification(b, off, len);
+				break;
+			case UNKNOWN:
+				/*
+				 * The decoder of the replies stops at the root element
+				 * if it is not a reply.
+				 */
+				rpcReply = RpcReplyMsg.createServerRpcReply(b, off, len,
+						dataHandlers);
+				if (rpcReply == null)
+					dispatchNotification(b, off, len);
+				break;
+			default:
+				break;
 			}
-			catch (IOException e)
-			{
 
-				throw e;
-			}
-			try
+			if (rpcReply != null)
 			{
+				Integer messageId = rpcReply.getMessageId();
+				ReplyCorrelator.Entry entry = null;
+				if (messageId != null)
+					entry = correlator.take(messageId);
+				correlator.evictExpired(syncTimeout);
 
-				RpcReplyMsg rpcReply = RpcReplyMsg.createServerRpcReply(in);
-
-				if (rpcReply != null)
+				if (entry != null && entry.future != null)
 				{
-					Integer messageId = rpcReply.getMessageId();
-					synchronized (v)
+					Exception e = rpcReply.getDataHandlerException();
+					if (e != null)
 					{
-
-						if (messageId == null || !v.contains(messageId))
-						{
-							RpcReplySpecificListener l = null;
-							Set<Integer> kl = listeners.keySet();
-							for (Integer mId : kl)
-							{
-								if (messageId != null && messageId == mId)
-								{
-									l = listeners.get(mId);
-									break;
-								}
-							}
-
-							if (l != null)
-							{
-								try
-								{
-									l.processRpcReply(rpcReply);
-								}
-								catch (Exception e)
-								{
-									e.printStackTrace();
-								}
-
-							}
-							else
-							{
-								try
-								{
-									if (rpcl != null)
-										rpcl.processRpcReply(rpcReply,
-												messageId);
-								}
-								catch (Exception e)
-								{
-									e.printStackTrace();
-								}
-							}
-
-						}
-						else
-							queue.put(rpcReply);
+						IOException ex = new IOException(
+								"The data handler failed.");
+						ex.initCause(e);
+						entry.future.fail(ex);
 					}
+					else
+						entry.future.complete(rpcReply);
 				}
-				if (nl != null)
+				else
 				{
-					NotificationMsg notification = NotificationMsg
-							.createNotification(in);
-					if (notification != null)
+					if (entry != null)
+					{
+						try
+						{
+							entry.listener.processRpcReply(rpcReply);
+						}
+						catch (Exception e)
+						{
+							e.printStackTrace();
+						}
+
+					}
+					else
 					{
 						try
 						{
-							nl.processNotification(notification);
+							if (rpcl != null)
+								rpcl.processRpcReply(rpcReply,
+										messageId);
 						}
 						catch (Exception e)
 						{
@@ -519,24 +763,68 @@ public abstract class NetconfCatcher
 						}
 					}
 				}
+			}
+		}
+		catch (Exception e)
+		{
+			_doDisconnect();
+			throwTransportException(e,
+					NetconfFailCause.CAUSE_NETCONF_PROTOCOL_TROUBLES, true);
+			return false;
+		}
+		return true;
+	}
 
+	/*
+	 * The notifications go to the listener of their event or to
+	 * the general listener; they are parsed only if one of them exists.
+	 */
+	private void dispatchNotification(byte[] b, int off, int len)
+			throws SAXException, IOException {
+		NotificationsListener listener = nl;
+		NotificationMsg notification = null;
+
+		if (!eventListeners.isEmpty())
+		{
+			QName event = MessageSniffer.sniffEvent(b, off, len);
+			if (event == null)
+			{
+				// The event is identified by the parser.
+				notification = NotificationMsg.createNotification(b, off, len);
+				if (notification != null)
+					event = notification.getEvent();
 			}
-			catch (Exception e)
+			if (event != null)
 			{
-				_doDisconnect();
-				throwTransportException(e,
-						NetconfFailCause.CAUSE_NETCONF_PROTOCOL_TROUBLES, true);
+				NotificationsListener el = eventListeners.get(event);
+				if (el != null)
+					listener = el;
 			}
+		}
 
+		if (listener == null)
+			return;
+		if (notification == null)
+			notification = NotificationMsg.createNotification(b, off, len);
+		if (notification == null)
+			return;
+
+		try
+		{
+			listener.processNotification(notification);
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
 		}
 	}
 
-	private Vector<Integer> v = new Vector<Integer>();
-
 	private RpcReplyListener rpcl;
 
 	private NotificationsListener nl;
 
+	private final ConcurrentHashMap<QName, NotificationsListener> eventListeners = new ConcurrentHashMap<QName, NotificationsListener>();
+
 	private RpcHandler createRpcHandler() {
 		RpcHandler handler = new RpcHandler()
 		{
@@ -560,115 +848,173 @@ public abstract class NetconfCatcher
 
 			}
 
+			@Override
+			public final void setNotificationsListener(Identity event,
+					NotificationsListener listener) {
+				String ns = event.getNamespaceURI();
+				QName name = new QName(ns == null ? "" : ns, event.getName());
+				if (listener == null)
+					eventListeners.remove(name);
+				else
+					eventListeners.put(name, listener);
+			}
+
 			@Override
 			public final RpcReply sendSyncRpc(Rpc operation) throws IOException {
+				return sendSyncRpc(operation, null);
+			}
 
-				int messageId = sendRpc(operation);
+			@Override
+			public final RpcReply sendSyncRpc(Rpc operation,
+					ContentHandler dataHandler) throws IOException {
 
-				synchronized (v)
+				RpcFuture f = sendAsync(operation, dataHandler);
+				try
 				{
-					v.add(messageId);
+					return f.get(syncTimeout, TimeUnit.MILLISECONDS);
 				}
-				RpcReplyMsg rpcReply = null;
-
-				int tic = 0;
-
-				while (true)
+				catch (TimeoutException te)
 				{
+					f.cancel(false);
+					IOException e = new IOException(
+							"Timeout on receiving the RPC reply for the synchronous request: "
+									+ syncTimeout);
+					throwTransportException(e,
+							NetconfFailCause.CAUSE_NETCONF_PROTOCOL_TROUBLES,
+							false);
+					throw e;
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					f.cancel(false);
+					throw new IOException("Interrupted.");
+				}
+				catch (ExecutionException e)
+				{
+					if (e.getCause() instanceof IOException)
+						throw (IOException) e.getCause();
+					throw new IOException(e.getCause().toString());
+				}
+			}
 
-					Iterator<RpcReplyMsg> i = queue.iterator();
-
-					while (i.hasNext())
-					{
-						RpcReplyMsg r = i.next();
-						if (r.getMessageId() == messageId)
-						{
-							rpcReply = r;
-							break;
-						}
-					}
-					if (rpcReply != null)
-					{
-						queue.remove(rpcReply);
-						synchronized (v)
-						{
-							v.removeElement(messageId);
-						}
-						return rpcReply;
-					}
-
-					try
-					{
+			@Override
+			public final RpcFuture sendAsync(Rpc operation) throws IOException {
+				return sendAsync(operation, null);
+			}
 
-						Thread.sleep(500);
-					}
-					catch (InterruptedException e)
-					{
+			@Override
+			public final RpcFuture sendAsync(Rpc operation,
+					ContentHandler dataHandler) throws IOException {
+				final RpcFuture f = new RpcFuture();
+				final int messageId = _sendRpc(operation, null, f, dataHandler);
+
+				/*
+				 * A future that fails before the reply, by timeout
+				 * or cancellation, no longer waits for it.
+				 */
+				f.addCallback(new RpcCallback()
+				{
+					public void onReply(RpcReply reply) {}
 
+					public void onFailure(Throwable cause) {
+						correlator.evict(messageId, f);
 					}
-					if (tic >= syncTimeoutTic)
-					{
-						// _doDisconnect();
-						throwTransportException(
-								new IOException(
-										"Timeout on receiving the RPC reply for the synchronous request: "
-												+ syncTimeoutTic * 500),
-								NetconfFailCause.CAUSE_NETCONF_PROTOCOL_TROUBLES,
-								false);
-					}
-					tic++;
-				}
+				});
+				return f;
 			}
 
 			@Override
 			public final int sendRpc(Rpc operation) throws IOException {
-				return _sendRpc(operation, null);
+				return _sendRpc(operation, null, null, null);
 			}
 
 			@Override
 			public final void sendRpc(Rpc operation,
 					RpcReplySpecificListener listener) throws IOException {
-				_sendRpc(operation, listener);
+				_sendRpc(operation, listener, null, null);
 			}
 
 			private final int _sendRpc(Rpc operation,
-					RpcReplySpecificListener listener) throws IOException {
-				synchronized (wiredMessageId)
+					RpcReplySpecificListener listener, RpcFuture p,
+					ContentHandler dataHandler) throws IOException {
+				/*
+				 * The message-id is taken under the lock of the sending,
+				 * so that the requests are written in the order of their
+				 * message-id.
+				 */
+				synchronized (sendLock)
 				{
-					wiredMessageId++;
+					// The listeners wait as the synchronous requests.
+					correlator.evictExpired(syncTimeout);
 
-					ByteArrayOutputStream b;
-					operation.dumpRpcMessage(session, wiredMessageId,
-							b = new ByteArrayOutputStream());
-					b.flush();
+					int messageId = correlator.nextId();
+					ReplyCorrelator.Entry entry = null;
+					boolean sent = false;
 
-					// Imposta il listener prima di spedire.
-					if (listener != null)
+					try
 					{
-						listeners.put(wiredMessageId, listener);
-					}
-					byte[] array = b.toByteArray();
-					doSendDataToServer(array);
+						OutputStream out = doGetOutputStreamToServer();
+						if (out != null && framer != null)
+						{
+							synchronized (writer)
+							{
+								writer.reset();
+								operation.dumpRpcMessage(session, messageId,
+										writer);
+
+								// Imposta il listener prima di spedire.
+								if (listener != null || p != null)
+									entry = correlator.register(messageId, p,
+											listener, dataHandler);
+								sendMessage(out);
+							}
+							sent = true;
+							return messageId;
+						}
 
-					writeLog(array, true);
+						ByteArrayOutputStream b;
+						operation.dumpRpcMessage(session, messageId,
+								b = new ByteArrayOutputStream());
+						b.flush();
 
-					return wiredMessageId;
+						// Imposta il listener prima di spedire.
+						if (listener != null || p != null)
+							entry = correlator.register(messageId, p,
+									listener, dataHandler);
+						byte[] array = b.toByteArray();
+						doSendDataToServer(array);
+						sent = true;
+
+						writeLog(array, true);
+
+						return messageId;
+					}
+					finally
+					{
+						// A request not sent will never have a reply.
+						if (!sent && entry != null)
+							correlator.evict(entry);
+					}
 				}
 			}
 		};
 		return handler;
 	}
 
-	private int syncTimeoutTic = 10000;
+	private long syncTimeout = 10000L * 500;
 
 	/**
 	 * Allows you to specify a request timeout for synchronous RPC calls.
 	 * 
+	 * The same timeout applies to the listeners of the RPC replies:
+	 * a reply that arrives later goes to the RpcReplyListener.
+	 * 
 	 * @param timeout
-	 *            The timeout.
+	 *            The timeout in milliseconds.
 	 */
 	public final void setSyncRequestsTimeout(int timeout) {
-		this.syncTimeoutTic = timeout / 500 + (timeout % 500);
+		this.syncTimeout = timeout;
 	}
 
 	private static LogLevel logLevel = LogLevel.NONE;
@@ -0,0 +1,182 @@
+package com.vhosting.netconf.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.xml.sax.ContentHandler;
+
+import com.vhosting.netconf.frame.RpcFuture;
+import com.vhosting.netconf.frame.RpcReplySpecificListener;
+
+/**
+ * The table that associates the message-id of the RPC requests
+ * of a session with the receiver of their replies.
+ * 
+ * An entry is removed when the reply arrives, when its future
+ * fails for timeout or cancellation, when the connection is closed,
+ * or, for a listener, when its reply does not arrive within the
+ * timeout of the requests.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+final class ReplyCorrelator
+{
+
+	/**
+	 * The receiver of a RPC reply: a future or a listener.
+	 */
+	static final class Entry
+	{
+		final int messageId;
+		final RpcFuture future;
+		final RpcReplySpecificListener listener;
+		final ContentHandler dataHandler;
+		final long time;
+
+		Entry(int messageId, RpcFuture future,
+				RpcReplySpecificListener listener, ContentHandler dataHandler)
+		{
+			this.messageId = messageId;
+			this.future = future;
+			this.listener = listener;
+			this.dataHandler = dataHandler;
+			this.time = System.currentTimeMillis();
+		}
+	}
+
+	private final AtomicInteger lastId = new AtomicInteger();
+	private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<Integer, Entry>();
+
+	// The time of the oldest listener; Long.MAX_VALUE if none.
+	private volatile long oldestListener = Long.MAX_VALUE;
+
+	/**
+	 * Get a new message-id.
+	 */
+	int nextId() {
+		return lastId.incrementAndGet();
+	}
+
+	/**
+	 * Add the receiver of the reply of a request.
+	 * It must be invoked before sending the request.
+	 * 
+	 * @return The entry added.
+	 */
+	Entry register(int messageId, RpcFuture future,
+			RpcReplySpecificListener listener, ContentHandler dataHandler) {
+		Entry e = new Entry(messageId, future, listener, dataHandler);
+		entries.put(messageId, e);
+		if (listener != null)
+		{
+			synchronized (this)
+			{
+				if (e.time < oldestListener)
+					oldestListener = e.time;
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * Get the handler of the data of a reply, without removing
+	 * the entry.
+	 * 
+	 * @return The data handler or null if there is none.
+	 */
+	ContentHandler getDataHandler(Integer messageId) {
+		Entry e = entries.get(messageId);
+		return e == null ? null : e.dataHandler;
+	}
+
+	/**
+	 * Remove and return the receiver of a reply.
+	 * It is invoked only by the thread that reads the messages.
+	 * 
+	 * @return The entry or null if the message-id is not registered.
+	 */
+	Entry take(int messageId) {
+		return entries.remove(messageId);
+	}
+
+	/**
+	 * Remove the receiver of a reply that is no longer expected.
+	 * 
+	 * @return true if the entry was removed; false if it was already
+	 *         removed.
+	 */
+	boolean evict(int messageId, RpcFuture future) {
+		Entry e = entries.get(messageId);
+		return e != null && e.future == future && evict(e);
+	}
+
+	/**
+	 * Remove an entry whose request could not be sent.
+	 * 
+	 * @return true if the entry was removed; false if it was already
+	 *         removed.
+	 */
+	boolean evict(Entry e) {
+		return entries.remove(e.messageId, e);
+	}
+
+	/**
+	 * Remove the listeners whose reply has not arrived within
+	 * the timeout; a late reply goes to the general listener.
+	 * The entries are checked only when the oldest listener has
+	 * expired, so the method can be invoked at each message.
+	 * 
+	 * @return The number of entries removed.
+	 */
+	int evictExpired(long timeout) {
+		long oldest = oldestListener;
+		if (oldest == Long.MAX_VALUE)
+			return 0;
+		long now = System.currentTimeMillis();
+		if (now - oldest < timeout)
+			return 0;
+
+		synchronized (this)
+		{
+			int n = 0;
+			long next = Long.MAX_VALUE;
+			for (Entry e : entries.values())
+			{
+				if (e.listener == null)
+					continue;
+				if (now - e.time < timeout)
+					next = Math.min(next, e.time);
+				else if (entries.remove(e.messageId, e))
+					n++;
+			}
+			oldestListener = next;
+			return n;
+		}
+	}
+
+	/**
+	 * Remove all the entries.
+	 * 
+	 * @return The entries removed.
+	 */
+	List<Entry> clear() {
+		ArrayList<Entry> l = new ArrayList<Entry>();
+		for (Entry e : entries.values())
+		{
+			if (entries.remove(e.messageId, e))
+				l.add(e);
+		}
+		return l;
+	}
+
+	/**
+	 * Get the number of entries.
+	 */
+	int size() {
+		return entries.size();
+	}
+
+}
@@ -2,10 +2,15 @@ package com.vhosting.netconf.transport;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Set;
 import java.util.Vector;
 
+import com.vhosting.netconf.transport.Capability.CapabilityParams;
+
 /**
  * This class represents a session of talks with a server.
  * An active session is delivered after it is established a connection
@@ -29,14 +34,37 @@ public class Session
 
 	private static NamespacesPool ns = new NamespacesPool();
 	private static Vector<Capability> register = new Vector<Capability>();
+
+	/*
+	 * The registered capabilities by base Uri; the capabilities
+	 * with the same base Uri are chained in order of registration.
+	 */
+	private static HashMap<String, Capability> registerByBaseURI = new HashMap<String, Capability>();
+
 	private Vector<Capability> availables = new Vector<Capability>();
 
+	/*
+	 * The capabilities present on the server and their parameters,
+	 * by ordinal. They are replaced, never modified, once published
+	 * so that they can be read without locks.
+	 */
+	private volatile BitSet presents = new BitSet();
+	private volatile CapabilityParams[] params = new CapabilityParams[0];
+
 	private static Vector<Session> activeSessions = new Vector<Session>();
 
 	private boolean isActive = false;
 
 	public static Capability BASE_1_0 = new Capability(
 			"urn:ietf:params:netconf:base:1.0", xmlns_base_1_0, prefix_base_1_0);
+	/**
+	 * The base:1.1 capability (RFC 6241).
+	 * It is advertised only by the transports that support the
+	 * chunked framing (RFC 6242); when it is present also on the
+	 * server, the chunked framing is used after the Hello messages.
+	 */
+	public static Capability BASE_1_1 = new Capability(
+			"urn:ietf:params:netconf:base:1.1", xmlns_base_1_0, prefix_base_1_0);
 	public static Capability WRITABLE_RUNNING_1_0 = new Capability(
 			"urn:ietf:params:netconf:capability:writable-running:1.0",
 			xmlns_base_1_0, prefix_base_1_0);
@@ -73,10 +101,20 @@ public class Session
 
 	private Integer sessionId;
 
-	static void registerCapability(Capability cap) {
-		if (register.contains(cap))
+	static synchronized void registerCapability(Capability cap) {
+		if (cap.ordinal >= 0)
 			return;
+		cap.ordinal = register.size();
 		register.add(cap);
+		Capability same = registerByBaseURI.get(cap.capabilityBaseURI);
+		if (same == null)
+			registerByBaseURI.put(cap.capabilityBaseURI, cap);
+		else
+		{
+			while (same.sameBaseURI != null)
+				same = same.sameBaseURI;
+			same.sameBaseURI = cap;
+		}
 		String newPrefix = ns.put(cap.getNamespaceURI(), cap.prefix);
 		if (newPrefix != null)
 			cap.prefix = newPrefix;
@@ -86,10 +124,11 @@ public class Session
 			Session session = activeSessions.elementAt(i);
 			for (String uri : session.serverURIs)
 			{
-				cap.setServerCapabilityPresence(uri, session);
-				if (cap.isPresentOnServer(session))
+				if (isValidURI(uri)
+						&& cap.setServerCapabilityPresence(uri, session))
 				{
 					session.availables.add(cap);
+					break;
 				}
 			}
 		}
@@ -103,49 +142,93 @@ public class Session
 	void inactiveSession() {
 
 		if (!isActive()) return;
-		for (int i = 0; i < register.size(); i++)
+		synchronized (Session.class)
 		{
-			Capability cap = register.elementAt(i);
-			cap.unsetServerCapabilityPresence(this);
+			params = new CapabilityParams[0];
+			presents = new BitSet();
+			serverURIs = null;
+			availables.clear();
+			activeSessions.remove(this);
+			isActive = false;
 		}
-		serverURIs = null;
-		availables.clear();
-		activeSessions.remove(this);
-		isActive = false;
 	}
 
 	private String[] serverURIs;
 
+	/*
+	 * The Uris of the server are looked up by base Uri: only the Uris
+	 * of the registered capabilities are validated and parsed.
+	 */
 	void activeSession(String[] serverCapabilityURIs, Integer sessionId) {
 		this.sessionId = sessionId;
 		isActive = true;
-		for (String uri : serverCapabilityURIs)
+		synchronized (Session.class)
 		{
-
-			try
-			{
-				new URI(uri);
-			}
-			catch (URISyntaxException e)
+			BitSet presents = new BitSet(register.size());
+			CapabilityParams[] params = new CapabilityParams[register.size()];
+			for (String uri : serverCapabilityURIs)
 			{
+				Capability cap = registerByBaseURI.get(Capability
+						.stripBaseURI(uri));
+				if (cap == null || !isValidURI(uri))
+					continue;
 
-				continue;
-			}
-
-			for (int i = 0; i < register.size(); i++)
-			{
-				Capability cap = register.elementAt(i);
-				if (cap.setServerCapabilityPresence(uri, this))
+				for (; cap != null; cap = cap.sameBaseURI)
 				{
-					availables.add(cap);
+					params[cap.ordinal] = cap.new CapabilityParams(uri);
+					if (!presents.get(cap.ordinal))
+					{
+						presents.set(cap.ordinal);
+						availables.add(cap);
+					}
 				}
 			}
+			this.params = params;
+			this.presents = presents;
+			serverURIs = serverCapabilityURIs;
+			activeSessions.add(this);
 		}
-		serverURIs = serverCapabilityURIs;
-		activeSessions.add(this);
 
 	}
 
+	private static boolean isValidURI(String uri) {
+		try
+		{
+			new URI(uri);
+			return true;
+		}
+		catch (URISyntaxException e)
+		{
+			return false;
+		}
+	}
+
+	boolean isCapabilityPresent(int ordinal) {
+		return presents.get(ordinal);
+	}
+
+	CapabilityParams getCapabilityParams(int ordinal) {
+		CapabilityParams[] params = this.params;
+		return (ordinal < params.length) ? params[ordinal] : null;
+	}
+
+	/*
+	 * Set or unset the presence of a capability on the server;
+	 * the parameters are null to unset it.
+	 */
+	void setCapabilityPresence(Capability cap, CapabilityParams srvParams) {
+		synchronized (Session.class)
+		{
+			CapabilityParams[] params = Arrays.copyOf(this.params, Math.max(
+					this.params.length, cap.ordinal + 1));
+			params[cap.ordinal] = srvParams;
+			BitSet presents = (BitSet) this.presents.clone();
+			presents.set(cap.ordinal, srvParams != null);
+			this.params = params;
+			this.presents = presents;
+		}
+	}
+
 	/**
 	 * Get the session identifier.
 	 * 
@@ -192,6 +275,82 @@ public class Session
 		return availables.toArray(new Capability[availables.size()]);
 	}
 
+	/**
+	 * Get the capabilities present on the server whose prefix is used
+	 * in a text, such as an XPath expression or a value of type
+	 * identityref.
+	 * 
+	 * @param text
+	 *            The text.
+	 * @return The capabilities.
+	 * @see #getCapabilitiesOfPrefixes(String, Capability[])
+	 */
+	public Capability[] getCapabilitiesOfPrefixes(String text) {
+		return getCapabilitiesOfPrefixes(text, getCapabilitiesOnServer());
+	}
+
+	/**
+	 * Get the capabilities whose prefix is used in a text.
+	 * 
+	 * The text is read as a sequence of names: a prefix is a name
+	 * followed by a colon and by another name or by '*', so that
+	 * an axis of XPath such as 'child::' is not a prefix.
+	 * The string literals between quotes are skipped.
+	 * 
+	 * @param text
+	 *            The text.
+	 * @param caps
+	 *            The capabilities.
+	 * @return The capabilities whose prefix is used.
+	 */
+	public static Capability[] getCapabilitiesOfPrefixes(String text,
+			Capability[] caps) {
+		Vector<Capability> v = new Vector<Capability>();
+		int len = text.length();
+		int i = 0;
+		while (i < len)
+		{
+			char c = text.charAt(i);
+			if (c == '\'' || c == '"')
+			{
+				int end = text.indexOf(c, i + 1);
+				if (end < 0)
+					break;
+				i = end + 1;
+			}
+			else if (isNameChar(c))
+			{
+				int start = i;
+				while (i < len && isNameChar(text.charAt(i)))
+					i++;
+				if (i + 1 < len && text.charAt(i) == ':' && isNameStartChar(c)
+						&& (isNameStartChar(text.charAt(i + 1)) || text
+								.charAt(i + 1) == '*'))
+				{
+					for (Capability cap : caps)
+					{
+						String p = cap.getPrefix();
+						if (p.length() == i - start && text.startsWith(p, start)
+								&& !v.contains(cap))
+							v.add(cap);
+					}
+				}
+			}
+			else
+				i++;
+		}
+		return v.toArray(new Capability[v.size()]);
+	}
+
+	private static boolean isNameStartChar(char c) {
+		return Character.isLetter(c) || c == '_';
+	}
+
+	private static boolean isNameChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '-' || c == '_'
+				|| c == '.';
+	}
+
 }
 
 /**
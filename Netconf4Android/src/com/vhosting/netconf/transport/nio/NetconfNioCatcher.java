@@ -0,0 +1,315 @@
+package com.vhosting.netconf.transport.nio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
+
+import com.vhosting.netconf.transport.EndOfMessageFramer;
+import com.vhosting.netconf.transport.MessageSlice;
+import com.vhosting.netconf.transport.NetconfCatcher;
+import com.vhosting.netconf.transport.NetconfTransportError.TransportFailCause;
+
+/**
+ * This abstract class implements a Netconf connection over a
+ * non-blocking socket channel served by a NioEngine.
+ * 
+ * No thread is dedicated to the connection: the messages are read,
+ * framed and dispatched by an I/O thread of the engine, and the
+ * messages are sent by the thread of the caller without blocking;
+ * the bytes that the channel can not accept immediately are queued
+ * and written by the I/O thread.
+ * 
+ * A subclass provides the channel to the server.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public abstract class NetconfNioCatcher extends NetconfCatcher
+{
+
+	private final NioEngine engine;
+	private NioLoop loop;
+	private SocketChannel channel;
+	private SelectionKey key;
+	private volatile boolean isConnected;
+
+	// The bytes waiting to be written.
+	private final LinkedList<ByteBuffer> pending = new LinkedList<ByteBuffer>();
+
+	private final OutputStream out = new OutputStream()
+	{
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			enqueue(b, off, len);
+		}
+	};
+
+	/**
+	 * It enables a subclass to be instantiated.
+	 * 
+	 * @param labelConnection
+	 *            A label used to identify the connection.
+	 * @param engine
+	 *            The engine that will serve the connection.
+	 */
+	protected NetconfNioCatcher(String labelConnection, NioEngine engine)
+	{
+		super(labelConnection);
+		this.engine = engine;
+	}
+
+	/**
+	 * Start the connection process.
+	 * 
+	 * <pre>
+	 * 1. make the connection with the server;
+	 * 2. Send a welcome message;
+	 * 3. Listen for any messages from the server.
+	 * </pre>
+	 * 
+	 * The method returns immediately: the result of the connection
+	 * process is notified to the NetconfCatcherListener.
+	 */
+	public final void connect() {
+		loop = engine.nextLoop();
+		loop.execute(new Runnable()
+		{
+			public void run() {
+				open();
+			}
+		});
+	}
+
+	/**
+	 * This method must be implemented in order to open the channel
+	 * to the server.
+	 * 
+	 * The channel returned must be in non-blocking mode and it must be
+	 * connected or the connection must be pending.
+	 * 
+	 * @return The channel to the server.
+	 * @throws IOException
+	 *             Throw this exception if the channel can not be opened.
+	 */
+	protected abstract SocketChannel doOpenChannel() throws IOException;
+
+	private void open() {
+		try
+		{
+			channel = doOpenChannel();
+			if (channel.isConnected())
+			{
+				key = channel.register(loop.getSelector(), 0, this);
+				connected();
+			}
+			else
+				key = channel.register(loop.getSelector(),
+						SelectionKey.OP_CONNECT, this);
+		}
+		catch (IOException e)
+		{
+			failed(e);
+		}
+	}
+
+	private void connected() throws IOException {
+		synchronized (pending)
+		{
+			isConnected = true;
+		}
+		key.interestOps(SelectionKey.OP_READ);
+		setMessageFramer(new EndOfMessageFramer((InputStream) null));
+
+		/*
+		 * Send the Netconf Hello message with the statement
+		 * of capabilities.
+		 */
+		sendHelloMsg();
+	}
+
+	private void failed(IOException e) {
+		if (channel != null)
+		{
+			try
+			{
+				channel.close();
+			}
+			catch (IOException ee)
+			{
+				// Nothing to do.
+			}
+		}
+		throwTransportException(e,
+				TransportFailCause.CAUSE_CONNECTION_TROUBLES, false);
+	}
+
+	/**
+	 * Invoked by the loop when the channel is ready.
+	 */
+	void handleEvent(SelectionKey key) {
+		try
+		{
+			if (!key.isValid())
+				return;
+			if (key.isConnectable())
+			{
+				try
+				{
+					channel.finishConnect();
+				}
+				catch (IOException e)
+				{
+					failed(e);
+					return;
+				}
+				connected();
+			}
+			if (key.isValid() && key.isWritable())
+				flush();
+			if (key.isValid() && key.isReadable())
+				read();
+		}
+		catch (IOException e)
+		{
+			/*
+			 * The connection is dropped, unless it has been closed
+			 * by the user.
+			 */
+			if (isConnected)
+				connectionDropped();
+		}
+	}
+
+	private void read() throws IOException {
+		if (getMessageFramer().readFrom(channel) < 0)
+			throw new IOException("End of stream.");
+
+		/*
+		 * The framer is read again for each message
+		 * because it changes after the Hello message.
+		 */
+		MessageSlice s;
+		while (isConnected && (s = getMessageFramer().pollMessage()) != null)
+		{
+			if (!processServerMessage(s))
+				break;
+		}
+	}
+
+	private void enqueue(byte[] b, int off, int len) throws IOException {
+		synchronized (pending)
+		{
+			if (!isConnected)
+				throw new IOException("Connection closed.");
+
+			ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+			boolean idle = pending.isEmpty();
+			if (idle)
+			{
+				channel.write(bb);
+				if (!bb.hasRemaining())
+					return;
+			}
+
+			// The array of the caller is reused: the rest is copied.
+			ByteBuffer rest = ByteBuffer.allocate(bb.remaining());
+			rest.put(bb);
+			rest.flip();
+			pending.add(rest);
+
+			if (idle)
+			{
+				loop.execute(new Runnable()
+				{
+					public void run() {
+						synchronized (pending)
+						{
+							if (!pending.isEmpty() && key.isValid())
+								key.interestOps(SelectionKey.OP_READ
+										| SelectionKey.OP_WRITE);
+						}
+					}
+				});
+			}
+		}
+	}
+
+	private void flush() throws IOException {
+		synchronized (pending)
+		{
+			while (!pending.isEmpty())
+			{
+				ByteBuffer bb = pending.getFirst();
+				channel.write(bb);
+				if (bb.hasRemaining())
+					return;
+				pending.removeFirst();
+			}
+			key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+
+	@Override
+	protected boolean doDisconnect() {
+		synchronized (pending)
+		{
+			if (!isConnected)
+				return false;
+			isConnected = false;
+			pending.clear();
+		}
+		try
+		{
+			channel.close();
+		}
+		catch (IOException e)
+		{
+			// The connection is already closed.
+		}
+
+		/* It is certain that at this point the connection is lost. */
+		loop.execute(new Runnable()
+		{
+			public void run() {
+				fireConnectionClosed();
+			}
+		});
+		return true;
+	}
+
+	@Override
+	protected void executeListenerTask(Runnable task) {
+		engine.getExecutor().execute(task);
+	}
+
+	@Override
+	protected OutputStream doGetOutputStreamToServer() {
+		return out;
+	}
+
+	@Override
+	protected void doSendDataToServer(byte[] bytes) throws IOException {
+		getMessageFramer().writeMessage(out, bytes, 0, bytes.length);
+	}
+
+	@Override
+	protected byte[] doReadDataFromServer() throws IOException {
+		throw new IOException(
+				"The messages are read by the I/O threads of the engine.");
+	}
+
+	@Override
+	public boolean isConnected() {
+		return isConnected;
+	}
+
+}
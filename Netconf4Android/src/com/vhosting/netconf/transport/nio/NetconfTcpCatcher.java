@@ -0,0 +1,57 @@
+package com.vhosting.netconf.transport.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+
+/**
+ * This class is the entry point for to establish
+ * a connection Netconf over a plain TCP connection.
+ * 
+ * The messages are not protected in any way: this transport is
+ * intended for the tests against local servers and for the
+ * networks where the security is provided by other means.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public class NetconfTcpCatcher extends NetconfNioCatcher
+{
+
+	private final InetSocketAddress address;
+
+	/**
+	 * Building the catcher for a connection over TCP.
+	 * 
+	 * @param labelConnection
+	 *            A label used to identify the connection.
+	 * @param engine
+	 *            The engine that will serve the connection.
+	 * @param address
+	 *            The address of the server.
+	 */
+	public NetconfTcpCatcher(String labelConnection, NioEngine engine,
+			InetSocketAddress address)
+	{
+		super(labelConnection, engine);
+		this.address = address;
+	}
+
+	@Override
+	protected SocketChannel doOpenChannel() throws IOException {
+		SocketChannel ch = SocketChannel.open();
+		try
+		{
+			ch.configureBlocking(false);
+			ch.socket().setTcpNoDelay(true);
+			ch.connect(address);
+		}
+		catch (IOException e)
+		{
+			ch.close();
+			throw e;
+		}
+		return ch;
+	}
+
+}
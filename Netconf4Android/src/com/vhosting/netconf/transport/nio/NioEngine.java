@@ -0,0 +1,121 @@
+package com.vhosting.netconf.transport.nio;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is the engine that runs the non-blocking
+ * Netconf connections.
+ * 
+ * The engine has a fixed number of I/O threads; each thread runs
+ * an event loop on a selector and serves all the connections
+ * assigned to it, reading and framing the messages and dispatching
+ * the RPC replies and the notifications to the listeners.
+ * The connections are assigned to the event loops in round robin.
+ * 
+ * The tasks of the NetconfCatcherListener that send the RPC requests
+ * are run into a thread pool shared by all the connections.
+ * 
+ * <pre>
+ * NioEngine engine = new NioEngine(2);
+ * 
+ * for (InetSocketAddress addr : devices)
+ * {
+ * 	NetconfTcpCatcher catcher = new NetconfTcpCatcher(label, engine, addr);
+ * 	catcher.setNetconfCatcherListener(listener);
+ * 	catcher.connect();
+ * }
+ * </pre>
+ * 
+ * <b>The listeners of the RPC replies and of the notifications are
+ * invoked into the I/O threads: they must not block.</b>
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public final class NioEngine
+{
+
+	private final NioLoop[] loops;
+	private final ExecutorService executor;
+	private final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * Create and start the engine.
+	 * 
+	 * The tasks of the listeners are run into a pool of daemon threads
+	 * that are created when needed and reused.
+	 * 
+	 * @param ioThreads
+	 *            The number of the I/O threads.
+	 * @throws IOException
+	 *             Throw this exception if a selector can not be opened.
+	 */
+	public NioEngine(int ioThreads) throws IOException
+	{
+		this(ioThreads, Executors.newCachedThreadPool(new ThreadFactory()
+		{
+			private final AtomicInteger n = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "netconf-listener-"
+						+ n.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		}));
+	}
+
+	/**
+	 * Create and start the engine.
+	 * 
+	 * @param ioThreads
+	 *            The number of the I/O threads.
+	 * @param executor
+	 *            The executor of the tasks of the listeners.
+	 * @throws IOException
+	 *             Throw this exception if a selector can not be opened.
+	 */
+	public NioEngine(int ioThreads, ExecutorService executor)
+			throws IOException
+	{
+		if (ioThreads < 1)
+			throw new IllegalArgumentException("ioThreads: " + ioThreads);
+		this.executor = executor;
+		loops = new NioLoop[ioThreads];
+		try
+		{
+			for (int i = 0; i < ioThreads; i++)
+				loops[i] = new NioLoop("netconf-io-" + (i + 1));
+		}
+		catch (IOException e)
+		{
+			shutdown();
+			throw e;
+		}
+	}
+
+	/**
+	 * Stop the engine.
+	 * The connections still open are closed.
+	 */
+	public void shutdown() {
+		for (NioLoop loop : loops)
+			if (loop != null)
+				loop.shutdown();
+		executor.shutdown();
+	}
+
+	NioLoop nextLoop() {
+		int i = next.getAndIncrement() & Integer.MAX_VALUE;
+		return loops[i % loops.length];
+	}
+
+	ExecutorService getExecutor() {
+		return executor;
+	}
+
+}
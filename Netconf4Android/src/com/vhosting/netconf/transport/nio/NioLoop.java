@@ -0,0 +1,133 @@
+package com.vhosting.netconf.transport.nio;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.vhosting.netconf.transport.NetconfCatcher;
+
+/**
+ * An event loop of the NioEngine.
+ * 
+ * The selector and the selection keys are only handled by the thread
+ * of the loop; the other threads submit tasks with execute().
+ * The failures of the tasks and of the events are written to the
+ * log of the catchers.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+final class NioLoop implements Runnable
+{
+
+	private final Selector selector;
+	private final Thread thread;
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+	private volatile boolean closed;
+
+	NioLoop(String name) throws IOException
+	{
+		selector = Selector.open();
+		thread = new Thread(this, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	Selector getSelector() {
+		return selector;
+	}
+
+	/**
+	 * Run a task into the thread of the loop.
+	 * The selector is woken up also from the thread of the loop:
+	 * the tasks are run only after the select returns.
+	 */
+	void execute(Runnable task) {
+		tasks.add(task);
+		selector.wakeup();
+	}
+
+	void shutdown() {
+		closed = true;
+		selector.wakeup();
+	}
+
+	public void run() {
+		while (!closed)
+		{
+			try
+			{
+				selector.select();
+			}
+			catch (IOException e)
+			{
+				log("The selector failed", e);
+				break;
+			}
+
+			Runnable task;
+			while ((task = tasks.poll()) != null)
+			{
+				try
+				{
+					task.run();
+				}
+				catch (Exception e)
+				{
+					log("A task failed", e);
+				}
+			}
+
+			Iterator<SelectionKey> i = selector.selectedKeys().iterator();
+			while (i.hasNext())
+			{
+				SelectionKey key = i.next();
+				i.remove();
+				try
+				{
+					((NetconfNioCatcher) key.attachment()).handleEvent(key);
+				}
+				catch (Exception e)
+				{
+					log("An event failed", e);
+				}
+			}
+		}
+
+		for (SelectionKey key : new ArrayList<SelectionKey>(selector.keys()))
+			((NetconfNioCatcher) key.attachment()).doDisconnect();
+
+		// Run the tasks of the disconnections.
+		Runnable task;
+		while ((task = tasks.poll()) != null)
+		{
+			try
+			{
+				task.run();
+			}
+			catch (Exception e)
+			{
+				log("A task failed", e);
+			}
+		}
+
+		try
+		{
+			selector.close();
+		}
+		catch (IOException e)
+		{
+			// Nothing to do.
+		}
+	}
+
+	private void log(String s, Exception e) {
+		if (NetconfCatcher.getLogLevel() != NetconfCatcher.LogLevel.NONE)
+			NetconfCatcher.getLogStream().println(
+					thread.getName() + ": " + s + "; " + e);
+	}
+
+}
@@ -0,0 +1,8 @@
+/**
+ * Contains the transports that share a small number of
+ * I/O threads among many Netconf connections.
+ * 
+ * The connections are multiplexed with non-blocking channels
+ * on the event loops of a NioEngine.
+ */
+package com.vhosting.netconf.transport.nio;
@@ -0,0 +1,105 @@
+package com.vhosting.netconf.transport.ssh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import ch.ethz.ssh2.ConnectionMonitor;
+import ch.ethz.ssh2.HTTPProxyData;
+import ch.ethz.ssh2.Session;
+
+/**
+ * The SSH-2 backend implemented with the Ganymed SSH-2 library.
+ * This is the default backend.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public class GanymedSshBackend implements SshBackend
+{
+
+	@Override
+	public Connection connect(SshAuthInfo ai) throws IOException {
+		ch.ethz.ssh2.Connection c = new ch.ethz.ssh2.Connection(ai.getHost()
+				.getHostName(), ai.getHost().getPort());
+		if (ai.getProxyHost() != null)
+			c.setProxyData(new HTTPProxyData(ai.getProxyHost().getHostName(),
+					ai.getProxyHost().getPort()));
+
+		c.connect();
+		return new GanymedConnection(c);
+	}
+
+	private static final class GanymedConnection implements Connection
+	{
+
+		private final ch.ethz.ssh2.Connection conn;
+		private volatile boolean alive = true;
+
+		GanymedConnection(ch.ethz.ssh2.Connection conn)
+		{
+			this.conn = conn;
+			conn.addConnectionMonitor(new ConnectionMonitor()
+			{
+				public void connectionLost(Throwable reason) {
+					alive = false;
+				}
+			});
+		}
+
+		@Override
+		public boolean authenticate(SshAuthInfo ai) throws IOException {
+			if (ai.authType == SshAuthInfo.AuthType.BASIC_AUTH)
+				return conn.authenticateWithPassword(ai.getUname(),
+						ai.getPasswd());
+			else if (ai.authType == SshAuthInfo.AuthType.PUBLICKEY_AUTH)
+				return conn.authenticateWithPublicKey(ai.getUname(),
+						ai.getPemFile(), ai.getPemFilePass());
+			return false;
+		}
+
+		@Override
+		public boolean isAuthenticated() {
+			return conn.isAuthenticationComplete();
+		}
+
+		@Override
+		public boolean isAlive() {
+			return alive;
+		}
+
+		@Override
+		public Channel openSession() throws IOException {
+			final Session sess = conn.openSession();
+			return new Channel()
+			{
+				@Override
+				public void startSubSystem(String name) throws IOException {
+					sess.startSubSystem(name);
+				}
+
+				@Override
+				public InputStream getStdout() {
+					return sess.getStdout();
+				}
+
+				@Override
+				public OutputStream getStdin() {
+					return sess.getStdin();
+				}
+
+				@Override
+				public void close() {
+					sess.close();
+				}
+			};
+		}
+
+		@Override
+		public void close() {
+			alive = false;
+			conn.close();
+		}
+	}
+
+}
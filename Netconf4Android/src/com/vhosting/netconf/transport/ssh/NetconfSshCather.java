@@ -1,14 +1,11 @@
 package com.vhosting.netconf.transport.ssh;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Vector;
-
-import ch.ethz.ssh2.Connection;
-import ch.ethz.ssh2.HTTPProxyData;
-import ch.ethz.ssh2.Session;
 
+import com.vhosting.netconf.transport.EndOfMessageFramer;
+import com.vhosting.netconf.transport.MessageFramer;
+import com.vhosting.netconf.transport.MessageSlice;
 import com.vhosting.netconf.transport.NetconfCatcher;
 import com.vhosting.netconf.transport.NetconfTransportError.TransportFailCause;
 
@@ -16,6 +13,12 @@ import com.vhosting.netconf.transport.NetconfTransportError.TransportFailCause;
  * This class is the entry point for to establish 
  * a connection Netconf over SSH-2.
  * 
+ * Each catcher opens its own channel with the Netconf subsystem;
+ * the SSH-2 connection is made by the catcher or, if the catcher
+ * is built with an SshConnection, it is shared with other catchers.
+ * 
+ * The SSH-2 protocol is implemented by an SshBackend.
+ * 
  * @author Giuseppe Palmeri
  * @version 1.00, 02/11/2010
  */
@@ -23,6 +26,7 @@ public class NetconfSshCather extends NetconfCatcher
 {
 
 	private SshAuthInfo ai;
+	private SshConnection shared;
 	private String subSystem;
 
 	private boolean isConnected;
@@ -55,9 +59,38 @@ public class NetconfSshCather extends NetconfCatcher
 		this.subSystem = subSystem;
 	}
 
-	private Connection conn;
-	private Session sess;
-	private NetconfSshReader br;
+	/**
+	 * Building the catcher for a Netconf session over a shared
+	 * SSH-2 connection.
+	 * @param labelConnection A label used to identify the connection. 
+	 * @param connection
+	 *            The shared connection.
+	 */
+	public NetconfSshCather(String labelConnection, SshConnection connection)
+	{
+		this(labelConnection, connection, "netconf");
+	}
+
+	/**
+	 * Building the catcher for a Netconf session over a shared
+	 * SSH-2 connection.
+	 * @param labelConnection A label used to identify the connection. 
+	 * @param connection
+	 *            The shared connection.
+	 * @param subSystem
+	 *            The name of the SSH-2 Netconf subsystem.
+	 */
+	public NetconfSshCather(String labelConnection, SshConnection connection,
+			String subSystem)
+	{
+		super(labelConnection);
+		this.ai = connection.getAuthInfo();
+		this.shared = connection;
+		this.subSystem = subSystem;
+	}
+
+	private SshBackend.Connection conn;
+	private SshBackend.Channel sess;
 	private Runnable rCon;
 
 
@@ -86,91 +119,70 @@ public class NetconfSshCather extends NetconfCatcher
 
 				/* Create a runnable connection instance */
 
-				conn = new Connection(ai.getHost().getHostName(), ai.getHost()
-						.getPort());
-				synchronized (conn)
+				SshConnection c = (shared != null) ? shared
+						: new SshConnection(ai);
+
+				/* Now connect */
+
+				try
 				{
-					if (ai.getProxyHost() != null)
-						conn.setProxyData(new HTTPProxyData(ai.getProxyHost()
-								.getHostName(), ai.getProxyHost().getPort()));
-
-					/* Now connect */
-
-					try
-					{
-						conn.connect();
-						isConnected = true;
-					}
-					catch (Exception e)
-					{
-						String msg = "";
-						if (ai.getProxyHost() != null)
-						{
-							msg = " (Http Proxy Server: "+ai.getProxyHost()+")";
-						}
-						throwTransportException(new Exception(e.getMessage() + msg),
-								TransportFailCause.CAUSE_CONNECTION_TROUBLES,
-								false);
-						return;
-					}
-
-					/* Now try to authenticate. */
-					try
-					{
-						boolean isAuthenticated = false;
-
-						if (ai.authType == SshAuthInfo.AuthType.BASIC_AUTH)
-							isAuthenticated = conn.authenticateWithPassword(
-									ai.getUname(), ai.getPasswd());
-						else if (ai.authType == SshAuthInfo.AuthType.PUBLICKEY_AUTH)
-							isAuthenticated = conn.authenticateWithPublicKey(
-									ai.getUname(), ai.getPemFile(),
-									ai.getPemFilePass());
-
-						if (isAuthenticated == false)
-							throw new IOException("Authentication failed.");
-					}
-					catch (Exception e)
-					{
-						conn.close();
-						throwTransportException(
-								e,
-								TransportFailCause.CAUSE_AUTHENTICATION_TROUBLES,
-								true);
-						return;
-					}
-
-					/* Create a session */
-
-					try
-					{
-						sess = conn.openSession();
-					}
-					catch (IOException e)
-					{
-						conn.close();
-						throwTransportException(e,
-								SshFailCause.CAUSE_SSH_SESSION_TROUBLES, true);
-						return;
-					}
+					conn = c.connect();
+					isConnected = true;
+				}
+				catch (Exception e)
+				{
+					throwTransportException(e,
+							TransportFailCause.CAUSE_CONNECTION_TROUBLES,
+							false);
+					return;
+				}
 
-					/* Now start the Netconf sub system. */
+				/* Now try to authenticate. */
+				try
+				{
+					c.authenticate(conn);
+				}
+				catch (Exception e)
+				{
+					isConnected = false;
+					closeConnection(c);
+					throwTransportException(e,
+							TransportFailCause.CAUSE_AUTHENTICATION_TROUBLES,
+							true);
+					return;
+				}
 
-					try
-					{
+				/* Create a session */
 
-						sess.startSubSystem(subSystem);
-					}
-					catch (Exception e)
-					{
-						conn.close();
-						throwTransportException(e,
-								SshFailCause.CAUSE_SSH_SUBSYSTEM_TROUBLES, true);
-						return;
-					}
+				try
+				{
+					sess = conn.openSession();
+				}
+				catch (IOException e)
+				{
+					closeConnection(c);
+					throwTransportException(e,
+							SshFailCause.CAUSE_SSH_SESSION_TROUBLES, true);
+					return;
 				}
 
-				br = new NetconfSshReader(sess.getStdout());
+				/* Now start the Netconf sub system. */
+
+				try
+				{
+
+					sess.startSubSystem(subSystem);
+				}
+				catch (Exception e)
+				{
+					sess.close();
+					closeConnection(c);
+					throwTransportException(e,
+							SshFailCause.CAUSE_SSH_SUBSYSTEM_TROUBLES, true);
+					return;
+				}
+
+				setMessageFramer(new EndOfMessageFramer(sess.getStdout()));
 
 				try
 				{
@@ -202,9 +214,10 @@ public class NetconfSshCather extends NetconfCatcher
 
 				sess.close();
 
-				/* Close the connection */
+				/* Close the connection, if not shared */
 
-				conn.close();
+				closeConnection(c);
+				isConnected = false;
 
 				/* It is certain that at this point the connection is lost. */
 				fireConnectionClosed();
@@ -215,11 +228,9 @@ public class NetconfSshCather extends NetconfCatcher
 		return rCon;
 	}
 
-	private static byte[] endMessage = { ']', ']', '>', ']', ']', '>', '\n' };
-
-	private static void printSshEndStream(OutputStream out) throws IOException {
-		out.write(endMessage);
-		out.flush();
+	private void closeConnection(SshConnection c) {
+		if (c != shared)
+			c.close();
 	}
 
 	@Override
@@ -230,8 +241,10 @@ public class NetconfSshCather extends NetconfCatcher
 			{
 				try
 				{
-				    sess.close();
-					conn.close();
+					if (sess != null)
+						sess.close();
+					if (shared == null)
+						conn.close();
 					isConnected = false;
 				}
 				catch(Exception e)
@@ -247,14 +260,28 @@ public class NetconfSshCather extends NetconfCatcher
 	@Override
 	protected void doSendDataToServer(byte[] bytes) throws IOException {
 		OutputStream out = sess.getStdin();
-		out.write(bytes);
-		printSshEndStream(sess.getStdin());
+		getMessageFramer().writeMessage(out, bytes, 0, bytes.length);
 
 	}
 
+	@Override
+	protected OutputStream doGetOutputStreamToServer() {
+		/*
+		 * The stdin of the channel is not buffered: each write
+		 * becomes at least one SSH packet.
+		 */
+		return sess.getStdin();
+	}
+
 	@Override
 	protected byte[] doReadDataFromServer() throws IOException {
-		byte[] s = br.readMessage();
+		return doReadMessageFromServer().toByteArray();
+	}
+
+	@Override
+	protected MessageSlice doReadMessageFromServer() throws IOException {
+		MessageFramer framer = getMessageFramer();
+		MessageSlice s = framer.readMessage();
 		
 		if (s == null)
 			throw new IOException("End of stream.");
@@ -267,94 +294,3 @@ public class NetconfSshCather extends NetconfCatcher
 		return isConnected;
 	}
 }
-
-final class NetconfSshReader
-{
-
-	Vector<String> v = new Vector<String>();
-	private InputStream in;
-	private byte[] buff = new byte[10000];
-	private int pos = 0;
-
-	private char[] closeSeq = { ']', ']', '>', ']', ']', '>' };
-	private String lastMessage;
-
-	private MessageInputStream mis = new MessageInputStream();
-
-	protected NetconfSshReader(InputStream is)
-	{
-		in = is;
-	}
-
-	synchronized byte[] readMessage() throws IOException {
-
-		int c;
-		pos = 0;
-
-		v.clear();
-		while ((c = in.read()) != -1)
-		{
-			buff[pos++] = (byte) c;
-
-			if (pos >= closeSeq.length
-					&& closeSeq[0] == buff[pos - closeSeq.length]
-					&& closeSeq[1] == buff[pos - closeSeq.length + 1]
-					&& closeSeq[2] == buff[pos - closeSeq.length + 2]
-					&& closeSeq[3] == buff[pos - closeSeq.length + 3]
-					&& closeSeq[4] == buff[pos - closeSeq.length + 4]
-					&& closeSeq[5] == buff[pos - closeSeq.length + 5])
-			{
-				String s = new String(buff, 0, pos - closeSeq.length, "UTF-8");
-				String rtn = "";
-				for (String ss : v)
-				{
-					rtn += ss;
-				}
-
-				v.clear();
-				lastMessage = rtn + s;
-				return lastMessage.getBytes("UTF-8");
-			}
-
-			if (pos == buff.length)
-			{
-				String s = new String(buff, 0, pos - closeSeq.length, "UTF-8");
-
-				v.add(s);
-				System.arraycopy(buff, pos - closeSeq.length, buff, 0,
-						closeSeq.length);
-				pos = closeSeq.length;
-			}
-		}
-		return null;
-	}
-
-	InputStream getMessageInputStream() {
-		if (lastMessage == null)
-			return null;
-		mis.setString(lastMessage);
-		return mis;
-	}
-
-	class MessageInputStream extends InputStream
-	{
-		int pos = 0;
-		private byte[] s;
-
-		@Override
-		public int read() throws IOException {
-			if (s == null)
-				return -1;
-			if (pos >= s.length)
-				return -1;
-			return s[pos++];
-		}
-
-		void setString(String s) {
-			if (s == null)
-				return;
-			pos = 0;
-			this.s = s.getBytes();
-		}
-	}
-}
@@ -0,0 +1,121 @@
+package com.vhosting.netconf.transport.ssh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * This interface is the service provider interface of the
+ * SSH-2 implementations used by the Netconf catchers.
+ * 
+ * The default backend is GanymedSshBackend; another SSH-2 library
+ * can be used implementing this interface and passing the backend
+ * to an SshConnection or setting it as the default backend.
+ * 
+ * @see SshConnection#setDefaultBackend(SshBackend)
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public interface SshBackend
+{
+
+	/**
+	 * Make a new connection with the server,
+	 * including the key exchange.
+	 * 
+	 * @param ai
+	 *            The authentication informations.
+	 * @return The connection, not yet authenticated.
+	 * @throws IOException
+	 *             Throw this exception if the connection can not be made.
+	 */
+	public Connection connect(SshAuthInfo ai) throws IOException;
+
+	/**
+	 * This interface represents an SSH-2 connection.
+	 * 
+	 * @author Giuseppe Palmeri
+	 */
+	public interface Connection
+	{
+
+		/**
+		 * Authenticate the user with the informations of the connection.
+		 * 
+		 * @param ai
+		 *            The authentication informations.
+		 * @return true if the user has been authenticated; false otherwise.
+		 * @throws IOException
+		 *             Throw this exception if there are connection troubles.
+		 */
+		public boolean authenticate(SshAuthInfo ai) throws IOException;
+
+		/**
+		 * Check if the user has been authenticated.
+		 * 
+		 * @return true if the user has been authenticated; false otherwise.
+		 */
+		public boolean isAuthenticated();
+
+		/**
+		 * Check if the connection is alive or not.
+		 * 
+		 * @return true if the connection is alive; false otherwise.
+		 */
+		public boolean isAlive();
+
+		/**
+		 * Open a new session channel.
+		 * 
+		 * @return The channel.
+		 * @throws IOException
+		 *             Throw this exception if the channel can not be opened.
+		 */
+		public Channel openSession() throws IOException;
+
+		/**
+		 * Close the connection and all its channels.
+		 */
+		public void close();
+	}
+
+	/**
+	 * This interface represents a session channel
+	 * of an SSH-2 connection.
+	 * 
+	 * @author Giuseppe Palmeri
+	 */
+	public interface Channel
+	{
+
+		/**
+		 * Start a subsystem on the channel.
+		 * 
+		 * @param name
+		 *            The name of the subsystem.
+		 * @throws IOException
+		 *             Throw this exception if the subsystem can not be
+		 *             started.
+		 */
+		public void startSubSystem(String name) throws IOException;
+
+		/**
+		 * Get the stream of the data sent by the server.
+		 * 
+		 * @return The input stream.
+		 */
+		public InputStream getStdout();
+
+		/**
+		 * Get the stream of the data sent to the server.
+		 * 
+		 * @return The output stream.
+		 */
+		public OutputStream getStdin();
+
+		/**
+		 * Close the channel.
+		 */
+		public void close();
+	}
+}
@@ -0,0 +1,155 @@
+package com.vhosting.netconf.transport.ssh;
+
+import java.io.IOException;
+
+/**
+ * This class represents an SSH-2 connection that can be
+ * shared by many Netconf sessions.
+ * 
+ * The connection is made and authenticated only once, when the
+ * first catcher connects; each catcher then opens its own channel
+ * with the Netconf subsystem, so that many Netconf sessions run
+ * over one connection without repeating the key exchange and the
+ * authentication.
+ * 
+ * <pre>
+ * SshConnection conn = new SshConnection(ai);
+ * 
+ * NetconfSshCather c1 = new NetconfSshCather(&quot;s1&quot;, conn);
+ * NetconfSshCather c2 = new NetconfSshCather(&quot;s2&quot;, conn);
+ * </pre>
+ * 
+ * When the connection is lost, all its Netconf sessions are closed;
+ * the next catcher that connects makes a new connection.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public class SshConnection
+{
+
+	private static SshBackend defaultBackend = new GanymedSshBackend();
+
+	private final SshAuthInfo ai;
+	private final SshBackend backend;
+	private SshBackend.Connection conn;
+
+	/**
+	 * Building a connection that can be shared, using the
+	 * default SSH-2 backend.
+	 * The connection is made by the first catcher that connects.
+	 * 
+	 * @param ai
+	 *            The authentication informations.
+	 */
+	public SshConnection(SshAuthInfo ai)
+	{
+		this(ai, defaultBackend);
+	}
+
+	/**
+	 * Building a connection that can be shared.
+	 * The connection is made by the first catcher that connects.
+	 * 
+	 * @param ai
+	 *            The authentication informations.
+	 * @param backend
+	 *            The SSH-2 backend.
+	 */
+	public SshConnection(SshAuthInfo ai, SshBackend backend)
+	{
+		this.ai = ai;
+		this.backend = backend;
+	}
+
+	/**
+	 * Set the SSH-2 backend used by the catchers that are not built
+	 * with an SshConnection and by the connections built without
+	 * a backend.
+	 * The default is GanymedSshBackend.
+	 * 
+	 * @param backend
+	 *            The SSH-2 backend.
+	 */
+	public static final void setDefaultBackend(SshBackend backend) {
+		defaultBackend = backend;
+	}
+
+	/**
+	 * Get the default SSH-2 backend.
+	 * 
+	 * @return The SSH-2 backend.
+	 * @see #setDefaultBackend(SshBackend)
+	 */
+	public static final SshBackend getDefaultBackend() {
+		return defaultBackend;
+	}
+
+	/**
+	 * Get the authentication informations.
+	 * 
+	 * @return The authentication informations.
+	 */
+	public SshAuthInfo getAuthInfo() {
+		return ai;
+	}
+
+	/**
+	 * Make the connection with the server, if not yet made.
+	 * 
+	 * @return The connection.
+	 * @throws IOException
+	 *             Throw this exception if the connection can not be made.
+	 */
+	synchronized SshBackend.Connection connect() throws IOException {
+		if (conn != null && conn.isAlive())
+			return conn;
+		conn = null;
+
+		try
+		{
+			conn = backend.connect(ai);
+		}
+		catch (IOException e)
+		{
+			String msg = "";
+			if (ai.getProxyHost() != null)
+			{
+				msg = " (Http Proxy Server: " + ai.getProxyHost() + ")";
+			}
+			throw new IOException(e.getMessage() + msg);
+		}
+		return conn;
+	}
+
+	/**
+	 * Authenticate the connection, if not yet authenticated.
+	 * 
+	 * @throws IOException
+	 *             Throw this exception if the authentication fails.
+	 */
+	synchronized void authenticate(SshBackend.Connection c)
+			throws IOException {
+		if (c.isAuthenticated())
+			return;
+
+		if (c.authenticate(ai) == false)
+		{
+			close();
+			throw new IOException("Authentication failed.");
+		}
+	}
+
+	/**
+	 * Close the connection and all the Netconf sessions
+	 * that use it.
+	 */
+	public synchronized void close() {
+		if (conn != null)
+		{
+			conn.close();
+			conn = null;
+		}
+	}
+
+}
@@ -0,0 +1,250 @@
+package com.vhosting.netconf.transport.tls;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+
+import com.vhosting.netconf.transport.EndOfMessageFramer;
+import com.vhosting.netconf.transport.MessageFramer;
+import com.vhosting.netconf.transport.MessageSlice;
+import com.vhosting.netconf.transport.NetconfCatcher;
+import com.vhosting.netconf.transport.NetconfTransportError.TransportFailCause;
+
+/**
+ * This class is the entry point for to establish
+ * a connection Netconf over TLS (RFC 7589).
+ * 
+ * The messages are framed as over SSH-2: the framing changes from
+ * ']]&gt;]]&gt;' to the chunked framing when both the peers support
+ * the base:1.1 capability.
+ * 
+ * A TLS session is resumed when the server is reconnected with the
+ * same TlsAuthInfo, so that the full handshake is skipped.
+ * 
+ * The certificate of the server must match the host name used to
+ * connect, as required by RFC 7589.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public class NetconfTlsCatcher extends NetconfCatcher
+{
+
+	private TlsAuthInfo ai;
+
+	private volatile boolean isConnected;
+
+	/**
+	 * Building the catcher for a connection over TLS.
+	 * 
+	 * @param labelConnection
+	 *            A label used to identify the connection.
+	 * @param ai
+	 *            The authentication informations.
+	 */
+	public NetconfTlsCatcher(String labelConnection, TlsAuthInfo ai)
+	{
+		super(labelConnection);
+		this.ai = ai;
+	}
+
+	private SSLSocket socket;
+	private Runnable rCon;
+
+	/**
+	 * Create a Runnable connection.
+	 * 
+	 * <pre>
+	 * 1. make the connection with the server;
+	 * 2. make or resume the TLS session;
+	 * 3. Send a welcome message;
+	 * 4. Listen for any messages from the server.
+	 * </pre>
+	 * 
+	 * @return A Runnable object that run the connection process.
+	 */
+	public Runnable getRunnableConnection() {
+
+		if (rCon != null) return rCon;
+		Runnable rCon = new Runnable()
+		{
+
+			public void run() {
+
+				String hostName = ai.getHost().getHostName();
+				int port = ai.getHost().getPort();
+
+				/* Now connect */
+
+				Socket s = null;
+				try
+				{
+					s = new Socket(hostName, port);
+					s.setTcpNoDelay(true);
+				}
+				catch (Exception e)
+				{
+					if (s != null)
+						close(s);
+					throwTransportException(e,
+							TransportFailCause.CAUSE_CONNECTION_TROUBLES,
+							false);
+					return;
+				}
+
+				/*
+				 * The TLS sessions are cached by host name and port:
+				 * the socket is layered with the name used to connect.
+				 */
+				try
+				{
+					SSLSocket ss = (SSLSocket) ai.getSSLContext()
+							.getSocketFactory().createSocket(s, hostName, port,
+									true);
+					boolean verified = setEndpointIdentification(ss);
+					ss.startHandshake();
+
+					/*
+					 * Where the endpoint identification is not available
+					 * the identity of the server is verified before
+					 * sending the hello message.
+					 */
+					if (!verified
+							&& !HttpsURLConnection.getDefaultHostnameVerifier()
+									.verify(hostName, ss.getSession()))
+						throw new SSLPeerUnverifiedException(
+								"The certificate of the server does not match "
+										+ hostName + ".");
+					socket = ss;
+					isConnected = true;
+				}
+				catch (Exception e)
+				{
+					close(s);
+					throwTransportException(e,
+							TlsFailCause.CAUSE_TLS_HANDSHAKE_TROUBLES, true);
+					return;
+				}
+
+				try
+				{
+					setMessageFramer(new EndOfMessageFramer(socket
+							.getInputStream()));
+
+					/*
+					 * Send the Netconf Hello message with the statement
+					 * of capabilities.
+					 */
+					sendHelloMsg();
+
+					/*
+					 * At this point begins to read the messages from the
+					 * server.
+					 */
+					whileRpcReplyCatching();
+				}
+				catch (IOException e)
+				{
+					/* The connection is dropped. */
+					/* Nothing to do. */
+				}
+
+				/* Close the connection */
+
+				isConnected = false;
+				close(socket);
+
+				/* It is certain that at this point the connection is lost. */
+				fireConnectionClosed();
+			}
+		};
+		this.rCon = rCon;
+		return rCon;
+	}
+
+	/*
+	 * Let the TLS handshake verify the certificate of the server
+	 * against the host name.
+	 * Return false if the API level does not support it.
+	 */
+	private static boolean setEndpointIdentification(SSLSocket s) {
+		try
+		{
+			SSLParameters p = s.getSSLParameters();
+			p.setEndpointIdentificationAlgorithm("HTTPS");
+			s.setSSLParameters(p);
+			return true;
+		}
+		catch (NoSuchMethodError e)
+		{
+			return false;
+		}
+	}
+
+	private static void close(Socket s) {
+		try
+		{
+			s.close();
+		}
+		catch (IOException e)
+		{
+			// The connection is already closed.
+		}
+	}
+
+	@Override
+	protected boolean doDisconnect() {
+		SSLSocket s = socket;
+		if (s != null)
+		{
+			isConnected = false;
+			close(s);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	protected void doSendDataToServer(byte[] bytes) throws IOException {
+		getMessageFramer().writeMessage(socket.getOutputStream(), bytes, 0,
+				bytes.length);
+	}
+
+	@Override
+	protected OutputStream doGetOutputStreamToServer() {
+		try
+		{
+			return socket.getOutputStream();
+		}
+		catch (IOException e)
+		{
+			// The message will be sent with doSendDataToServer().
+			return null;
+		}
+	}
+
+	@Override
+	protected byte[] doReadDataFromServer() throws IOException {
+		return doReadMessageFromServer().toByteArray();
+	}
+
+	@Override
+	protected MessageSlice doReadMessageFromServer() throws IOException {
+		MessageFramer framer = getMessageFramer();
+		MessageSlice s = framer.readMessage();
+
+		if (s == null)
+			throw new IOException("End of stream.");
+		return s;
+	}
+
+	@Override
+	public boolean isConnected() {
+		return isConnected;
+	}
+}
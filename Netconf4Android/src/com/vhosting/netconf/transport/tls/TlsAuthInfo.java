@@ -0,0 +1,120 @@
+package com.vhosting.netconf.transport.tls;
+
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * This class provides the information needed to make
+ * a connection Netconf over TLS such as a remote host name,
+ * the certificate of the client and the certificates
+ * of the trusted servers.
+ * 
+ * The TLS sessions negotiated with the servers are cached by the
+ * SSL context: <b>reuse the same instance when reconnecting to a
+ * server</b>, so that the TLS session is resumed without the full
+ * handshake.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public class TlsAuthInfo
+{
+
+	/**
+	 * The default port of Netconf over TLS (RFC 7589).
+	 */
+	public static final int DEFAULT_PORT = 6513;
+
+	private InetSocketAddress host;
+	private SSLContext context;
+
+	/**
+	 * Prepares a connection on the specified host using
+	 * an SSL context.
+	 * 
+	 * @param host
+	 *            The Host.
+	 * @param context
+	 *            The SSL context; it provides the certificate of the
+	 *            client and verifies the certificate of the server.
+	 */
+	public TlsAuthInfo(InetSocketAddress host, SSLContext context)
+	{
+		this.host = host;
+		this.context = context;
+	}
+
+	/**
+	 * Prepares a connection on the specified host name at the
+	 * default port 6513 using an SSL context.
+	 * 
+	 * @param hostName
+	 *            The Host name.
+	 * @param context
+	 *            The SSL context; it provides the certificate of the
+	 *            client and verifies the certificate of the server.
+	 */
+	public TlsAuthInfo(String hostName, SSLContext context)
+	{
+		this(new InetSocketAddress(hostName, DEFAULT_PORT), context);
+	}
+
+	/**
+	 * Prepares a connection on the specified host using the
+	 * certificates of two key stores.
+	 * 
+	 * @param host
+	 *            The Host.
+	 * @param keyStore
+	 *            The key store with the private key and the
+	 *            certificate of the client.
+	 * @param keyPass
+	 *            The password of the private key.
+	 * @param trustStore
+	 *            The key store with the certificates of the trusted
+	 *            servers or of their certification authorities.
+	 * @throws GeneralSecurityException
+	 *             Throw this exception if the SSL context can not be
+	 *             created from the key stores.
+	 */
+	public TlsAuthInfo(InetSocketAddress host, KeyStore keyStore,
+			String keyPass, KeyStore trustStore)
+			throws GeneralSecurityException
+	{
+		KeyManagerFactory kmf = KeyManagerFactory
+				.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		kmf.init(keyStore, keyPass.toCharArray());
+		TrustManagerFactory tmf = TrustManagerFactory
+				.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		tmf.init(trustStore);
+
+		SSLContext context = SSLContext.getInstance("TLS");
+		context.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+
+		this.host = host;
+		this.context = context;
+	}
+
+	/**
+	 * Get the host.
+	 * 
+	 * @return The host.
+	 */
+	public InetSocketAddress getHost() {
+		return host;
+	}
+
+	/**
+	 * Get the SSL context.
+	 * 
+	 * @return The SSL context.
+	 */
+	public SSLContext getSSLContext() {
+		return context;
+	}
+}
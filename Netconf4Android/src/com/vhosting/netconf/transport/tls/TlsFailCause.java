@@ -0,0 +1,20 @@
+package com.vhosting.netconf.transport.tls;
+
+import com.vhosting.netconf.transport.NetconfTransportError.FailCause;
+
+/**
+ * This enum groups all the causes of failure are
+ * specific to the TLS transport protocol.
+ * 
+ * @author Giuseppe Palmeri
+ * @version 1.00, 18/10/2026
+ */
+public enum TlsFailCause implements FailCause
+{
+
+	/**
+	 * Cause of failure due to problems in the TLS handshake,
+	 * for example when a certificate is not trusted.
+	 */
+	CAUSE_TLS_HANDSHAKE_TROUBLES
+}
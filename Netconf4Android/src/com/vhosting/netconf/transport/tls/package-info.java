@@ -0,0 +1,9 @@
+/**
+ * This is the entry point of a Netconf application 
+ * over TLS.
+ * 
+ * Contains everything related to the 
+ * specific TLS transport protocol of Netconf messages.
+ * 
+ */
+package com.vhosting.netconf.transport.tls;